@@ -1,5 +1,6 @@
 plugins {
     application
+    alias(libs.plugins.jmh)
 }
 
 repositories {
@@ -26,9 +27,16 @@ java {
 }
 
 application {
-    mainClass = "org.example.App"
+    mainClass = "org.livetiming.Main"
 }
 
 tasks.named<Test>("test") {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Benchmarks live in src/jmh/java and run with ./gradlew jmh
+jmh {
+    jmhVersion = libs.versions.jmh
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
@@ -0,0 +1,53 @@
+package org.livetiming;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds reproducible fields of competitors for the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates unnumbered competitors with birth years spread over all categories and a fixed random seed.
+     *
+     * @param size the number of competitors
+     * @return the competitors
+     */
+    public static List<Competitor> createCompetitors(int size) {
+        Random random = new Random(42);
+        List<Competitor> competitors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Athlete athlete = new Athlete("First" + i, "Last" + i, random.nextBoolean() ? Gender.MALE : Gender.FEMALE,
+                    "Club " + random.nextInt(200), Year.of(1940 + random.nextInt(84)), CompetitorStatus.NOT_STARTED);
+            competitors.add(new Competitor(athlete, 0));
+        }
+        return competitors;
+    }
+
+    /**
+     * Creates a numbered competitor list of the given size.
+     *
+     * @param size the number of competitors
+     * @return the competitor list
+     */
+    public static CompetitorList createCompetitorList(int size) {
+        CompetitorList competitorList = new CompetitorList();
+        for (Competitor competitor : createCompetitors(size)) {
+            competitorList.addCompetitor(competitor);
+        }
+        competitorList.assignStartNumbersByCategory();
+        return competitorList;
+    }
+}
@@ -0,0 +1,66 @@
+package org.livetiming.event;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks races running side by side in an EventManager. Every invocation runs one complete race of 500
+ * competitors on each race writer, so the throughput per race should stay flat as races are added, up to the
+ * number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventManagerBenchmark {
+    private static final int FIELD_SIZE = 500;
+
+    @Param({"1", "2", "4", "8"})
+    private int races;
+
+    private EventManager eventManager;
+    private List<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventManager = new EventManager();
+        names = new ArrayList<>();
+        for (int i = 0; i < races; i++) {
+            IndividualRace race = new IndividualRace("Race " + i, BenchmarkFixtures.createCompetitorList(FIELD_SIZE), new FakeTimeSource(0));
+            eventManager.addRace(race);
+            names.add(race.getName());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventManager.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIELD_SIZE)
+    public void raceOnEveryWriter() {
+        CompletableFuture<?>[] futures = new CompletableFuture[races];
+        for (int i = 0; i < races; i++) {
+            futures[i] = eventManager.execute(names.get(i), race -> {
+                race.reset();
+                for (int n = 0; n < FIELD_SIZE; n++) {
+                    race.startNext(n);
+                }
+                for (int n = 0; n < FIELD_SIZE; n++) {
+                    race.finishNext(1_000_000L + n);
+                }
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,53 @@
+package org.livetiming.event;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks time-travel queries on the history of a complete race: every competitor registered, started and
+ * finished. A query rebuilds the state from the nearest checkpoint, so its cost should follow the checkpoint interval,
+ * not the number of events before the queried moment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RaceHistoryBenchmark {
+
+    @Param({"10000", "100000"})
+    private int fieldSize;
+
+    @Param({"64", "256", "1024"})
+    private int checkpointInterval;
+
+    private RaceHistory history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IndividualRace race = new IndividualRace("History", BenchmarkFixtures.createCompetitorList(fieldSize), new FakeTimeSource(0));
+        history = new RaceHistory(race, checkpointInterval);
+        for (int n = 0; n < fieldSize; n++) {
+            race.startNext(n);
+        }
+        for (int n = 0; n < fieldSize; n++) {
+            race.finishNext(fieldSize + n);
+        }
+    }
+
+    @Benchmark
+    public RaceState stateAtRandomEvent() {
+        return history.stateAt(ThreadLocalRandom.current().nextInt(history.size() + 1));
+    }
+
+    @Benchmark
+    public RaceState stateAsOfRandomTime() {
+        return history.stateAsOf(ThreadLocalRandom.current().nextLong(2L * fieldSize));
+    }
+}
@@ -0,0 +1,91 @@
+package org.livetiming.manager;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Year;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the CompetitorList operations used on race day, on a field where 10% of the competitors are on course
+ * and 5% have finished.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompetitorListBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    private CompetitorList competitorList;
+    private Competitor extraCompetitor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        competitorList = BenchmarkFixtures.createCompetitorList(size);
+        long time = 1;
+        for (int i = 0; i < size / 10; i++) {
+            competitorList.getNextCompetitor().start(time++);
+        }
+        for (int i = 0; i < size / 20; i++) {
+            competitorList.getNextCompetitorOnCourse().finish(time++);
+        }
+        extraCompetitor = new Competitor(new Athlete("Extra", "Competitor", Gender.FEMALE, "Club", Year.of(1990),
+                CompetitorStatus.NOT_STARTED), size + 1);
+    }
+
+    @Benchmark
+    public void addCompetitor() {
+        // Removing again keeps the field size constant across invocations
+        competitorList.addCompetitor(extraCompetitor);
+        competitorList.removeCompetitor(extraCompetitor);
+    }
+
+    @Benchmark
+    public Competitor getNextCompetitor() {
+        return competitorList.getNextCompetitor();
+    }
+
+    @Benchmark
+    public void getCompetitorsOnCourse(Blackhole blackhole) {
+        for (Competitor competitor : competitorList.getCompetitorsOnCourse()) {
+            blackhole.consume(competitor);
+        }
+    }
+
+    @Benchmark
+    public void getCompetitorsByStatus(Blackhole blackhole) {
+        for (Competitor competitor : competitorList.getCompetitorsByStatus(CompetitorStatus.FINISHED)) {
+            blackhole.consume(competitor);
+        }
+    }
+
+    @Benchmark
+    public int getCompetitorsByCategory() {
+        // Served from the query cache while the field does not change
+        return competitorList.getFemaleCompetitorsByCategory(Category.SENIOR).size()
+                + competitorList.getCompetitorsByCategory(Category.U14).size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void assignStartNumbersByCategory() {
+        competitorList.assignStartNumbersByCategory();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<SeededGroup> assignStartNumbersByRandomDraw() {
+        return competitorList.assignStartNumbers(SeedingOrder.randomDraw(42).separatingClubs(), 1);
+    }
+}
@@ -0,0 +1,47 @@
+package org.livetiming.manager;
+
+import org.livetiming.BenchmarkFixtures;
+
+/**
+ * Compares the retained heap of a CompetitorList and a ColumnarCompetitorStore holding the same field.
+ * Heap usage is sampled after repeated garbage collections, so the numbers are estimates; run with a fixed heap,
+ * e.g. {@code -Xms4g -Xmx4g}, for stable results.
+ *
+ * <p>Usage: {@code FootprintComparison [size]}, the size defaults to one million competitors.
+ */
+public final class FootprintComparison {
+
+    private FootprintComparison() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        CompetitorList competitorList = BenchmarkFixtures.createCompetitorList(size);
+        long listBytes = usedHeap() - before;
+        report("CompetitorList", listBytes, size, competitorList.getCompetitorCount());
+        competitorList = null;
+
+        before = usedHeap();
+        ColumnarCompetitorStore store = new ColumnarCompetitorStore(size);
+        store.addCompetitors(BenchmarkFixtures.createCompetitors(size));
+        store.assignStartNumbersByCategory();
+        long storeBytes = usedHeap() - before;
+        report("ColumnarCompetitorStore", storeBytes, size, store.getCompetitorCount());
+
+        System.out.printf("Reduction: %.1fx%n", (double) listBytes / storeBytes);
+    }
+
+    private static void report(String name, long bytes, int size, int count) {
+        System.out.printf("%-24s %,14d bytes %8.1f bytes/competitor (%,d competitors)%n", name, bytes, (double) bytes / size, count);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,57 @@
+package org.livetiming.persistence;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.manager.CompetitorList;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing a snapshot of 100k competitors and loading it back into a fresh competitor list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CompetitorSnapshotBenchmark {
+    private static final int COMPETITORS = 100_000;
+
+    private Path directory;
+    private Path snapshot;
+    private CompetitorList competitors;
+    private CompetitorList recovered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        snapshot = directory.resolve("competitors.snapshot");
+        competitors = BenchmarkFixtures.createCompetitorList(COMPETITORS);
+        CompetitorSnapshot.write(competitors, snapshot);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpLoad() {
+        recovered = new CompetitorList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void writeHundredThousandCompetitors() throws IOException {
+        CompetitorSnapshot.write(competitors, snapshot);
+    }
+
+    @Benchmark
+    public int loadHundredThousandCompetitors() throws IOException {
+        return CompetitorSnapshot.load(snapshot, recovered);
+    }
+}
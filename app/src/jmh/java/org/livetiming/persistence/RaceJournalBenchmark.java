@@ -0,0 +1,78 @@
+package org.livetiming.persistence;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks appending to the race journal and recovering a race of 100k events from it.
+ * Append times are reported per batch of 100k records.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RaceJournalBenchmark {
+    private static final int COMPETITORS = 50_000;
+    private static final int APPEND_BATCH = 100_000;
+
+    private Path directory;
+    private RaceJournal journal;
+    private RaceJournal appendJournal;
+    private CompetitorList recovered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = RaceJournal.open(directory.resolve("race.journal"));
+        FakeTimeSource timeSource = new FakeTimeSource(0);
+        IndividualRace race = new IndividualRace("Benchmark", BenchmarkFixtures.createCompetitorList(COMPETITORS), timeSource, journal);
+        for (int i = 0; i < COMPETITORS; i++) {
+            timeSource.advance(1_000_000L);
+            race.startNext();
+            race.finishNext();
+        }
+        appendJournal = RaceJournal.open(directory.resolve("append.journal"));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpRecovery() {
+        recovered = BenchmarkFixtures.createCompetitorList(COMPETITORS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        appendJournal.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, batchSize = APPEND_BATCH)
+    @Measurement(iterations = 5, batchSize = APPEND_BATCH)
+    public void append() {
+        // Batched single shots bound the size of the journal file, unlike a timed loop
+        appendJournal.append(JournalRecordType.FINISHED, 1, 42L, 1_000L);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long replayHundredThousandEvents() {
+        return journal.replay(recovered);
+    }
+}
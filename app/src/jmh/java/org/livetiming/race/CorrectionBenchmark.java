@@ -0,0 +1,51 @@
+package org.livetiming.race;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks finish time corrections on a finished field. Each invocation moves a result from the middle of the
+ * leaderboard a given number of ranks and back, so the cost should follow the distance, not the size of the field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrectionBenchmark {
+    private static final long GAP = 10L;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"1", "100"})
+    private int distance;
+
+    private IndividualRace race;
+    private int startNumber;
+    private long finishTime;
+    private boolean moved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        race = new IndividualRace("Benchmark", BenchmarkFixtures.createCompetitorList(size), new FakeTimeSource(0));
+        race.massStart(0L);
+        for (int i = 0; i < size; i++) {
+            // Finishers are ranked in finish order, GAP apart
+            race.finishNext(1_000L + i * GAP);
+        }
+        startNumber = race.getRanking().getOverall().getResultAt(size / 2).competitor().getStartNumber();
+        finishTime = race.getCompetitors().getCompetitorByStartNumber(startNumber).getFinishTime();
+    }
+
+    @Benchmark
+    public IndividualRace correctFinishTime() {
+        moved = !moved;
+        race.correctFinishTime(startNumber, moved ? finishTime - distance * GAP - 1 : finishTime);
+        return race;
+    }
+}
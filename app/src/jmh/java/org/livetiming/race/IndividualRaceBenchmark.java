@@ -0,0 +1,54 @@
+package org.livetiming.race;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a complete race: numbering the field, then starting and finishing every competitor.
+ * Runs with and without metrics to show the cost of the instrumentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndividualRaceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private IndividualRace race;
+    private FakeTimeSource timeSource;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        timeSource = new FakeTimeSource(0);
+        race = new IndividualRace("Benchmark", BenchmarkFixtures.createCompetitorList(size), timeSource);
+        if (metrics) {
+            race.enableMetrics(new MetricsRegistry());
+        }
+    }
+
+    @Benchmark
+    public IndividualRace raceLifecycle() {
+        race.reset();
+        race.assignStartNumbers();
+        for (int i = 0; i < size; i++) {
+            timeSource.advance(1_000_000L);
+            race.startNext();
+        }
+        for (int i = 0; i < size; i++) {
+            timeSource.advance(1_000_000L);
+            race.finishNext();
+        }
+        return race;
+    }
+}
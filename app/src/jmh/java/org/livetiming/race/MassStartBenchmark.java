@@ -0,0 +1,45 @@
+package org.livetiming.race;
+
+import org.livetiming.BenchmarkFixtures;
+import org.livetiming.manager.StartSelection;
+import org.livetiming.timing.FakeTimeSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a mass start: starting the whole field with one batched wave against starting every competitor on
+ * its own with the same start time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MassStartBenchmark {
+    private static final long START_TIME = 1_000_000L;
+
+    @Param({"1000", "5000", "100000"})
+    private int size;
+
+    private IndividualRace race;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        race = new IndividualRace("Benchmark", BenchmarkFixtures.createCompetitorList(size), new FakeTimeSource(0));
+    }
+
+    @Benchmark
+    public int batchedMassStart() {
+        return race.startWave(StartSelection.all(), START_TIME);
+    }
+
+    @Benchmark
+    public IndividualRace startEachCompetitor() {
+        for (int i = 0; i < size; i++) {
+            race.startNext(START_TIME);
+        }
+        return race;
+    }
+}
@@ -0,0 +1,60 @@
+package org.livetiming.stream;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the results fan-out: measures the latency from publishing one event until every subscriber, each
+ * drained by its own virtual thread as a streaming connection would be, has received it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultBroadcasterBenchmark {
+    private static final String EVENT = "{\"seq\":1,\"type\":\"FINISHED\",\"bib\":42,\"name\":\"Anna Example\",\"category\":\"SENIOR\","
+            + "\"gender\":\"FEMALE\",\"startTime\":1000,\"netTime\":123456789,\"rank\":1,\"gap\":0,\"categoryRank\":1,\"categoryGap\":0}";
+
+    @Param({"1000", "10000"})
+    private int subscribers;
+
+    private ResultBroadcaster broadcaster;
+    private ExecutorService consumers;
+    private volatile CountDownLatch received;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broadcaster = new ResultBroadcaster();
+        consumers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < subscribers; i++) {
+            Subscriber subscriber = broadcaster.subscribe();
+            consumers.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (subscriber.poll(1, TimeUnit.SECONDS) != null) {
+                        received.countDown();
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumers.shutdownNow();
+    }
+
+    @Benchmark
+    public void fanOut() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        received = latch;
+        broadcaster.broadcast(EVENT);
+        latch.await();
+    }
+}
@@ -1,5 +1,101 @@
 package org.livetiming;
 
-public class LiveTiming {
+import org.livetiming.metrics.MetricsHttpHandler;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.stream.ResultBroadcaster;
+import org.livetiming.stream.ResultStreamServer;
 
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * The live timing service of a race: streams every start, finish and ranking of the race to connected clients.
+ * With a metrics registry, the service also instruments the race and serves the metrics as plain text on
+ * {@code /metrics} and through JMX.
+ */
+public class LiveTiming implements AutoCloseable {
+    private final IndividualRace race;
+    private final ResultBroadcaster broadcaster;
+    private final ResultStreamServer server;
+    private final MetricsRegistry metrics;
+    private final ObjectName metricsName;
+
+    /**
+     * Constructs the live timing service of a race without metrics.
+     *
+     * @param race the race to publish
+     * @param port the port of the results stream, 0 picks a free port
+     * @throws IOException if the server cannot be bound
+     */
+    public LiveTiming(IndividualRace race, int port) throws IOException {
+        this(race, port, null);
+    }
+
+    /**
+     * Constructs the live timing service of a race.
+     *
+     * @param race    the race to publish
+     * @param port    the port of the results stream and the metrics, 0 picks a free port
+     * @param metrics the registry to record the metrics of the race into, or null to not record metrics
+     * @throws IOException if the server cannot be bound
+     */
+    public LiveTiming(IndividualRace race, int port, MetricsRegistry metrics) throws IOException {
+        this.race = race;
+        this.broadcaster = new ResultBroadcaster();
+        this.broadcaster.attach(race);
+        this.server = new ResultStreamServer(broadcaster, new InetSocketAddress(port));
+        this.metrics = metrics;
+        if (metrics != null) {
+            race.enableMetrics(metrics);
+            server.addHandler(MetricsHttpHandler.PATH, new MetricsHttpHandler(metrics));
+            this.metricsName = metrics.registerMBean("org.livetiming:type=Metrics,race=" + ObjectName.quote(race.getName()));
+        } else {
+            this.metricsName = null;
+        }
+    }
+
+    /**
+     * Starts serving the results stream.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the published race
+     */
+    public IndividualRace getRace() {
+        return race;
+    }
+
+    /**
+     * @return the broadcaster fanning out the race events
+     */
+    public ResultBroadcaster getBroadcaster() {
+        return broadcaster;
+    }
+
+    /**
+     * @return the port of the results stream
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * @return the registry the race records its metrics into, or null if metrics are not recorded
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        server.close();
+        if (metricsName != null) {
+            metrics.unregisterMBean(metricsName);
+        }
+    }
 }
@@ -1,8 +1,34 @@
 package org.livetiming;
 
-public class Main {
+import org.livetiming.importer.ImportError;
+import org.livetiming.importer.ImportResult;
+import org.livetiming.importer.StartListImporter;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.race.IndividualRace;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
-    public static void main(String[] args) {
+public class Main {
 
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        CompetitorList competitors = new CompetitorList();
+        if (args.length > 1) {
+            ImportResult result = new StartListImporter().importFile(Path.of(args[1]), competitors);
+            for (ImportError error : result.errors()) {
+                System.err.println("Line " + error.line() + ": " + error.message());
+            }
+            System.out.println("Imported " + result.competitors().size() + " competitors from " + args[1]);
+        }
+        // Metrics are off unless started with -Dlivetiming.metrics=true
+        MetricsRegistry metrics = Boolean.getBoolean("livetiming.metrics") ? new MetricsRegistry() : null;
+        LiveTiming liveTiming = new LiveTiming(new IndividualRace("Live Timing", competitors), port, metrics);
+        liveTiming.start();
+        System.out.println("Streaming live results on http://localhost:" + liveTiming.getPort() + "/results");
+        if (metrics != null) {
+            System.out.println("Serving metrics on http://localhost:" + liveTiming.getPort() + "/metrics");
+        }
     }
 }
@@ -0,0 +1,92 @@
+package org.livetiming.event;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.model.CompetitorStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of one competitor in a {@link RaceState}.
+ *
+ * @param startNumber the start number
+ * @param status      the status of the competitor
+ * @param startTime   the start time in nanoseconds since the epoch, or 0
+ * @param finishTime  the finish time in nanoseconds since the epoch, or 0
+ * @param splitTimes  the split times indexed by checkpoint - 1, 0 for a checkpoint not passed; copied
+ */
+public record CompetitorState(int startNumber, CompetitorStatus status, long startTime, long finishTime,
+                              List<Long> splitTimes) {
+
+    public CompetitorState {
+        splitTimes = List.copyOf(splitTimes);
+    }
+
+    /**
+     * Constructs the state of a competitor without split times.
+     *
+     * @param startNumber the start number
+     * @param status      the status of the competitor
+     * @param startTime   the start time in nanoseconds since the epoch, or 0
+     * @param finishTime  the finish time in nanoseconds since the epoch, or 0
+     */
+    public CompetitorState(int startNumber, CompetitorStatus status, long startTime, long finishTime) {
+        this(startNumber, status, startTime, finishTime, List.of());
+    }
+
+    /**
+     * Reads the state of a competitor. A competitor waiting to start has no times, even if a reset left its previous
+     * times in place.
+     *
+     * @param competitor the competitor
+     * @return the state of the competitor
+     */
+    static CompetitorState of(Competitor competitor) {
+        if (competitor.getStatus() == CompetitorStatus.NOT_STARTED) {
+            return new CompetitorState(competitor.getStartNumber(), CompetitorStatus.NOT_STARTED, 0, 0);
+        }
+        List<Long> splits = new ArrayList<>();
+        for (long split : competitor.getSplitTimes()) {
+            splits.add(split);
+        }
+        return new CompetitorState(competitor.getStartNumber(), competitor.getStatus(), competitor.getStartTime(),
+                competitor.getFinishTime(), splits);
+    }
+
+    /**
+     * @return the net time of a finished competitor, or 0
+     */
+    public long netTime() {
+        return status == CompetitorStatus.FINISHED ? finishTime - startTime : 0;
+    }
+
+    /**
+     * @param checkpoint the checkpoint, starting at 1
+     * @return the split time at the checkpoint, or 0 if the competitor has not passed it
+     */
+    public long getSplitTime(int checkpoint) {
+        return checkpoint >= 1 && checkpoint <= splitTimes.size() ? splitTimes.get(checkpoint - 1) : 0;
+    }
+
+    /**
+     * @param status the new status
+     * @return this state with another status
+     */
+    CompetitorState withStatus(CompetitorStatus status) {
+        return new CompetitorState(startNumber, status, startTime, finishTime, splitTimes);
+    }
+
+    /**
+     * @param checkpoint the checkpoint, starting at 1
+     * @param splitTime  the split time
+     * @return this state with the split time recorded
+     */
+    CompetitorState withSplit(int checkpoint, long splitTime) {
+        List<Long> splits = new ArrayList<>(splitTimes);
+        while (splits.size() < checkpoint) {
+            splits.add(0L);
+        }
+        splits.set(checkpoint - 1, splitTime);
+        return new CompetitorState(startNumber, status, startTime, finishTime, splits);
+    }
+}
@@ -0,0 +1,255 @@
+package org.livetiming.event;
+
+import org.livetiming.exception.RaceNotFoundException;
+import org.livetiming.model.Athlete;
+import org.livetiming.race.IndividualRace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the races of an event day side by side.
+ * Every race is owned by its own single-threaded executor, which is the only thread writing to the race, so races
+ * never contend with each other and scale with the number of cores. After each operation the writer publishes an
+ * immutable {@link RaceSnapshot} of its race through a {@link RaceSnapshotPublisher}, which only replaces the
+ * results the operation changed; queries across races read the latest snapshots and never lock or wait for a
+ * writer.
+ */
+public class EventManager implements AutoCloseable {
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, ManagedRace> races;
+    private final boolean platformThreads;
+
+    /**
+     * Constructs an EventManager running every race on its own virtual thread.
+     */
+    public EventManager() {
+        this(false);
+    }
+
+    /**
+     * Constructs an EventManager.
+     *
+     * @param platformThreads whether every race gets a dedicated platform thread instead of a virtual thread
+     */
+    public EventManager(boolean platformThreads) {
+        this.races = new ConcurrentHashMap<>();
+        this.platformThreads = platformThreads;
+    }
+
+    //====================================================================================================
+    // Races
+    //====================================================================================================
+    /**
+     * Adds a race to the event. From now on the race must only be changed through {@link #submit} or
+     * {@link #execute}.
+     *
+     * @param race the race to add
+     * @throws IllegalArgumentException if the event already has a race with the same name
+     */
+    public void addRace(IndividualRace race) {
+        ManagedRace managed = new ManagedRace(race, Executors.newSingleThreadExecutor(threadFactory(race.getName())));
+        if (races.putIfAbsent(race.getName(), managed) != null) {
+            managed.executor.shutdown();
+            throw new IllegalArgumentException("The event already has a race named " + race.getName() + ".");
+        }
+        managed.executor.execute(managed::publish);
+    }
+
+    /**
+     * Removes a race from the event after the operations already submitted to it are applied.
+     *
+     * @param name the name of the race
+     * @return the removed race
+     * @throws RaceNotFoundException if the event has no race with this name
+     */
+    public IndividualRace removeRace(String name) {
+        ManagedRace managed = races.remove(name);
+        if (managed == null) {
+            throw new RaceNotFoundException("The event has no race named " + name + ".");
+        }
+        managed.executor.execute(managed.publisher::detach);
+        managed.executor.shutdown();
+        return managed.race;
+    }
+
+    /**
+     * @return the names of the races of the event
+     */
+    public Collection<String> getRaceNames() {
+        return List.copyOf(races.keySet());
+    }
+
+    /**
+     * Applies an operation to a race on the writer thread of the race.
+     *
+     * @param name      the name of the race
+     * @param operation the operation to apply
+     * @param <T>       the result type of the operation
+     * @return a future completed with the result of the operation once it is applied and published
+     * @throws RaceNotFoundException if the event has no race with this name
+     */
+    public <T> CompletableFuture<T> submit(String name, Function<IndividualRace, T> operation) {
+        ManagedRace managed = managed(name);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return operation.apply(managed.race);
+            } finally {
+                managed.publish();
+            }
+        }, managed.executor);
+    }
+
+    /**
+     * Applies an operation to a race on the writer thread of the race.
+     *
+     * @param name      the name of the race
+     * @param operation the operation to apply
+     * @return a future completed once the operation is applied and published
+     * @throws RaceNotFoundException if the event has no race with this name
+     */
+    public CompletableFuture<Void> execute(String name, Consumer<IndividualRace> operation) {
+        return submit(name, race -> {
+            operation.accept(race);
+            return null;
+        });
+    }
+
+    //====================================================================================================
+    // Queries
+    //====================================================================================================
+    /**
+     * Retrieves the latest published snapshot of a race.
+     *
+     * @param name the name of the race
+     * @return the snapshot
+     * @throws RaceNotFoundException if the event has no race with this name
+     */
+    public RaceSnapshot getSnapshot(String name) {
+        return managed(name).publisher.getSnapshot();
+    }
+
+    /**
+     * Retrieves the results of an athlete in all races of the event. Athletes are matched by first name, last name
+     * and birth year.
+     *
+     * @param athlete the athlete
+     * @return the results of the athlete, one per race entered
+     */
+    public List<RaceResult> getResultsOf(Athlete athlete) {
+        List<RaceResult> results = new ArrayList<>();
+        for (ManagedRace managed : races.values()) {
+            for (RaceResult result : managed.publisher.getSnapshot().results()) {
+                if (result.firstName().equals(athlete.getFirstName()) && result.lastName().equals(athlete.getLastName())
+                        && Objects.equals(result.birthYear(), athlete.getBirthYear())) {
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the number of finished competitors over all races
+     */
+    public int getFinisherCount() {
+        int finishers = 0;
+        for (ManagedRace managed : races.values()) {
+            finishers += managed.publisher.getSnapshot().finishers();
+        }
+        return finishers;
+    }
+
+    /**
+     * @return the number of competitors over all races
+     */
+    public int getCompetitorCount() {
+        int competitors = 0;
+        for (ManagedRace managed : races.values()) {
+            competitors += managed.publisher.getSnapshot().results().size();
+        }
+        return competitors;
+    }
+
+    /**
+     * Stops all races after the operations already submitted to them are applied, waiting up to a minute for them.
+     * If the calling thread is interrupted while waiting, its interrupt flag is restored and the races are left to stop
+     * on their own.
+     *
+     * @throws IllegalStateException if a race did not stop within a minute
+     */
+    @Override
+    public void close() {
+        for (ManagedRace managed : races.values()) {
+            managed.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        List<String> running = new ArrayList<>();
+        try {
+            for (ManagedRace managed : races.values()) {
+                if (!managed.executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    running.add(managed.race.getName());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            races.clear();
+        }
+        if (!running.isEmpty()) {
+            throw new IllegalStateException("The races " + running + " did not stop within a minute.");
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private ManagedRace managed(String name) {
+        ManagedRace managed = races.get(name);
+        if (managed == null) {
+            throw new RaceNotFoundException("The event has no race named " + name + ".");
+        }
+        return managed;
+    }
+
+    private ThreadFactory threadFactory(String raceName) {
+        return platformThreads
+                ? Thread.ofPlatform().name("race-" + raceName).daemon().factory()
+                : Thread.ofVirtual().name("race-" + raceName).factory();
+    }
+
+    /**
+     * A race with its writer executor and the publisher of its snapshots.
+     */
+    private static final class ManagedRace {
+        private final IndividualRace race;
+        private final ExecutorService executor;
+        private final RaceSnapshotPublisher publisher;
+
+        private ManagedRace(IndividualRace race, ExecutorService executor) {
+            this.race = race;
+            this.executor = executor;
+            this.publisher = new RaceSnapshotPublisher(race);
+        }
+
+        /**
+         * Publishes the changes of the last operation. Only called on the writer thread of the race.
+         */
+        private void publish() {
+            publisher.publish();
+        }
+    }
+}
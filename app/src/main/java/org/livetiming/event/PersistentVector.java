@@ -0,0 +1,99 @@
+package org.livetiming.event;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list backed by a 32-way trie. Replacing or appending an element copies only the path from the root
+ * to its leaf, at most a handful of 32-slot arrays, and shares everything else with the previous version, so every
+ * version stays valid and readable without locking.
+ *
+ * @param <E> the element type
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[WIDTH]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    /**
+     * @param <E> the element type
+     * @return the empty vector
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (E) node[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates a version of this vector with an element replaced.
+     *
+     * @param index   the index of the element
+     * @param element the new element
+     * @return the new version
+     */
+    PersistentVector<E> with(int index, E element) {
+        Objects.checkIndex(index, size);
+        return new PersistentVector<>(size, shift, copyPath(root, shift, index, element));
+    }
+
+    /**
+     * Creates a version of this vector with an element appended.
+     *
+     * @param element the element to append
+     * @return the new version
+     */
+    PersistentVector<E> plus(E element) {
+        if (size == 1 << (shift + BITS)) {
+            // The trie is full; grow a level on top of the current root
+            Object[] newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            return new PersistentVector<>(size + 1, shift + BITS, copyPath(newRoot, shift + BITS, size, element));
+        }
+        return new PersistentVector<>(size + 1, shift, copyPath(root, shift, size, element));
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Copies the nodes on the path to an index, creating missing nodes, and stores the element in the copied leaf.
+     */
+    private static Object[] copyPath(Object[] node, int level, int index, Object element) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = copyPath((Object[]) copy[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,128 @@
+package org.livetiming.event;
+
+import org.livetiming.model.CompetitorStatus;
+
+/**
+ * A change to the state of one competitor of a race, as recorded in a {@link RaceHistory} and reduced by
+ * {@link RaceState#apply(RaceEvent)}.
+ * Competitors are identified by their position in the history rather than by start number, which may change during
+ * the history. Times are nanoseconds since the epoch.
+ */
+public sealed interface RaceEvent {
+
+    /**
+     * @return the time of the event: the start or finish time for starts and finishes, otherwise the time at which
+     * the event was recorded
+     */
+    long time();
+
+    /**
+     * @return the position of the competitor in the history
+     */
+    int competitor();
+
+    /**
+     * A competitor enters the history with a given state, either when it joins the race or when its state is
+     * overwritten outside the other events, e.g. when a finished competitor is sent back on course.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor, the next free one for a new competitor
+     * @param state      the state of the competitor
+     */
+    record Registered(long time, int competitor, CompetitorState state) implements RaceEvent {
+    }
+
+    /**
+     * A competitor waiting to start starts, or a competitor on course is started again. Split times of a previous
+     * start are cleared.
+     *
+     * @param time       the start time
+     * @param competitor the position of the competitor
+     */
+    record Started(long time, int competitor) implements RaceEvent {
+    }
+
+    /**
+     * A competitor who has started passes an intermediate checkpoint.
+     *
+     * @param time       the split time
+     * @param competitor the position of the competitor
+     * @param checkpoint the checkpoint, starting at 1
+     */
+    record SplitRecorded(long time, int competitor, int checkpoint) implements RaceEvent {
+    }
+
+    /**
+     * A competitor on course finishes.
+     *
+     * @param time       the finish time
+     * @param competitor the position of the competitor
+     */
+    record Finished(long time, int competitor) implements RaceEvent {
+    }
+
+    /**
+     * A competitor on course does not finish.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor
+     */
+    record DidNotFinish(long time, int competitor) implements RaceEvent {
+    }
+
+    /**
+     * A competitor is disqualified.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor
+     */
+    record Disqualified(long time, int competitor) implements RaceEvent {
+    }
+
+    /**
+     * A competitor marked as "did not finish" or disqualified is reinstated, either on course or as finished.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor
+     * @param status     the status the competitor is reinstated with, {@code ON_COURSE} or {@code FINISHED}
+     * @param finishTime the finish time of a competitor reinstated as finished, otherwise 0
+     */
+    record Reinstated(long time, int competitor, CompetitorStatus status, long finishTime) implements RaceEvent {
+
+        public Reinstated {
+            if (status != CompetitorStatus.ON_COURSE && status != CompetitorStatus.FINISHED) {
+                throw new IllegalArgumentException("A competitor cannot be reinstated as " + status + ".");
+            }
+        }
+    }
+
+    /**
+     * A competitor is reset to wait for its start, e.g. by a reset of the race. Its times are cleared.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor
+     */
+    record Reset(long time, int competitor) implements RaceEvent {
+    }
+
+    /**
+     * The start and finish time of a competitor are corrected. The status stays as it is.
+     *
+     * @param time       the time the event was recorded
+     * @param competitor the position of the competitor
+     * @param startTime  the corrected start time
+     * @param finishTime the corrected finish time, or 0
+     */
+    record TimeCorrected(long time, int competitor, long startTime, long finishTime) implements RaceEvent {
+    }
+
+    /**
+     * A competitor gets another start number.
+     *
+     * @param time        the time the event was recorded
+     * @param competitor  the position of the competitor
+     * @param startNumber the new start number
+     */
+    record BibChanged(long time, int competitor, int startNumber) implements RaceEvent {
+    }
+}
@@ -0,0 +1,322 @@
+package org.livetiming.event;
+
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.manager.CompetitorListener;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records a race as an append-only log of {@link RaceEvent}s, so that the state of the race at any earlier moment can
+ * be reconstructed, e.g. to settle a protest.
+ * The history listens to the competitors of the race and turns every change into a typed event: starts and restarts,
+ * split times, finishes, retirements, disqualifications, reinstatements, resets, corrected times and changed start
+ * numbers. Competitors enter the history with a {@link RaceEvent.Registered} event, the ones of the race when the
+ * history is created first.
+ *
+ * <p>Every {@value #DEFAULT_CHECKPOINT_INTERVAL} events by default, the history keeps the current {@link RaceState} as
+ * a checkpoint. The state after event N is rebuilt from the checkpoint at or before N by replaying at most one
+ * interval of events, and the state as of a time T is found by a binary search over the event times first, so neither
+ * replays the race from the start. Checkpoints are cheap to keep, as successive states share all unchanged competitors.
+ */
+public class RaceHistory implements CompetitorListener {
+    /**
+     * The number of events between two checkpoints unless configured otherwise.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+
+    private final TimeSource timeSource;
+    private final int checkpointInterval;
+    private final Map<Competitor, Integer> positions;
+    private final List<Competitor> roster;
+    private final List<RaceEvent> events;
+    private final List<RaceState> checkpoints;
+    private long[] times;
+    private RaceState state;
+
+    /**
+     * Constructs a RaceHistory with a checkpoint every {@value #DEFAULT_CHECKPOINT_INTERVAL} events and registers it
+     * on the race.
+     *
+     * @param race the race to record
+     */
+    public RaceHistory(IndividualRace race) {
+        this(race, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructs a RaceHistory and registers it on the race. The competitors of the race are registered in order of
+     * their start numbers with their current state.
+     *
+     * @param race               the race to record
+     * @param checkpointInterval the number of events between two checkpoints
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public RaceHistory(IndividualRace race, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive.");
+        }
+        this.timeSource = race.getTimeSource();
+        this.checkpointInterval = checkpointInterval;
+        this.positions = new IdentityHashMap<>();
+        this.roster = new ArrayList<>();
+        this.events = new ArrayList<>();
+        this.checkpoints = new ArrayList<>();
+        this.times = new long[64];
+        this.state = RaceState.empty();
+        this.checkpoints.add(state);
+
+        CompetitorList competitors = race.getCompetitors();
+        List<Competitor> field = new ArrayList<>(competitors.getAllCompetitors());
+        field.sort(Comparator.comparingInt(Competitor::getStartNumber));
+        long now = timeSource.now();
+        for (Competitor competitor : field) {
+            register(competitor, now);
+        }
+        competitors.addListener(this);
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Appends an event to the history.
+     *
+     * @param event the event
+     * @return the state after the event
+     * @throws CompetitorNotFoundException if the event does not apply to the current state
+     */
+    public synchronized RaceState append(RaceEvent event) {
+        RaceState next = state.apply(event);
+        int index = events.size();
+        if (index == times.length) {
+            times = Arrays.copyOf(times, index * 2);
+        }
+        // Event times are kept non-decreasing, so that they can be searched
+        times[index] = index == 0 ? event.time() : Math.max(times[index - 1], event.time());
+        events.add(event);
+        state = next;
+        if (events.size() % checkpointInterval == 0) {
+            checkpoints.add(next);
+        }
+        return next;
+    }
+
+    /**
+     * @return the state after all events
+     */
+    public synchronized RaceState getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of events
+     */
+    public synchronized int size() {
+        return events.size();
+    }
+
+    /**
+     * @param index the position of the event, starting at 0
+     * @return the event
+     * @throws IndexOutOfBoundsException if there is no such event
+     */
+    public synchronized RaceEvent getEvent(int index) {
+        return events.get(index);
+    }
+
+    /**
+     * @return a copy of all events in order
+     */
+    public synchronized List<RaceEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * Rebuilds the state after a number of events from the nearest checkpoint.
+     *
+     * @param eventCount the number of events, between 0 and {@link #size()}
+     * @return the state after the first eventCount events
+     * @throws IndexOutOfBoundsException if the history has fewer events
+     */
+    public synchronized RaceState stateAt(int eventCount) {
+        if (eventCount < 0 || eventCount > events.size()) {
+            throw new IndexOutOfBoundsException("The race history has no state after " + eventCount + " events.");
+        }
+        if (eventCount == events.size()) {
+            return state;
+        }
+        RaceState rebuilt = checkpoints.get(eventCount / checkpointInterval);
+        for (int i = rebuilt.getEventCount(); i < eventCount; i++) {
+            rebuilt = rebuilt.apply(events.get(i));
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Rebuilds the state of the race as of a time: after every event up to the last one at or before the time.
+     * An event stamped earlier than an event recorded before it, e.g. a finish read from a delayed timing device,
+     * counts as of the time of that earlier-recorded event.
+     *
+     * @param time the time in nanoseconds since the epoch
+     * @return the state as of the time
+     */
+    public synchronized RaceState stateAsOf(long time) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return stateAt(low);
+    }
+
+    /**
+     * Retrieves the position of a competitor in the history, which identifies it in the events.
+     *
+     * @param competitor the competitor
+     * @return the position of the competitor
+     * @throws CompetitorNotFoundException if the competitor is not in the history
+     */
+    public synchronized int positionOf(Competitor competitor) {
+        Integer position = positions.get(competitor);
+        if (position == null) {
+            throw new CompetitorNotFoundException("Competitor " + competitor.getStartNumber() + " is not in the race history.");
+        }
+        return position;
+    }
+
+    /**
+     * Materializes a state into a new competitor list, e.g. to rank or export the race as it was. The competitors are
+     * copies with the athlete data of the competitors of the race and the start numbers, statuses, times and split
+     * times of the state.
+     *
+     * @param state a state of this history
+     * @return a new competitor list
+     */
+    public CompetitorList materialize(RaceState state) {
+        List<Competitor> athletes;
+        synchronized (this) {
+            athletes = List.copyOf(roster.subList(0, state.size()));
+        }
+        List<Competitor> copies = new ArrayList<>(athletes.size());
+        for (int i = 0; i < athletes.size(); i++) {
+            CompetitorState competitorState = state.get(i);
+            Competitor copy = new Competitor(athletes.get(i), competitorState.startNumber());
+            if (competitorState.status() != CompetitorStatus.NOT_STARTED) {
+                copy.start(competitorState.startTime());
+                List<Long> splits = competitorState.splitTimes();
+                for (int checkpoint = 1; checkpoint <= splits.size(); checkpoint++) {
+                    if (splits.get(checkpoint - 1) != 0) {
+                        copy.recordSplit(checkpoint, splits.get(checkpoint - 1));
+                    }
+                }
+                copy.setFinishTime(competitorState.finishTime());
+            }
+            copy.setStatus(competitorState.status());
+            copies.add(copy);
+        }
+        CompetitorList competitors = new CompetitorList();
+        competitors.addCompetitors(copies);
+        return competitors;
+    }
+
+    //====================================================================================================
+    // CompetitorListener
+    //====================================================================================================
+    @Override
+    public synchronized void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        Integer position = positions.get(competitor);
+        if (position == null) {
+            register(competitor, timeSource.now());
+            return;
+        }
+        // The recorded status decides the event, so that every event applies to the state before it
+        CompetitorStatus recorded = state.get(position).status();
+        boolean retired = recorded == CompetitorStatus.DID_NOT_FINISH || recorded == CompetitorStatus.DISQUALIFIED;
+        if (status == CompetitorStatus.NOT_STARTED) {
+            append(new RaceEvent.Reset(timeSource.now(), position));
+        } else if (recorded == CompetitorStatus.NOT_STARTED && status == CompetitorStatus.ON_COURSE) {
+            append(new RaceEvent.Started(competitor.getStartTime(), position));
+        } else if (recorded == CompetitorStatus.ON_COURSE && status == CompetitorStatus.FINISHED) {
+            append(new RaceEvent.Finished(competitor.getFinishTime(), position));
+        } else if (recorded == CompetitorStatus.ON_COURSE && status == CompetitorStatus.DID_NOT_FINISH) {
+            append(new RaceEvent.DidNotFinish(timeSource.now(), position));
+        } else if (status == CompetitorStatus.DISQUALIFIED) {
+            append(new RaceEvent.Disqualified(timeSource.now(), position));
+        } else if (retired && status == CompetitorStatus.ON_COURSE) {
+            append(new RaceEvent.Reinstated(timeSource.now(), position, status, 0));
+        } else if (retired && status == CompetitorStatus.FINISHED) {
+            append(new RaceEvent.Reinstated(timeSource.now(), position, status, competitor.getFinishTime()));
+        } else {
+            append(new RaceEvent.Registered(timeSource.now(), position, CompetitorState.of(competitor)));
+        }
+    }
+
+    @Override
+    public synchronized void onCompetitorChanged(Competitor competitor) {
+        Integer position = positions.get(competitor);
+        if (position == null) {
+            register(competitor, timeSource.now());
+            return;
+        }
+        CompetitorState recorded = state.get(position);
+        CompetitorState current = CompetitorState.of(competitor);
+        if (current.startNumber() != recorded.startNumber()) {
+            append(new RaceEvent.BibChanged(timeSource.now(), position, current.startNumber()));
+        }
+        if (current.startTime() != recorded.startTime() || current.finishTime() != recorded.finishTime()) {
+            append(new RaceEvent.TimeCorrected(timeSource.now(), position, current.startTime(), current.finishTime()));
+        }
+    }
+
+    @Override
+    public synchronized void onRestarted(Competitor competitor) {
+        Integer position = positions.get(competitor);
+        if (position == null) {
+            register(competitor, timeSource.now());
+            return;
+        }
+        append(new RaceEvent.Started(competitor.getStartTime(), position));
+    }
+
+    @Override
+    public synchronized void onSplitRecorded(Competitor competitor, int checkpoint) {
+        Integer position = positions.get(competitor);
+        if (position == null) {
+            register(competitor, timeSource.now());
+            return;
+        }
+        append(new RaceEvent.SplitRecorded(competitor.getSplitTime(checkpoint), position, checkpoint));
+    }
+
+    @Override
+    public synchronized void onCompetitorAdded(Competitor competitor) {
+        if (!positions.containsKey(competitor)) {
+            register(competitor, timeSource.now());
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private void register(Competitor competitor, long time) {
+        int position = roster.size();
+        append(new RaceEvent.Registered(time, position, CompetitorState.of(competitor)));
+        roster.add(competitor);
+        positions.put(competitor, position);
+    }
+}
@@ -0,0 +1,35 @@
+package org.livetiming.event;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.time.Year;
+
+/**
+ * The state of one competitor of a race at the time of a snapshot.
+ *
+ * @param race        the name of the race
+ * @param startNumber the start number
+ * @param firstName   the first name of the athlete
+ * @param lastName    the last name of the athlete
+ * @param birthYear   the birth year of the athlete, may be null
+ * @param club        the club of the athlete, may be null
+ * @param category    the category of the competitor
+ * @param gender      the gender of the athlete
+ * @param status      the status of the competitor
+ * @param startTime   the start time in nanoseconds since the epoch, or 0
+ * @param finishTime  the finish time in nanoseconds since the epoch, or 0
+ * @param rank        the overall rank of a finished competitor, or 0
+ */
+public record RaceResult(String race, int startNumber, String firstName, String lastName, Year birthYear, String club,
+                         Category category, Gender gender, CompetitorStatus status, long startTime, long finishTime,
+                         int rank) {
+
+    /**
+     * @return the net time of a finished competitor, or 0
+     */
+    public long netTime() {
+        return status == CompetitorStatus.FINISHED ? finishTime - startTime : 0;
+    }
+}
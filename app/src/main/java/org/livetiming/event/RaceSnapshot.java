@@ -0,0 +1,39 @@
+package org.livetiming.event;
+
+import org.livetiming.model.CompetitorStatus;
+
+import java.util.List;
+
+/**
+ * An immutable point-in-time view of a race, published by the thread writing to the race.
+ * Successive snapshots share the results that did not change between them.
+ *
+ * @param race      the name of the race
+ * @param version   the number of operations applied to the race when the snapshot was taken
+ * @param results   the state of every competitor, unmodifiable
+ * @param finishers the number of finished competitors
+ */
+public record RaceSnapshot(String race, long version, List<RaceResult> results, int finishers) {
+
+    /**
+     * @param race the name of the race
+     * @return an empty snapshot
+     */
+    static RaceSnapshot empty(String race) {
+        return new RaceSnapshot(race, 0, List.of(), 0);
+    }
+
+    /**
+     * @param status the status to count
+     * @return the number of competitors with the status
+     */
+    public int count(CompetitorStatus status) {
+        int count = 0;
+        for (RaceResult result : results) {
+            if (result.status() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,193 @@
+package org.livetiming.event;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorListener;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.ranking.Leaderboard;
+import org.livetiming.ranking.RankChange;
+import org.livetiming.ranking.RankedResult;
+import org.livetiming.ranking.RankingListener;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Publishes immutable, versioned {@link RaceSnapshot}s of a race for readers such as scoreboards and exporters.
+ * The publisher listens to the competitors and the leaderboard of the race and remembers which competitors changed.
+ * {@link #publish()} then replaces only their results in a persistent vector, sharing everything else with the
+ * previous snapshot, and swaps the new snapshot in with a single volatile write. Readers take the current snapshot
+ * with {@link #getSnapshot()} without locking or copying and keep a consistent view for as long as they hold it.
+ *
+ * <p>A finish or a removed result shifts the ranks behind it; only the leaderboard from the first shifted position on
+ * is re-read, which for finishers arriving in order of their net time is just the tail. A corrected result only
+ * updates the results between its old and its new position.
+ */
+public class RaceSnapshotPublisher implements CompetitorListener, RankingListener {
+    private final IndividualRace race;
+    private final Map<Competitor, Integer> slots;
+    private final Set<Competitor> changed;
+    private PersistentVector<RaceResult> results;
+    private int finishers;
+    private int firstShiftedRank;
+    private boolean rebuild;
+    private long version;
+    private volatile RaceSnapshot snapshot;
+
+    /**
+     * Constructs a RaceSnapshotPublisher and registers it on the race. The first snapshot is taken by the first call
+     * to {@link #publish()}.
+     *
+     * @param race the race to publish
+     */
+    public RaceSnapshotPublisher(IndividualRace race) {
+        this.race = race;
+        this.slots = new IdentityHashMap<>();
+        this.changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.results = PersistentVector.empty();
+        this.firstShiftedRank = Integer.MAX_VALUE;
+        this.rebuild = true;
+        this.snapshot = RaceSnapshot.empty(race.getName());
+        race.getCompetitors().addListener(this);
+        race.getRanking().addListener(this);
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Retrieves the latest published snapshot. Never blocks.
+     *
+     * @return the snapshot
+     */
+    public RaceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the changes made to the race since the previous snapshot. Meant to be called after each race
+     * operation by the thread that applied it, so a snapshot never shows an operation half done.
+     *
+     * @return the published snapshot
+     */
+    public synchronized RaceSnapshot publish() {
+        Leaderboard overall = race.getRanking().getOverall();
+        if (rebuild) {
+            rebuild(overall);
+        } else {
+            for (Competitor competitor : changed) {
+                update(competitor, overall.getRank(competitor));
+            }
+            for (int position = firstShiftedRank; position <= overall.size(); position++) {
+                RankedResult result = overall.getResultAt(position);
+                Integer slot = slots.get(result.competitor());
+                if (slot != null && results.get(slot).rank() != result.rank()) {
+                    results = results.with(slot, toResult(result.competitor(), result.rank()));
+                }
+            }
+        }
+        changed.clear();
+        firstShiftedRank = Integer.MAX_VALUE;
+        snapshot = new RaceSnapshot(race.getName(), ++version, results, finishers);
+        return snapshot;
+    }
+
+    /**
+     * Unregisters the publisher from the race. The latest snapshot stays available.
+     */
+    public void detach() {
+        race.getCompetitors().removeListener(this);
+        race.getRanking().removeListener(this);
+    }
+
+    //====================================================================================================
+    // Race notifications
+    //====================================================================================================
+    @Override
+    public synchronized void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        changed.add(competitor);
+    }
+
+    @Override
+    public synchronized void onCompetitorChanged(Competitor competitor) {
+        changed.add(competitor);
+    }
+
+    @Override
+    public synchronized void onCompetitorAdded(Competitor competitor) {
+        changed.add(competitor);
+    }
+
+    @Override
+    public synchronized void onCompetitorRemoved(Competitor competitor) {
+        // Removing a competitor would leave a hole in the vector, so the next snapshot is built from scratch
+        rebuild = true;
+    }
+
+    @Override
+    public synchronized void onRanked(RankedResult overall, RankedResult category) {
+        firstShiftedRank = Math.min(firstShiftedRank, overall.rank());
+    }
+
+    @Override
+    public synchronized void onRankChanged(RankChange overall, RankChange category) {
+        // A corrected result only changes its own rank and the ranks of the results it passed
+        changed.add(overall.competitor());
+        for (RankedResult result : overall.shifted()) {
+            changed.add(result.competitor());
+        }
+    }
+
+    @Override
+    public synchronized void onUnranked(Competitor competitor) {
+        Integer slot = slots.get(competitor);
+        int rank = slot == null ? 0 : results.get(slot).rank();
+        // A result ranked and removed again since the last snapshot has no published rank to start from
+        firstShiftedRank = Math.min(firstShiftedRank, rank == 0 ? 1 : rank);
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Builds the results of all competitors from scratch.
+     */
+    private void rebuild(Leaderboard overall) {
+        slots.clear();
+        results = PersistentVector.empty();
+        finishers = 0;
+        for (Competitor competitor : race.getCompetitors().getAllCompetitors()) {
+            update(competitor, overall.getRank(competitor));
+        }
+        rebuild = false;
+    }
+
+    /**
+     * Replaces the result of a competitor, or appends it if the competitor is new, and keeps the finisher count.
+     */
+    private void update(Competitor competitor, int rank) {
+        RaceResult result = toResult(competitor, rank);
+        Integer slot = slots.get(competitor);
+        if (slot == null) {
+            slots.put(competitor, results.size());
+            results = results.plus(result);
+        } else {
+            if (results.get(slot).status() == CompetitorStatus.FINISHED) {
+                finishers--;
+            }
+            results = results.with(slot, result);
+        }
+        if (result.status() == CompetitorStatus.FINISHED) {
+            finishers++;
+        }
+    }
+
+    private RaceResult toResult(Competitor competitor, int rank) {
+        return new RaceResult(race.getName(), competitor.getStartNumber(), competitor.getFirstName(),
+                competitor.getLastName(), competitor.getBirthYear(), competitor.getClub(), competitor.getCategory(),
+                competitor.getGender(), competitor.getStatus(), competitor.getStartTime(), competitor.getFinishTime(),
+                competitor.getStatus() == CompetitorStatus.FINISHED ? rank : 0);
+    }
+}
@@ -0,0 +1,177 @@
+package org.livetiming.event;
+
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.model.CompetitorStatus;
+
+import java.util.List;
+
+/**
+ * The immutable state of a race after a number of {@link RaceEvent}s.
+ * {@link #apply(RaceEvent)} is a pure reducer: it leaves the state unchanged and returns the next one, which shares
+ * all competitors but the changed one with this state in a persistent vector. Every state of a history therefore stays
+ * valid, and replaying the same events always yields the same state.
+ */
+public final class RaceState {
+    private static final RaceState EMPTY = new RaceState(PersistentVector.empty(), 0);
+
+    private final PersistentVector<CompetitorState> competitors;
+    private final int eventCount;
+
+    private RaceState(PersistentVector<CompetitorState> competitors, int eventCount) {
+        this.competitors = competitors;
+        this.eventCount = eventCount;
+    }
+
+    /**
+     * @return the state before the first event
+     */
+    public static RaceState empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Reduces a sequence of events, starting from the empty state.
+     *
+     * @param events the events
+     * @return the state after the events
+     * @throws CompetitorNotFoundException if an event does not apply to the state before it
+     */
+    public static RaceState replay(List<RaceEvent> events) {
+        RaceState state = EMPTY;
+        for (RaceEvent event : events) {
+            state = state.apply(event);
+        }
+        return state;
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Applies an event to this state.
+     *
+     * @param event the event
+     * @return the state after the event
+     * @throws CompetitorNotFoundException if the event refers to an unknown competitor or the competitor does not have
+     *                                     the status the event requires
+     */
+    public RaceState apply(RaceEvent event) {
+        int competitor = event.competitor();
+        if (event instanceof RaceEvent.Registered registered && competitor == competitors.size()) {
+            return new RaceState(competitors.plus(registered.state()), eventCount + 1);
+        }
+        CompetitorState state = get(competitor);
+        CompetitorState next;
+        if (event instanceof RaceEvent.Registered registered) {
+            next = registered.state();
+        } else if (event instanceof RaceEvent.Started) {
+            if (state.status() != CompetitorStatus.ON_COURSE) {
+                require(state, CompetitorStatus.NOT_STARTED, "is waiting to start or on course");
+            }
+            next = new CompetitorState(state.startNumber(), CompetitorStatus.ON_COURSE, event.time(), 0);
+        } else if (event instanceof RaceEvent.SplitRecorded split) {
+            if (state.status() == CompetitorStatus.NOT_STARTED) {
+                throw new CompetitorNotFoundException("No competitor with start number " + state.startNumber()
+                        + " has started.");
+            }
+            next = state.withSplit(split.checkpoint(), split.time());
+        } else if (event instanceof RaceEvent.Finished) {
+            require(state, CompetitorStatus.ON_COURSE, "is on course");
+            next = new CompetitorState(state.startNumber(), CompetitorStatus.FINISHED, state.startTime(), event.time(),
+                    state.splitTimes());
+        } else if (event instanceof RaceEvent.DidNotFinish) {
+            require(state, CompetitorStatus.ON_COURSE, "is on course");
+            next = state.withStatus(CompetitorStatus.DID_NOT_FINISH);
+        } else if (event instanceof RaceEvent.Disqualified) {
+            next = state.withStatus(CompetitorStatus.DISQUALIFIED);
+        } else if (event instanceof RaceEvent.Reinstated reinstated) {
+            if (state.status() != CompetitorStatus.DISQUALIFIED) {
+                require(state, CompetitorStatus.DID_NOT_FINISH, "is marked as did not finish or disqualified");
+            }
+            next = new CompetitorState(state.startNumber(), reinstated.status(), state.startTime(),
+                    reinstated.finishTime(), state.splitTimes());
+        } else if (event instanceof RaceEvent.Reset) {
+            next = new CompetitorState(state.startNumber(), CompetitorStatus.NOT_STARTED, 0, 0);
+        } else if (event instanceof RaceEvent.TimeCorrected corrected) {
+            next = new CompetitorState(state.startNumber(), state.status(), corrected.startTime(),
+                    corrected.finishTime(), state.splitTimes());
+        } else if (event instanceof RaceEvent.BibChanged changed) {
+            next = new CompetitorState(changed.startNumber(), state.status(), state.startTime(), state.finishTime(),
+                    state.splitTimes());
+        } else {
+            throw new IllegalArgumentException("Unknown race event " + event + ".");
+        }
+        return new RaceState(competitors.with(competitor, next), eventCount + 1);
+    }
+
+    /**
+     * @return the number of events this state is the result of
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return the number of competitors
+     */
+    public int size() {
+        return competitors.size();
+    }
+
+    /**
+     * @param competitor the position of the competitor in the history
+     * @return the state of the competitor
+     * @throws CompetitorNotFoundException if there is no competitor at this position
+     */
+    public CompetitorState get(int competitor) {
+        if (competitor < 0 || competitor >= competitors.size()) {
+            throw new CompetitorNotFoundException("No competitor at position " + competitor + " of the race history.");
+        }
+        return competitors.get(competitor);
+    }
+
+    /**
+     * Looks up a competitor by start number. The states are not indexed by start number, so this takes linear time.
+     *
+     * @param startNumber the start number
+     * @return the state of the competitor, or null if no competitor has the start number
+     */
+    public CompetitorState getByStartNumber(int startNumber) {
+        for (CompetitorState state : competitors) {
+            if (state.startNumber() == startNumber) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the states of all competitors by position, unmodifiable
+     */
+    public List<CompetitorState> getCompetitors() {
+        return competitors;
+    }
+
+    /**
+     * @param status the status to count
+     * @return the number of competitors with the status
+     */
+    public int count(CompetitorStatus status) {
+        int count = 0;
+        for (CompetitorState state : competitors) {
+            if (state.status() == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private static void require(CompetitorState state, CompetitorStatus status, String description) {
+        if (state.status() != status) {
+            throw new CompetitorNotFoundException("No competitor with start number " + state.startNumber() + " " + description + ".");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.livetiming.exception;
+
+public class CategoryRulesException extends RuntimeException {
+    public CategoryRulesException(String message) {
+        super(message);
+    }
+
+    public CategoryRulesException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
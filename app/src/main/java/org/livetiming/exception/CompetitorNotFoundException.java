@@ -0,0 +1,7 @@
+package org.livetiming.exception;
+
+public class CompetitorNotFoundException extends RuntimeException {
+    public CompetitorNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.livetiming.exception;
+
+public class RaceNotFoundException extends RuntimeException {
+    public RaceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package org.livetiming.importer;
+
+/**
+ * A row of a start list that could not be imported.
+ *
+ * @param line    the line number in the file, starting at 1
+ * @param message the reason the row was rejected
+ */
+public record ImportError(long line, String message) {
+}
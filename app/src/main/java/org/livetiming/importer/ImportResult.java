@@ -0,0 +1,14 @@
+package org.livetiming.importer;
+
+import org.livetiming.manager.Competitor;
+
+import java.util.List;
+
+/**
+ * The outcome of a start list import.
+ *
+ * @param competitors the imported competitors, in file order
+ * @param errors      the rejected rows, in file order
+ */
+public record ImportResult(List<Competitor> competitors, List<ImportError> errors) {
+}
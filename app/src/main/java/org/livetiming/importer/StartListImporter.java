@@ -0,0 +1,387 @@
+package org.livetiming.importer;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CategoryResolver;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Imports start lists from CSV exports.
+ * The file is read through memory-mapped segments of a FileChannel, so it is never loaded into the heap as a whole.
+ * Rows are split in a single sequential pass, in which repeated club names are interned. Every batch of rows is built
+ * into competitors in parallel as soon as it has been read, with categories resolved by a {@link CategoryResolver},
+ * so at most one batch of split rows is held at a time; the competitors are added to the competitor list in one bulk
+ * operation.
+ *
+ * <p>The first line is a header naming the columns, separated by commas or semicolons. The columns firstName,
+ * lastName and gender are required, club, birthYear and startNumber are optional. Fields may be quoted with double
+ * quotes, using "" for a quote inside a field. Rows that cannot be imported are reported with their line number and
+ * do not stop the import.
+ */
+public class StartListImporter {
+    private static final long SEGMENT_SIZE = 16L << 20;
+    private static final int BATCH_SIZE = 4096;
+
+    private final CategoryResolver categoryResolver;
+
+    /**
+     * Constructs a StartListImporter resolving categories against the current year.
+     */
+    public StartListImporter() {
+        this(Year.now());
+    }
+
+    /**
+     * Constructs a StartListImporter resolving categories with the standard age brackets against the given year.
+     *
+     * @param referenceYear the year the ages of the athletes are computed for
+     */
+    public StartListImporter(Year referenceYear) {
+        this(CategoryResolver.standard(referenceYear));
+    }
+
+    /**
+     * Constructs a StartListImporter resolving categories with the given rule set.
+     *
+     * @param categoryResolver the rule set to resolve categories with
+     */
+    public StartListImporter(CategoryResolver categoryResolver) {
+        this.categoryResolver = categoryResolver;
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Imports a start list into a competitor list.
+     *
+     * @param path        the CSV file
+     * @param competitors the list to add the imported competitors to
+     * @return the imported competitors and the rejected rows
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importFile(Path path, CompetitorList competitors) throws IOException {
+        ImportResult result = parse(path);
+        competitors.addCompetitors(result.competitors());
+        return result;
+    }
+
+    /**
+     * Parses a start list without adding it to a competitor list.
+     *
+     * @param path the CSV file
+     * @return the parsed competitors and the rejected rows
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult parse(Path path) throws IOException {
+        List<Competitor> competitors = new ArrayList<>();
+        List<ImportError> errors = new ArrayList<>();
+        RowReader reader = new RowReader((columns, rows) -> {
+            List<Converted> batch = rows.parallelStream()
+                    .map(row -> convert(row, columns))
+                    .toList();
+            for (Converted row : batch) {
+                if (row instanceof Converted.Imported imported) {
+                    competitors.add(imported.competitor());
+                } else if (row instanceof Converted.Rejected rejected) {
+                    errors.add(rejected.error());
+                }
+            }
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += SEGMENT_SIZE) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+                while (segment.hasRemaining()) {
+                    reader.accept(segment.get());
+                }
+            }
+        }
+        reader.finish();
+
+        if (reader.header == null) {
+            return new ImportResult(List.of(), List.of(new ImportError(1, "The start list has no header.")));
+        }
+        if (!reader.headerErrors.isEmpty()) {
+            return new ImportResult(List.of(), reader.headerErrors);
+        }
+        return new ImportResult(competitors, errors);
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Converts a row into a competitor.
+     *
+     * @return the competitor, or the error if the row is malformed
+     */
+    private Converted convert(Row row, Columns columns) {
+        String[] fields = row.fields;
+        if (fields.length < columns.required) {
+            return reject(row, "Expected at least " + columns.required + " fields but found " + fields.length + ".");
+        }
+        String firstName = fields[columns.firstName];
+        String lastName = fields[columns.lastName];
+        if (firstName.isEmpty() || lastName.isEmpty()) {
+            return reject(row, "First and last name are required.");
+        }
+
+        Gender gender = parseGender(fields[columns.gender]);
+        if (gender == null) {
+            return reject(row, "Unknown gender '" + fields[columns.gender] + "'.");
+        }
+
+        Year birthYear = null;
+        Category category = null;
+        String birthYearField = field(fields, columns.birthYear);
+        if (!birthYearField.isEmpty()) {
+            try {
+                birthYear = Year.of(Integer.parseInt(birthYearField));
+            } catch (NumberFormatException | DateTimeException e) {
+                return reject(row, "Invalid birth year '" + birthYearField + "'.");
+            }
+            category = categoryResolver.resolve(birthYear.getValue());
+        }
+
+        int startNumber = 0;
+        String startNumberField = field(fields, columns.startNumber);
+        if (!startNumberField.isEmpty()) {
+            try {
+                startNumber = Integer.parseInt(startNumberField);
+            } catch (NumberFormatException e) {
+                return reject(row, "Invalid start number '" + startNumberField + "'.");
+            }
+            if (startNumber < 0) {
+                return reject(row, "Invalid start number '" + startNumberField + "'.");
+            }
+        }
+
+        String club = field(fields, columns.club);
+        Athlete athlete = new Athlete(firstName, lastName, gender, club.isEmpty() ? null : club, birthYear, category,
+                CompetitorStatus.NOT_STARTED);
+        return new Converted.Imported(new Competitor(athlete, startNumber));
+    }
+
+    private static Converted reject(Row row, String message) {
+        return new Converted.Rejected(new ImportError(row.line, message));
+    }
+
+    private static String field(String[] fields, int column) {
+        return column >= 0 && column < fields.length ? fields[column] : "";
+    }
+
+    private static Gender parseGender(String value) {
+        return switch (value.toUpperCase(Locale.ROOT)) {
+            case "M", "MALE" -> Gender.MALE;
+            case "F", "W", "FEMALE" -> Gender.FEMALE;
+            case "", "U", "UNKNOWN" -> Gender.UNKNOWN;
+            default -> null;
+        };
+    }
+
+    /**
+     * A data row of the start list.
+     */
+    private record Row(long line, String[] fields) {
+    }
+
+    /**
+     * The outcome of converting a row: the imported competitor or the error it was rejected with.
+     */
+    private sealed interface Converted {
+        record Imported(Competitor competitor) implements Converted {
+        }
+
+        record Rejected(ImportError error) implements Converted {
+        }
+    }
+
+    /**
+     * Column positions, resolved from the header.
+     */
+    private static final class Columns {
+        private final long line;
+        private int firstName = -1;
+        private int lastName = -1;
+        private int gender = -1;
+        private int club = -1;
+        private int birthYear = -1;
+        private int startNumber = -1;
+        private int required;
+
+        private Columns(long line, String[] names) {
+            this.line = line;
+            for (int i = 0; i < names.length; i++) {
+                switch (names[i].toLowerCase(Locale.ROOT).replace(" ", "").replace("_", "")) {
+                    case "firstname" -> firstName = i;
+                    case "lastname" -> lastName = i;
+                    case "gender", "sex" -> gender = i;
+                    case "club", "team" -> club = i;
+                    case "birthyear", "yearofbirth" -> birthYear = i;
+                    case "startnumber", "bib" -> startNumber = i;
+                    default -> {
+                        // Other columns of the export are ignored
+                    }
+                }
+            }
+            this.required = Math.max(firstName, Math.max(lastName, gender)) + 1;
+        }
+
+        private List<ImportError> validate() {
+            List<ImportError> errors = new ArrayList<>();
+            if (firstName < 0) {
+                errors.add(new ImportError(line, "Missing column firstName."));
+            }
+            if (lastName < 0) {
+                errors.add(new ImportError(line, "Missing column lastName."));
+            }
+            if (gender < 0) {
+                errors.add(new ImportError(line, "Missing column gender."));
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * Splits the bytes of the file into rows and fields, handing every full batch of rows to a consumer.
+     * Line breaks inside quoted fields are kept as part of the field.
+     */
+    private static final class RowReader {
+        private final BiConsumer<Columns, List<Row>> batches;
+        private final List<Row> rows = new ArrayList<>(BATCH_SIZE);
+        private final List<String> fields = new ArrayList<>();
+        private final Map<String, String> clubs = new HashMap<>();
+        private byte[] field = new byte[64];
+        private int fieldLength;
+        private boolean inQuotes;
+        private boolean quoted;
+        private boolean lineStarted;
+        private byte delimiter;
+        private long line = 1;
+        private long rowLine = 1;
+        private Columns header;
+        private List<ImportError> headerErrors;
+
+        private RowReader(BiConsumer<Columns, List<Row>> batches) {
+            this.batches = batches;
+        }
+
+        private void accept(byte b) {
+            if (inQuotes) {
+                if (b == '"') {
+                    inQuotes = false;
+                } else {
+                    if (b == '\n') {
+                        line++;
+                    }
+                    append(b);
+                }
+                return;
+            }
+            switch (b) {
+                case '"' -> {
+                    // A quote directly after a closing quote is an escaped quote
+                    if (quoted) {
+                        append(b);
+                    }
+                    inQuotes = true;
+                    quoted = true;
+                    lineStarted = true;
+                }
+                case '\n' -> {
+                    endLine();
+                    line++;
+                    rowLine = line;
+                }
+                case '\r' -> {
+                    // Part of a Windows line break
+                }
+                default -> {
+                    if (b == delimiter || (delimiter == 0 && (b == ',' || b == ';'))) {
+                        delimiter = b;
+                        endField();
+                    } else {
+                        append(b);
+                    }
+                    lineStarted = true;
+                }
+            }
+        }
+
+        private void finish() {
+            endLine();
+            flush();
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                batches.accept(header, rows);
+                rows.clear();
+            }
+        }
+
+        private void append(byte b) {
+            // Skip a UTF-8 byte order mark at the start of the file
+            if (line == 1 && fields.isEmpty() && fieldLength == 2 && field[0] == (byte) 0xEF && field[1] == (byte) 0xBB && b == (byte) 0xBF) {
+                fieldLength = 0;
+                return;
+            }
+            if (fieldLength == field.length) {
+                field = Arrays.copyOf(field, field.length * 2);
+            }
+            field[fieldLength++] = b;
+            lineStarted = true;
+        }
+
+        private void endField() {
+            fields.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8).trim());
+            fieldLength = 0;
+            quoted = false;
+        }
+
+        private void endLine() {
+            if (!lineStarted) {
+                return;
+            }
+            endField();
+            String[] values = fields.toArray(new String[0]);
+            fields.clear();
+            lineStarted = false;
+            if (header == null) {
+                header = new Columns(rowLine, values);
+                headerErrors = header.validate();
+                return;
+            }
+            if (!headerErrors.isEmpty()) {
+                return;
+            }
+            if (header.club >= 0 && header.club < values.length) {
+                values[header.club] = clubs.computeIfAbsent(values[header.club], club -> club);
+            }
+            rows.add(new Row(rowLine, values));
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,816 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Year;
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Stores competitors column by column, for mass participation events with up to millions of entrants.
+ * Every attribute is kept in a primitive array indexed by row, and names and clubs are dictionary-encoded, so a
+ * competitor takes its column entries and its name bytes instead of an Athlete, a Competitor, a Year and the entries
+ * of several hash sets. Competitors are keyed by start number through a dense array covering start numbers up to a
+ * few times the capacity, so start number lookups are a single array access; outlying start numbers fall back to a
+ * hash map instead of growing the array.
+ *
+ * <p>The query methods mirror {@link CompetitorList}. Competitors returned by them are detached copies created on
+ * demand: changing them does not change the store. Changes go through the methods taking a start number instead.
+ * The next competitor to start and the next competitor on course are kept in heaps of rows, other queries scan the
+ * columns, which is cheap for primitive arrays. The store is not thread-safe.
+ */
+public class ColumnarCompetitorStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MIN_DENSE_START_NUMBERS = 1 << 16;
+    private static final byte NONE = -1;
+    private static final short NO_BIRTH_YEAR = Short.MIN_VALUE;
+    private static final Category[] CATEGORIES = Category.values();
+    private static final Gender[] GENDERS = Gender.values();
+    private static final CompetitorStatus[] STATUSES = CompetitorStatus.values();
+
+    private final Dictionary names;
+    private final Dictionary clubs;
+    private final int[] statusCounts;
+    private int size;
+    private int[] startNumbers;
+    private long[] startTimes;
+    private long[] finishTimes;
+    private byte[] statuses;
+    private byte[] categories;
+    private byte[] genders;
+    private short[] birthYears;
+    private int[] firstNames;
+    private int[] lastNames;
+    private int[] clubIds;
+    private int[] sequences;
+    private int nextSequence;
+    private int[] rowsByStartNumber;
+    private final Map<Integer, Integer> rowsBySparseStartNumber;
+    private final RowHeap waiting;
+    private final RowHeap onCourse;
+
+    /**
+     * Constructs an empty ColumnarCompetitorStore.
+     */
+    public ColumnarCompetitorStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty ColumnarCompetitorStore with room for the given number of competitors.
+     *
+     * @param capacity the expected number of competitors
+     */
+    public ColumnarCompetitorStore(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.names = new Dictionary();
+        this.clubs = new Dictionary();
+        this.statusCounts = new int[STATUSES.length];
+        this.startNumbers = new int[capacity];
+        this.startTimes = new long[capacity];
+        this.finishTimes = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.categories = new byte[capacity];
+        this.genders = new byte[capacity];
+        this.birthYears = new short[capacity];
+        this.firstNames = new int[capacity];
+        this.lastNames = new int[capacity];
+        this.clubIds = new int[capacity];
+        this.sequences = new int[capacity];
+        this.rowsByStartNumber = new int[capacity + 1];
+        this.rowsBySparseStartNumber = new HashMap<>();
+        this.waiting = new RowHeap(this::compareStartOrder, capacity);
+        this.onCourse = new RowHeap(this::compareOnCourse, capacity);
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Adds a competitor to the store, copying its attributes into the columns.
+     *
+     * @param competitor the competitor to add
+     * @throws IllegalArgumentException if another competitor already has the start number
+     */
+    public void addCompetitor(Competitor competitor) {
+        int startNumber = competitor.getStartNumber();
+        if (rowOf(startNumber) >= 0) {
+            throw new IllegalArgumentException("Start number " + startNumber + " is already taken.");
+        }
+        if (size == startNumbers.length) {
+            grow();
+        }
+        int row = size++;
+        startNumbers[row] = startNumber;
+        startTimes[row] = competitor.getStartTime();
+        finishTimes[row] = competitor.getFinishTime();
+        statuses[row] = encode(competitor.getStatus());
+        categories[row] = encode(competitor.getCategory());
+        genders[row] = encode(competitor.getGender());
+        birthYears[row] = competitor.getBirthYear() == null ? NO_BIRTH_YEAR : (short) competitor.getBirthYear().getValue();
+        firstNames[row] = names.encode(competitor.getFirstName());
+        lastNames[row] = names.encode(competitor.getLastName());
+        clubIds[row] = clubs.encode(competitor.getClub());
+        sequences[row] = nextSequence++;
+        indexStartNumber(startNumber, row);
+        countStatus(statuses[row], 1);
+        track(row);
+    }
+
+    /**
+     * Adds many competitors to the store.
+     *
+     * @param competitors the competitors to add
+     */
+    public void addCompetitors(Collection<Competitor> competitors) {
+        for (Competitor competitor : competitors) {
+            addCompetitor(competitor);
+        }
+    }
+
+    /**
+     * Removes the competitor with the start number of the given competitor.
+     *
+     * @param competitor the competitor to remove
+     */
+    public void removeCompetitor(Competitor competitor) {
+        removeCompetitor(competitor.getStartNumber());
+    }
+
+    /**
+     * Removes the competitor with a start number. The last row takes the place of the removed one.
+     *
+     * @param startNumber the start number of the competitor
+     * @return true if a competitor was removed
+     */
+    public boolean removeCompetitor(int startNumber) {
+        int row = rowOf(startNumber);
+        if (row < 0) {
+            return false;
+        }
+        countStatus(statuses[row], -1);
+        untrack(row);
+        unindexStartNumber(startNumber);
+        int last = --size;
+        if (row != last) {
+            startNumbers[row] = startNumbers[last];
+            startTimes[row] = startTimes[last];
+            finishTimes[row] = finishTimes[last];
+            statuses[row] = statuses[last];
+            categories[row] = categories[last];
+            genders[row] = genders[last];
+            birthYears[row] = birthYears[last];
+            firstNames[row] = firstNames[last];
+            lastNames[row] = lastNames[last];
+            clubIds[row] = clubIds[last];
+            sequences[row] = sequences[last];
+            indexStartNumber(startNumbers[row], row);
+            RowHeap heap = heapOf(statuses[row]);
+            if (heap != null) {
+                heap.move(last, row);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the competitor with a start number.
+     *
+     * @param startNumber the start number
+     * @return a detached copy of the competitor, or null if no competitor has the start number
+     */
+    public Competitor getCompetitor(int startNumber) {
+        int row = rowOf(startNumber);
+        return row < 0 ? null : materialize(row);
+    }
+
+    /**
+     * Retrieves all competitors in the store.
+     *
+     * @return detached copies of all competitors
+     */
+    public Set<Competitor> getAllCompetitors() {
+        Set<Competitor> competitors = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            competitors.add(materialize(row));
+        }
+        return competitors;
+    }
+
+    /**
+     * Retrieves competitors of a specific category.
+     *
+     * @param category the category to filter by
+     * @return detached copies of the competitors in the category
+     */
+    public Set<Competitor> getCompetitorsByCategory(Category category) {
+        byte code = encode(category);
+        Set<Competitor> competitors = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            if (categories[row] == code) {
+                competitors.add(materialize(row));
+            }
+        }
+        return competitors;
+    }
+
+    /**
+     * Retrieves male competitors of a specific category.
+     *
+     * @param category the category to filter by
+     * @return detached copies of the male competitors in the category
+     */
+    public Set<Competitor> getMaleCompetitorsByCategory(Category category) {
+        return getCompetitorsByCategory(category, true);
+    }
+
+    /**
+     * Retrieves female competitors of a specific category. As in {@link CompetitorList}, competitors of unknown
+     * gender are listed with the female competitors.
+     *
+     * @param category the category to filter by
+     * @return detached copies of the female competitors in the category
+     */
+    public Set<Competitor> getFemaleCompetitorsByCategory(Category category) {
+        return getCompetitorsByCategory(category, false);
+    }
+
+    /**
+     * Retrieves competitors with a specific status.
+     *
+     * @param status the status to filter by
+     * @return detached copies of the competitors with the status
+     */
+    public Set<Competitor> getCompetitorsByStatus(CompetitorStatus status) {
+        byte code = encode(status);
+        Set<Competitor> competitors = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == code) {
+                competitors.add(materialize(row));
+            }
+        }
+        return competitors;
+    }
+
+    /**
+     * Retrieves the competitors currently on course, ordered by start time and start number.
+     *
+     * @return detached copies of the competitors with the status ON_COURSE
+     */
+    public Set<Competitor> getCompetitorsOnCourse() {
+        Integer[] rows = new Integer[getCompetitorCount(CompetitorStatus.ON_COURSE)];
+        int count = 0;
+        byte code = encode(CompetitorStatus.ON_COURSE);
+        for (int row = 0; row < size; row++) {
+            if (statuses[row] == code) {
+                rows[count++] = row;
+            }
+        }
+        Arrays.sort(rows, 0, count, this::compareOnCourse);
+        Set<Competitor> competitors = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            competitors.add(materialize(rows[i]));
+        }
+        return competitors;
+    }
+
+    /**
+     * Retrieves competitors of a specific gender.
+     *
+     * @param gender the gender to filter by
+     * @return detached copies of the competitors with the gender
+     */
+    public Set<Competitor> getCompetitorsByGender(Gender gender) {
+        boolean male = gender == Gender.MALE;
+        Set<Competitor> competitors = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            if (isMale(row) == male) {
+                competitors.add(materialize(row));
+            }
+        }
+        return competitors;
+    }
+
+    /**
+     * @return the number of competitors in the store
+     */
+    public int getCompetitorCount() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of competitors with a specific status.
+     *
+     * @param status the status to count
+     * @return the number of competitors with the status
+     */
+    public int getCompetitorCount(CompetitorStatus status) {
+        return status == null ? 0 : statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Resets the status and finish time of all competitors in the store.
+     */
+    public void resetCompetitorsStatus() {
+        Arrays.fill(statuses, 0, size, encode(CompetitorStatus.NOT_STARTED));
+        Arrays.fill(finishTimes, 0, size, 0);
+        Arrays.fill(statusCounts, 0);
+        statusCounts[CompetitorStatus.NOT_STARTED.ordinal()] = size;
+        rebuildHeaps();
+    }
+
+    /**
+     * Retrieves the next competitor who has not started yet, in the same order as
+     * {@link CompetitorList#getNextCompetitor()}: by category, female before male, then by start number.
+     *
+     * @return a detached copy of the next competitor with status NOT_STARTED, or null if none are found
+     */
+    public Competitor getNextCompetitor() {
+        int next = waiting.peek();
+        return next < 0 ? null : materialize(next);
+    }
+
+    /**
+     * Retrieves the competitor who has been on course the longest.
+     *
+     * @return a detached copy of the earliest started competitor on course, or null if nobody is on course
+     */
+    public Competitor getNextCompetitorOnCourse() {
+        int next = onCourse.peek();
+        return next < 0 ? null : materialize(next);
+    }
+
+    /**
+     * Assigns start numbers by category, starting with the youngest female category, in a single counting pass.
+     * Within a group the competitors keep the order in which they were added.
+     */
+    public void assignStartNumbersByCategory() {
+        int groups = (CATEGORIES.length + 1) * 2;
+        int[] offsets = new int[groups + 1];
+        for (int row = 0; row < size; row++) {
+            offsets[group(row) + 1]++;
+        }
+        for (int group = 0; group < groups; group++) {
+            offsets[group + 1] += offsets[group];
+        }
+        int[] order = new int[size];
+        for (int row = 0; row < size; row++) {
+            order[offsets[group(row)]++] = row;
+        }
+
+        Arrays.fill(rowsByStartNumber, 0);
+        rowsBySparseStartNumber.clear();
+        if (rowsByStartNumber.length <= size) {
+            rowsByStartNumber = new int[size + 1];
+        }
+        for (int i = 0; i < size; i++) {
+            startNumbers[order[i]] = i + 1;
+            rowsByStartNumber[i + 1] = order[i] + 1;
+        }
+        rebuildHeaps();
+    }
+
+    //====================================================================================================
+    // Changes by start number
+    //====================================================================================================
+    /**
+     * Starts a competitor.
+     *
+     * @param startNumber the start number of the competitor
+     * @param startTime   the start time
+     * @return true if a competitor has the start number
+     */
+    public boolean start(int startNumber, long startTime) {
+        int row = rowOf(startNumber);
+        if (row < 0) {
+            return false;
+        }
+        startTimes[row] = startTime;
+        setRowStatus(row, CompetitorStatus.ON_COURSE);
+        return true;
+    }
+
+    /**
+     * Finishes a competitor.
+     *
+     * @param startNumber the start number of the competitor
+     * @param finishTime  the finish time
+     * @return true if a competitor has the start number
+     */
+    public boolean finish(int startNumber, long finishTime) {
+        int row = rowOf(startNumber);
+        if (row < 0) {
+            return false;
+        }
+        finishTimes[row] = finishTime;
+        setRowStatus(row, CompetitorStatus.FINISHED);
+        return true;
+    }
+
+    /**
+     * Sets the status of a competitor.
+     *
+     * @param startNumber the start number of the competitor
+     * @param status      the status to set
+     * @return true if a competitor has the start number
+     */
+    public boolean setStatus(int startNumber, CompetitorStatus status) {
+        int row = rowOf(startNumber);
+        if (row < 0) {
+            return false;
+        }
+        setRowStatus(row, status);
+        return true;
+    }
+
+    /**
+     * @param startNumber the start number of a competitor
+     * @return the status of the competitor, or null if no competitor has the start number
+     */
+    public CompetitorStatus getStatus(int startNumber) {
+        int row = rowOf(startNumber);
+        return row < 0 ? null : decode(STATUSES, statuses[row]);
+    }
+
+    /**
+     * @param startNumber the start number of a competitor
+     * @return the start time of the competitor, or 0 if no competitor has the start number
+     */
+    public long getStartTime(int startNumber) {
+        int row = rowOf(startNumber);
+        return row < 0 ? 0 : startTimes[row];
+    }
+
+    /**
+     * @param startNumber the start number of a competitor
+     * @return the finish time of the competitor, or 0 if no competitor has the start number
+     */
+    public long getFinishTime(int startNumber) {
+        int row = rowOf(startNumber);
+        return row < 0 ? 0 : finishTimes[row];
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * @return the row of a start number, or -1 if no competitor has it; unnumbered competitors are not indexed
+     */
+    private int rowOf(int startNumber) {
+        if (startNumber <= 0) {
+            return -1;
+        }
+        if (startNumber < rowsByStartNumber.length) {
+            return rowsByStartNumber[startNumber] - 1;
+        }
+        Integer row = rowsBySparseStartNumber.isEmpty() ? null : rowsBySparseStartNumber.get(startNumber);
+        return row == null ? -1 : row;
+    }
+
+    private void indexStartNumber(int startNumber, int row) {
+        if (startNumber <= 0) {
+            return;
+        }
+        if (startNumber >= rowsByStartNumber.length && startNumber < denseStartNumberLimit()) {
+            growStartNumberIndex(startNumber);
+        }
+        if (startNumber < rowsByStartNumber.length) {
+            rowsByStartNumber[startNumber] = row + 1;
+        } else {
+            rowsBySparseStartNumber.put(startNumber, row);
+        }
+    }
+
+    private void unindexStartNumber(int startNumber) {
+        if (startNumber < rowsByStartNumber.length) {
+            rowsByStartNumber[startNumber] = 0;
+        } else {
+            rowsBySparseStartNumber.remove(startNumber);
+        }
+    }
+
+    /**
+     * @return the start number up to which the dense index may grow, a few times the capacity of the columns
+     */
+    private int denseStartNumberLimit() {
+        return Math.max(MIN_DENSE_START_NUMBERS, startNumbers.length * 4);
+    }
+
+    /**
+     * Grows the dense index to cover a start number and moves the sparse start numbers it now covers into it.
+     */
+    private void growStartNumberIndex(int startNumber) {
+        int length = Math.min(Math.max(startNumber + 1, rowsByStartNumber.length * 2), denseStartNumberLimit());
+        rowsByStartNumber = Arrays.copyOf(rowsByStartNumber, length);
+        Iterator<Map.Entry<Integer, Integer>> sparse = rowsBySparseStartNumber.entrySet().iterator();
+        while (sparse.hasNext()) {
+            Map.Entry<Integer, Integer> entry = sparse.next();
+            if (entry.getKey() < length) {
+                rowsByStartNumber[entry.getKey()] = entry.getValue() + 1;
+                sparse.remove();
+            }
+        }
+    }
+
+    private void setRowStatus(int row, CompetitorStatus status) {
+        countStatus(statuses[row], -1);
+        untrack(row);
+        statuses[row] = encode(status);
+        countStatus(statuses[row], 1);
+        track(row);
+    }
+
+    /**
+     * @return the heap of rows kept for a status code, or null if rows with the status are not kept in a heap
+     */
+    private RowHeap heapOf(byte status) {
+        if (status == CompetitorStatus.NOT_STARTED.ordinal()) {
+            return waiting;
+        }
+        return status == CompetitorStatus.ON_COURSE.ordinal() ? onCourse : null;
+    }
+
+    private void track(int row) {
+        RowHeap heap = heapOf(statuses[row]);
+        if (heap != null) {
+            heap.add(row);
+        }
+    }
+
+    private void untrack(int row) {
+        RowHeap heap = heapOf(statuses[row]);
+        if (heap != null) {
+            heap.remove(row);
+        }
+    }
+
+    private void rebuildHeaps() {
+        waiting.clear();
+        onCourse.clear();
+        for (int row = 0; row < size; row++) {
+            track(row);
+        }
+    }
+
+    private void countStatus(byte status, int delta) {
+        if (status != NONE) {
+            statusCounts[status] += delta;
+        }
+    }
+
+    private Set<Competitor> getCompetitorsByCategory(Category category, boolean male) {
+        byte code = encode(category);
+        Set<Competitor> competitors = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            if (categories[row] == code && isMale(row) == male) {
+                competitors.add(materialize(row));
+            }
+        }
+        return competitors;
+    }
+
+    private boolean isMale(int row) {
+        return genders[row] == Gender.MALE.ordinal();
+    }
+
+    /**
+     * @return the start number group of a row, by category with uncategorized competitors last, female before male
+     */
+    private int group(int row) {
+        int category = categories[row] == NONE ? CATEGORIES.length : categories[row];
+        return category * 2 + (isMale(row) ? 1 : 0);
+    }
+
+    private int compareStartOrder(int row, int other) {
+        int result = Integer.compare(group(row), group(other));
+        if (result == 0) {
+            result = Integer.compareUnsigned(startNumbers[row] - 1, startNumbers[other] - 1);
+        }
+        // The insertion sequence, unlike the row, is kept when a removal moves a row
+        return result == 0 ? Integer.compare(sequences[row], sequences[other]) : result;
+    }
+
+    private int compareOnCourse(int row, int other) {
+        int result = Long.compare(startTimes[row], startTimes[other]);
+        return result == 0 ? Integer.compare(startNumbers[row], startNumbers[other]) : result;
+    }
+
+    /**
+     * Creates a detached competitor from a row.
+     */
+    private Competitor materialize(int row) {
+        Athlete athlete = new Athlete(names.decode(firstNames[row]), names.decode(lastNames[row]), decode(GENDERS, genders[row]),
+                clubs.decode(clubIds[row]), birthYears[row] == NO_BIRTH_YEAR ? null : Year.of(birthYears[row]),
+                decode(CATEGORIES, categories[row]), CompetitorStatus.NOT_STARTED);
+        Competitor competitor = new Competitor(athlete, startNumbers[row]);
+        if (startTimes[row] != 0) {
+            competitor.start(startTimes[row]);
+        }
+        competitor.setStatus(decode(STATUSES, statuses[row]));
+        competitor.setFinishTime(finishTimes[row]);
+        return competitor;
+    }
+
+    private void grow() {
+        int capacity = startNumbers.length * 2;
+        startNumbers = Arrays.copyOf(startNumbers, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        finishTimes = Arrays.copyOf(finishTimes, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        birthYears = Arrays.copyOf(birthYears, capacity);
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        clubIds = Arrays.copyOf(clubIds, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        waiting.grow(capacity);
+        onCourse.grow(capacity);
+    }
+
+    private static byte encode(Enum<?> value) {
+        return value == null ? NONE : (byte) value.ordinal();
+    }
+
+    private static <E> E decode(E[] values, byte code) {
+        return code == NONE ? null : values[code];
+    }
+
+    /**
+     * A binary min-heap of rows that knows the position of every row, so rows can be removed or moved in O(log n).
+     */
+    private static final class RowHeap {
+        private final IntBinaryOperator comparator;
+        private int[] heap;
+        private int[] positions;
+        private int size;
+
+        private RowHeap(IntBinaryOperator comparator, int capacity) {
+            this.comparator = comparator;
+            this.heap = new int[capacity];
+            // The position of each row plus one, 0 for rows that are not in the heap
+            this.positions = new int[capacity];
+        }
+
+        /**
+         * @return the first row, or -1 if the heap is empty
+         */
+        private int peek() {
+            return size == 0 ? -1 : heap[0];
+        }
+
+        private void add(int row) {
+            heap[size] = row;
+            positions[row] = size + 1;
+            siftUp(size++);
+        }
+
+        private void remove(int row) {
+            int position = positions[row] - 1;
+            if (position < 0) {
+                return;
+            }
+            positions[row] = 0;
+            int last = heap[--size];
+            if (position < size) {
+                place(last, position);
+                siftDown(position);
+                siftUp(position);
+            }
+        }
+
+        /**
+         * Records that the data of a row moved to another row.
+         */
+        private void move(int from, int to) {
+            int position = positions[from] - 1;
+            positions[from] = 0;
+            if (position >= 0) {
+                place(to, position);
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(positions, 0);
+            size = 0;
+        }
+
+        private void grow(int capacity) {
+            heap = Arrays.copyOf(heap, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+
+        private void siftUp(int position) {
+            int row = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (comparator.applyAsInt(row, heap[parent]) >= 0) {
+                    break;
+                }
+                place(heap[parent], position);
+                position = parent;
+            }
+            place(row, position);
+        }
+
+        private void siftDown(int position) {
+            int row = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && comparator.applyAsInt(heap[child + 1], heap[child]) < 0) {
+                    child++;
+                }
+                if (comparator.applyAsInt(heap[child], row) >= 0) {
+                    break;
+                }
+                place(heap[child], position);
+                position = child;
+            }
+            place(row, position);
+        }
+
+        private void place(int row, int position) {
+            heap[position] = row;
+            positions[row] = position + 1;
+        }
+    }
+
+    /**
+     * Maps strings to dense ids, so every distinct name or club is stored once.
+     * The strings are kept as UTF-8 bytes in a single pool and found through an open-addressing hash table of ids,
+     * so an entry costs its bytes plus a few ints instead of a String and a hash map node.
+     */
+    private static final class Dictionary {
+        private byte[] data = new byte[4096];
+        private int dataLength;
+        private int[] offsets = new int[257];
+        private int size;
+        private int[] table = new int[512];
+
+        private int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int mask = table.length - 1;
+            int slot = Arrays.hashCode(bytes) & mask;
+            while (table[slot] != 0) {
+                int id = table[slot] - 1;
+                if (Arrays.equals(data, offsets[id], offsets[id + 1], bytes, 0, bytes.length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (dataLength + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+            dataLength += bytes.length;
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int id = size++;
+            offsets[size] = dataLength;
+            table[slot] = id + 1;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private String decode(int id) {
+            return id < 0 ? null : new String(data, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = hash(id) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = id + 1;
+            }
+        }
+
+        /**
+         * @return the hash of an entry, equal to {@link Arrays#hashCode(byte[])} of its bytes
+         */
+        private int hash(int id) {
+            int hash = 1;
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                hash = 31 * hash + data[i];
+            }
+            return hash;
+        }
+    }
+}
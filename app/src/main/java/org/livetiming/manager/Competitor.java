@@ -1,29 +1,43 @@
 package org.livetiming.manager;
 
 import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
 import org.livetiming.model.CompetitorStatus;
+import org.livetiming.timing.TimeSource;
+
+import java.util.Arrays;
 
 /**
  * Represents a competitor in a race.
  * Extends the Athlete class and adds race-specific attributes such as start number and finish time.
+ * Race attributes are volatile so that a status read by another thread also publishes the times written before it.
+ * Start, split and finish times are nanoseconds since the epoch, as provided by a {@link TimeSource}.
+ * Split times are kept in a primitive array, indexed by checkpoint, that is replaced on every split so readers always
+ * see a complete array.
  */
 public class Competitor extends Athlete {
-    private int startNumber;
-    private long startTime;
-    private long finishTime;
+    private static final long[] NO_SPLITS = new long[0];
+
+    private volatile int startNumber;
+    private volatile long startTime;
+    private volatile long finishTime;
+    private volatile long[] splitTimes;
+    private volatile CompetitorList owner;
 
     /**
      * Constructs a Competitor from an Athlete and assigns a start number.
-     * The finish time is initialized to 0.
+     * The competitor takes over the category of the athlete. The finish time is initialized to 0.
      *
      * @param athlete     the athlete to base the competitor on
      * @param startNumber the start number assigned to the competitor
      */
     public Competitor(Athlete athlete, int startNumber) {
-        super(athlete.getFirstName(), athlete.getLastName(), athlete.getGender(), athlete.getClub(), athlete.getBirthYear(), athlete.getStatus());
+        super(athlete.getFirstName(), athlete.getLastName(), athlete.getGender(), athlete.getClub(), athlete.getBirthYear(),
+                athlete.getCategory(), athlete.getStatus());
         this.startNumber = startNumber;
         this.startTime = 0;
         this.finishTime = 0;
+        this.splitTimes = NO_SPLITS;
     }
 
     /**
@@ -38,24 +52,38 @@ public class Competitor extends Athlete {
     }
 
     /**
-     * Starts the competitor in the race, recording the start time.
+     * Starts the competitor in the race, recording the current time of the system time source as start time.
      * Sets the competitor's status to ON_COURSE.
      */
     public void start() {
-        this.startTime = System.currentTimeMillis();
-        this.setStatus(CompetitorStatus.ON_COURSE);
+        this.start(TimeSource.system());
+    }
+
+    /**
+     * Starts the competitor in the race, recording the current time of the given time source as start time.
+     * Sets the competitor's status to ON_COURSE.
+     *
+     * @param timeSource the time source to read the start time from
+     */
+    public void start(TimeSource timeSource) {
+        this.start(timeSource.now());
     }
 
     /**
      * Starts the competitor in the race with a specified start time.
      * Meant to start multiple competitors at once
-     * Sets the competitor's status to ON_COURSE.
+     * Sets the competitor's status to ON_COURSE and clears the split times of a previous start.
      *
      * @param startTime the time at which the competitor started
      */
     public void start(long startTime) {
+        boolean restart = getStatus() == CompetitorStatus.ON_COURSE;
         this.startTime = startTime;
+        this.splitTimes = NO_SPLITS;
         this.setStatus(CompetitorStatus.ON_COURSE);
+        if (restart && owner != null) {
+            owner.onRestarted(this);
+        }
     }
 
     /**
@@ -65,8 +93,52 @@ public class Competitor extends Athlete {
      * @param finishTime the time at which the competitor finished
      */
     public void finish(long finishTime) {
-        this.setStatus(CompetitorStatus.FINISHED);
         this.finishTime = finishTime;
+        this.setStatus(CompetitorStatus.FINISHED);
+    }
+
+    /**
+     * Records the time at which the competitor passed an intermediate checkpoint.
+     *
+     * @param checkpoint the checkpoint, starting at 1
+     * @param splitTime  the time at which the competitor passed the checkpoint
+     * @throws IllegalArgumentException if the checkpoint is lower than 1
+     */
+    public void recordSplit(int checkpoint, long splitTime) {
+        if (checkpoint < 1) {
+            throw new IllegalArgumentException("Checkpoints start at 1, got " + checkpoint + ".");
+        }
+        long[] splits = Arrays.copyOf(splitTimes, Math.max(splitTimes.length, checkpoint));
+        splits[checkpoint - 1] = splitTime;
+        this.splitTimes = splits;
+        if (owner != null) {
+            owner.onSplitRecorded(this, checkpoint);
+        }
+    }
+
+    /**
+     * Retrieves the time at which the competitor passed a checkpoint.
+     *
+     * @param checkpoint the checkpoint, starting at 1
+     * @return the split time, or 0 if the competitor has not passed the checkpoint
+     */
+    public long getSplitTime(int checkpoint) {
+        long[] splits = splitTimes;
+        return checkpoint >= 1 && checkpoint <= splits.length ? splits[checkpoint - 1] : 0;
+    }
+
+    /**
+     * @return a copy of the split times, indexed by checkpoint - 1
+     */
+    public long[] getSplitTimes() {
+        return splitTimes.clone();
+    }
+
+    /**
+     * Clears all split times of the competitor.
+     */
+    public void clearSplitTimes() {
+        this.splitTimes = NO_SPLITS;
     }
 
     /**
@@ -84,7 +156,40 @@ public class Competitor extends Athlete {
      * @param startNumber the start number to assign
      */
     public void setStartNumber(int startNumber) {
+        int previous = this.startNumber;
         this.startNumber = startNumber;
+        if (owner != null) {
+            owner.onStartNumberChanged(this, previous);
+        }
+    }
+
+    /**
+     * Sets the status of the competitor and notifies the owning list so that its indexes stay up to date.
+     *
+     * @param status the status to set
+     */
+    @Override
+    public void setStatus(CompetitorStatus status) {
+        CompetitorStatus previous = getStatus();
+        super.setStatus(status);
+        if (owner != null && previous != status) {
+            owner.onStatusChanged(this, previous, status);
+        }
+    }
+
+    /**
+     * Sets the category of the competitor and notifies the owning list so that it files the competitor under its new
+     * category.
+     *
+     * @param category the category to set
+     */
+    @Override
+    public void setCategory(Category category) {
+        Category previous = getCategory();
+        super.setCategory(category);
+        if (owner != null && previous != category) {
+            owner.onCategoryChanged(this, previous);
+        }
     }
 
     /**
@@ -113,4 +218,77 @@ public class Competitor extends Athlete {
     public void setFinishTime(long finishTime) {
         this.finishTime = finishTime;
     }
+
+    /**
+     * Corrects the start and finish time of the competitor, e.g. after a protest, without changing its status or its
+     * split times. The owning list re-positions the competitor and notifies its listeners, so a finished competitor is
+     * re-ranked.
+     *
+     * @param startTime  the corrected start time
+     * @param finishTime the corrected finish time
+     */
+    public void correctTimes(long startTime, long finishTime) {
+        this.startTime = startTime;
+        this.finishTime = finishTime;
+        if (owner != null) {
+            owner.onStartTimeChanged(this);
+        }
+    }
+
+    /**
+     * Starts the competitor without notifying the owning list, which updates its indexes for a whole batch of
+     * competitors at once (see {@link CompetitorList#startAll(StartSelection, long)}).
+     *
+     * @param startTime the time at which the competitor started
+     */
+    void startInBatch(long startTime) {
+        this.startTime = startTime;
+        this.splitTimes = NO_SPLITS;
+        super.setStatus(CompetitorStatus.ON_COURSE);
+    }
+
+    /**
+     * Sets the start number without notifying the owning list, which updates its indexes for a whole start list at
+     * once (see {@link CompetitorList#assignStartNumbers(SeedingOrder, int)}).
+     *
+     * @param startNumber the start number to assign
+     */
+    void setStartNumberInBatch(int startNumber) {
+        this.startNumber = startNumber;
+    }
+
+    /**
+     * Sets the category without notifying the owning list, which files the competitor itself (see
+     * {@link CompetitorList#recategorize(org.livetiming.model.CategoryResolver)}).
+     *
+     * @param category the category to set
+     */
+    void setCategoryInBatch(Category category) {
+        super.setCategory(category);
+    }
+
+    /**
+     * Registers the list that owns this competitor and has to be notified about changes.
+     * A competitor is owned by at most one list, as the indexes of any other list would go stale.
+     *
+     * @param owner the owning list
+     * @throws IllegalStateException if the competitor belongs to another list
+     */
+    void attach(CompetitorList owner) {
+        if (this.owner != null && this.owner != owner) {
+            throw new IllegalStateException("Competitor " + startNumber + " already belongs to another list.");
+        }
+        this.owner = owner;
+    }
+
+    /**
+     * Unregisters the given list as owner of this competitor.
+     *
+     * @param owner the list the competitor is removed from
+     */
+    void detach(CompetitorList owner) {
+        if (this.owner == owner) {
+            this.owner = null;
+        }
+    }
 }
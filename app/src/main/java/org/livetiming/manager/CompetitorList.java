@@ -1,10 +1,15 @@
 package org.livetiming.manager;
 
 import org.livetiming.model.Category;
+import org.livetiming.model.CategoryResolver;
 import org.livetiming.model.CompetitorStatus;
 import org.livetiming.model.Gender;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -12,15 +17,71 @@ import java.util.stream.Collectors;
  * Provides methods for adding, removing, and retrieving competitors based on various criteria.
  */
 public class CompetitorList {
+    private final boolean concurrent;
     private final Map<Category, Set<Competitor>> maleCompetitorsByCategory;
     private final Map<Category, Set<Competitor>> femaleCompetitorsByCategory;
+    private final NavigableMap<StartOrderKey, Competitor> startOrder;
+    private final Map<Competitor, StartOrderKey> startOrderKeys;
+    private final NavigableMap<OnCourseKey, Competitor> onCourse;
+    private final Map<Competitor, OnCourseKey> onCourseKeys;
+    private final Set<Competitor> onCourseView;
+    private final Map<CompetitorStatus, Set<Competitor>> competitorsByStatus;
+    private final Map<CompetitorStatus, Set<Competitor>> competitorsByStatusView;
+    private final StartNumberIndex competitorsByStartNumber;
+    private final QueryCache queryCache;
+    private final List<CompetitorListener> listeners;
+    private volatile int competitorCount;
+    private long insertionSequence;
+    private long startSequence;
 
     /**
      * Constructs an empty CompetitorList.
      */
     public CompetitorList() {
-        this.maleCompetitorsByCategory = new HashMap<>();
-        this.femaleCompetitorsByCategory = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * Constructs an empty CompetitorList backed by either plain or concurrent collections.
+     * Concurrent collections allow readers to iterate the list while another thread mutates it;
+     * mutations still have to be serialized by the caller, see {@link ConcurrentCompetitorList}.
+     *
+     * @param concurrent whether to use concurrent collections
+     */
+    CompetitorList(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.maleCompetitorsByCategory = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.femaleCompetitorsByCategory = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.startOrder = concurrent ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+        this.startOrderKeys = concurrent ? new ConcurrentHashMap<>() : new IdentityHashMap<>();
+        this.onCourse = concurrent ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+        this.onCourseKeys = concurrent ? new ConcurrentHashMap<>() : new IdentityHashMap<>();
+        this.onCourseView = new AbstractSet<>() {
+            @Override
+            public Iterator<Competitor> iterator() {
+                return Collections.unmodifiableCollection(onCourse.values()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return onCourse.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return onCourseKeys.containsKey(o);
+            }
+        };
+        this.competitorsByStartNumber = new StartNumberIndex();
+        this.queryCache = new QueryCache();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.competitorsByStatus = new EnumMap<>(CompetitorStatus.class);
+        this.competitorsByStatusView = new EnumMap<>(CompetitorStatus.class);
+        for (CompetitorStatus status : CompetitorStatus.values()) {
+            Set<Competitor> bucket = newSet();
+            competitorsByStatus.put(status, bucket);
+            competitorsByStatusView.put(status, Collections.unmodifiableSet(bucket));
+        }
     }
 
     /**
@@ -29,7 +90,18 @@ public class CompetitorList {
      * @param competitors the set of competitors to initialize the list with
      */
     public CompetitorList(Set<Competitor> competitors) {
-        this();
+        this(false, competitors);
+    }
+
+    /**
+     * Constructs a CompetitorList backed by either plain or concurrent collections and initializes it with a set of
+     * competitors.
+     *
+     * @param concurrent  whether to use concurrent collections
+     * @param competitors the set of competitors to initialize the list with
+     */
+    CompetitorList(boolean concurrent, Set<Competitor> competitors) {
+        this(concurrent);
         for (Competitor competitor : competitors) {
             this.addCompetitor(competitor);
         }
@@ -43,11 +115,37 @@ public class CompetitorList {
      * The competitor is added to the appropriate gender and category group.
      *
      * @param competitor the competitor to add
+     * @throws IllegalStateException if the competitor belongs to another list
      */
     public void addCompetitor(Competitor competitor) {
+        competitor.attach(this);
         Map<Category, Set<Competitor>> targetMap = getGenderMap(competitor.getGender());
-        Category category = competitor.getCategory();
-        targetMap.computeIfAbsent(category, k -> new HashSet<>()).add(competitor);
+        Category category = categoryKey(competitor.getCategory());
+        if (targetMap.computeIfAbsent(category, k -> newSet()).add(competitor)) {
+            competitorCount++;
+            queryCache.modified(competitor.getGender(), category);
+            competitorsByStartNumber.put(competitor.getStartNumber(), competitor);
+            addToStatusBucket(competitor, competitor.getStatus());
+            if (competitor.getStatus() == CompetitorStatus.NOT_STARTED) {
+                indexStartOrder(competitor, insertionSequence++);
+            } else if (competitor.getStatus() == CompetitorStatus.ON_COURSE) {
+                indexOnCourse(competitor);
+            }
+            for (CompetitorListener listener : listeners) {
+                listener.onCompetitorAdded(competitor);
+            }
+        }
+    }
+
+    /**
+     * Adds many competitors to the list in a single pass, e.g. after importing a start list.
+     *
+     * @param competitors the competitors to add
+     */
+    public void addCompetitors(Collection<Competitor> competitors) {
+        for (Competitor competitor : competitors) {
+            addCompetitor(competitor);
+        }
     }
 
     /**
@@ -58,16 +156,43 @@ public class CompetitorList {
      */
     public void removeCompetitor(Competitor competitor) {
         Map<Category, Set<Competitor>> targetMap = getGenderMap(competitor.getGender());
-        Category category = competitor.getCategory();
+        Category category = categoryKey(competitor.getCategory());
         Set<Competitor> competitors = targetMap.get(category);
-        if (competitors != null) {
-            competitors.remove(competitor);
+        if (competitors != null && competitors.remove(competitor)) {
+            competitor.detach(this);
+            competitorCount--;
+            competitorsByStartNumber.remove(competitor.getStartNumber(), competitor);
+            removeFromStatusBucket(competitor, competitor.getStatus());
+            unindexStartOrder(competitor);
+            unindexOnCourse(competitor);
             if (competitors.isEmpty()) {
                 targetMap.remove(category);
             }
+            queryCache.modified(competitor.getGender(), category);
+            for (CompetitorListener listener : listeners) {
+                listener.onCompetitorRemoved(competitor);
+            }
         }
     }
 
+    /**
+     * Registers a listener that is notified whenever a competitor of this list changes status.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(CompetitorListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(CompetitorListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Retrieves all competitors in the list.
      * Competitors are sorted by category and gender, starting with the youngest female category.
@@ -83,67 +208,106 @@ public class CompetitorList {
 
     /**
      * Retrieves competitors of a specific category.
+     * The returned set is an unmodifiable snapshot that is cached until a competitor of the category is added, removed
+     * or re-categorized.
      *
      * @param category the category to filter by
      * @return the Set of competitors in the specified category
      */
     public Set<Competitor> getCompetitorsByCategory(Category category) {
-        Set<Competitor> competitors = new HashSet<>(maleCompetitorsByCategory.getOrDefault(category, new HashSet<>()));
-        competitors.addAll(femaleCompetitorsByCategory.getOrDefault(category, new HashSet<>()));
+        Category key = categoryKey(category);
+        int view = QueryCache.view(key);
+        long version = queryCache.version(key);
+        Set<Competitor> competitors = queryCache.get(view, version);
+        if (competitors == null) {
+            competitors = new HashSet<>(maleCompetitorsByCategory.getOrDefault(key, Collections.emptySet()));
+            competitors.addAll(femaleCompetitorsByCategory.getOrDefault(key, Collections.emptySet()));
+            competitors = queryCache.put(view, version, competitors);
+        }
         return competitors;
     }
 
     /**
      * Retrieves male competitors of a specific category.
+     * The returned set is an unmodifiable snapshot, cached like {@link #getCompetitorsByCategory(Category)}.
      *
      * @param category the category to filter by
      * @return the Set of male competitors in the specified category
      */
     public Set<Competitor> getMaleCompetitorsByCategory(Category category) {
-        return new HashSet<>(maleCompetitorsByCategory.getOrDefault(category, new HashSet<>()));
+        return getCompetitorsByCategory(Gender.MALE, category);
     }
 
     /**
      * Retrieves female competitors of a specific category.
+     * The returned set is an unmodifiable snapshot, cached like {@link #getCompetitorsByCategory(Category)}.
      *
      * @param category the category to filter by
      * @return the Set of female competitors in the specified category
      */
     public Set<Competitor> getFemaleCompetitorsByCategory(Category category) {
-        return new HashSet<>(femaleCompetitorsByCategory.getOrDefault(category, new HashSet<>()));
+        return getCompetitorsByCategory(Gender.FEMALE, category);
+    }
+
+    /**
+     * Retrieves the competitor with a start number.
+     * The lookup uses the start number index, so it does not depend on the size of the field. If several competitors
+     * share a start number, the one that received it last is returned.
+     *
+     * @param startNumber the start number
+     * @return the competitor with the start number, or null if no competitor has it
+     */
+    public Competitor getCompetitorByStartNumber(int startNumber) {
+        return competitorsByStartNumber.get(startNumber);
     }
 
     /**
      * Retrieves competitors with a specific status.
+     * The returned set is an unmodifiable live view that reflects later status changes.
      *
      * @param status the status to filter by
      * @return the Set of competitors with the specified status
      */
     public Set<Competitor> getCompetitorsByStatus(CompetitorStatus status) {
-        return getAllCompetitors().stream()
-                .filter(competitor -> competitor.getStatus() == status)
-                .collect(Collectors.toSet());
+        Set<Competitor> competitors = competitorsByStatusView.get(status);
+        return competitors == null ? Collections.emptySet() : competitors;
     }
 
     /**
-     * Retrieves the competitors currently on course.
+     * Retrieves the competitors currently on course, ordered by start time and start number.
+     * The returned set is an unmodifiable live view that reflects later status changes.
      *
      * @return a Set of competitors with the status ON_COURSE
      */
     public Set<Competitor> getCompetitorsOnCourse() {
-        return getAllCompetitors().stream()
-            .filter(competitor -> competitor.getStatus() == CompetitorStatus.ON_COURSE)
-            .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparingLong(Competitor::getStartTime))));
+        return onCourseView;
     }
 
     /**
      * Retrieves competitors of a specific gender.
+     * The returned set is an unmodifiable snapshot that is cached until a competitor of the gender is added, removed
+     * or re-categorized.
      *
      * @param gender the gender to filter by
      * @return the Set of competitors with the specified gender
      */
     public Set<Competitor> getCompetitorsByGender(Gender gender) {
-        return new HashSet<>(getCompetitors(getGenderMap(gender)));
+        int view = QueryCache.view(gender);
+        long version = queryCache.version(gender);
+        Set<Competitor> competitors = queryCache.get(view, version);
+        if (competitors == null) {
+            competitors = queryCache.put(view, version, getCompetitors(getGenderMap(gender)));
+        }
+        return competitors;
+    }
+
+    /**
+     * Retrieves the hit and miss counts of the cached category and gender views.
+     *
+     * @return the statistics of the query cache
+     */
+    public QueryCacheStats getQueryCacheStats() {
+        return queryCache.getStats();
     }
 
     /**
@@ -152,67 +316,181 @@ public class CompetitorList {
      * @return the number of competitors
      */
     public int getCompetitorCount() {
-        return getAllCompetitors().size();
+        return competitorCount;
     }
 
     /**
-     * Resets the status and finish time of all competitors in the list.
+     * Retrieves the number of competitors with a specific status.
+     *
+     * @param status the status to count
+     * @return the number of competitors with the specified status
+     */
+    public int getCompetitorCount(CompetitorStatus status) {
+        Set<Competitor> competitors = competitorsByStatus.get(status);
+        return competitors == null ? 0 : competitors.size();
+    }
+
+    /**
+     * Resets the status, finish time and split times of all competitors in the list.
      * All competitors are marked as NOT_STARTED, and their finish times are set to 0.
      */
     public void resetCompetitorsStatus() {
         getAllCompetitors().forEach(competitor -> {
             competitor.setStatus(CompetitorStatus.NOT_STARTED);
             competitor.setFinishTime(0);
+            competitor.clearSplitTimes();
         });
     }
 
     /**
      * Retrieves the next competitor who has not started yet.
      * Competitors are selected in order of start number, starting with the youngest female category.
+     * The lookup uses the start-order index, so it does not depend on the size of the field.
      *
      * @return the next competitor with status NOT_STARTED, or null if none are found
      */
     public Competitor getNextCompetitor() {
-        List<Category> sortedCategories = new ArrayList<>(femaleCompetitorsByCategory.keySet());
-        sortedCategories.addAll(maleCompetitorsByCategory.keySet());
-        sortedCategories = sortedCategories.stream().distinct().sorted().collect(Collectors.toList());
-
-        for (Category category : sortedCategories) {
-            Competitor nextCompetitor = getNextCompetitorFromCategory(femaleCompetitorsByCategory, category);
-            if (nextCompetitor != null) {
-                return nextCompetitor;
-            }
-            nextCompetitor = getNextCompetitorFromCategory(maleCompetitorsByCategory, category);
-            if (nextCompetitor != null) {
-                return nextCompetitor;
+        for (Competitor competitor : startOrder.values()) {
+            // The index only holds NOT_STARTED competitors; the check guards against status changes it was not told about
+            if (competitor.getStatus() == CompetitorStatus.NOT_STARTED) {
+                return competitor;
             }
         }
         return null; // No competitor found with status NOT_STARTED
     }
 
+    /**
+     * Retrieves the competitor who has been on course the longest, i.e. the one expected to finish next.
+     * Competitors on course are ordered by start time, then by start number, so competitors sharing a start time
+     * (e.g. a mass start) are all kept.
+     *
+     * @return the earliest started competitor with status ON_COURSE, or null if nobody is on course
+     */
+    public Competitor getNextCompetitorOnCourse() {
+        Map.Entry<OnCourseKey, Competitor> first = onCourse.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
     /**
      * Assigns start numbers to competitors by category.
-     * Start numbers are assigned sequentially, starting with the youngest female category.
+     * Start numbers are assigned sequentially, starting with the youngest female category. Within a category,
+     * competitors are numbered alphabetically, so the same field always gets the same start numbers.
      */
     public void assignStartNumbersByCategory() {
-        List<Category> sortedCategories = new ArrayList<>(maleCompetitorsByCategory.keySet());
-        sortedCategories.addAll(femaleCompetitorsByCategory.keySet());
-        sortedCategories = sortedCategories.stream().distinct().sorted().collect(Collectors.toList());
+        assignStartNumbers(SeedingOrder.alphabetical(), 1);
+    }
 
-        int startNumber = 1;
+    /**
+     * Seeds the start list and assigns start numbers.
+     * Every category and gender group is ordered by the seeding order, in parallel on the common fork-join pool, and
+     * numbered with a contiguous range: by category, starting with the youngest, female before male. All indexes are
+     * updated for the whole field before the listeners are notified, so this is meant to run before the race.
+     *
+     * @param order            the order within each group
+     * @param firstStartNumber the start number of the first competitor
+     * @return the numbered groups in start order
+     */
+    public List<SeededGroup> assignStartNumbers(SeedingOrder order, int firstStartNumber) {
+        List<SeededGroup> groups = new StartNumberSeeder(ForkJoinPool.commonPool())
+                .seed(maleCompetitorsByCategory, femaleCompetitorsByCategory, order, firstStartNumber);
 
-        for (Category category : sortedCategories) {
-            if (femaleCompetitorsByCategory.containsKey(category)) {
-                for (Competitor competitor : femaleCompetitorsByCategory.get(category)) {
-                    competitor.setStartNumber(startNumber++);
+        competitorsByStartNumber.clear();
+        SortedMap<StartOrderKey, Competitor> batch = new TreeMap<>();
+        for (SeededGroup group : groups) {
+            int startNumber = group.firstStartNumber();
+            for (Competitor competitor : group.competitors()) {
+                competitor.setStartNumberInBatch(startNumber++);
+                competitorsByStartNumber.put(competitor.getStartNumber(), competitor);
+                StartOrderKey key = startOrderKeys.get(competitor);
+                if (key != null) {
+                    key = StartOrderKey.of(competitor, key.sequence());
+                    startOrderKeys.put(competitor, key);
+                    batch.put(key, competitor);
                 }
+                reindexOnCourse(competitor);
             }
-            if (maleCompetitorsByCategory.containsKey(category)) {
-                for (Competitor competitor : maleCompetitorsByCategory.get(category)) {
-                    competitor.setStartNumber(startNumber++);
-                }
+        }
+        // A sorted batch is copied in linear time into the emptied start-order index
+        startOrder.clear();
+        startOrder.putAll(batch);
+
+        for (SeededGroup group : groups) {
+            for (Competitor competitor : group.competitors()) {
+                notifyChanged(competitor);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Starts all waiting competitors of a selection at once, e.g. for a wave or mass start.
+     * The start-order index is walked once, restricted to the selected category and gender where given, and all
+     * indexes are updated for the whole batch before the listeners are notified. Competitors sharing the start time
+     * are queued on course by start number.
+     *
+     * @param selection the competitors to start
+     * @param startTime the shared start time in nanoseconds since the epoch
+     * @return the started competitors in start order
+     */
+    public List<Competitor> startAll(StartSelection selection, long startTime) {
+        List<Competitor> started = new ArrayList<>();
+        Iterator<Competitor> waiting = waitingCompetitors(selection).values().iterator();
+        while (waiting.hasNext()) {
+            Competitor competitor = waiting.next();
+            if (competitor.getStatus() == CompetitorStatus.NOT_STARTED && selection.matches(competitor)) {
+                waiting.remove();
+                startOrderKeys.remove(competitor);
+                started.add(competitor);
+            }
+        }
+        if (started.isEmpty()) {
+            return started;
+        }
+
+        Set<Competitor> notStarted = competitorsByStatus.get(CompetitorStatus.NOT_STARTED);
+        Set<Competitor> onCourseBucket = competitorsByStatus.get(CompetitorStatus.ON_COURSE);
+        SortedMap<OnCourseKey, Competitor> batch = new TreeMap<>();
+        for (Competitor competitor : started) {
+            competitor.startInBatch(startTime);
+            notStarted.remove(competitor);
+            onCourseBucket.add(competitor);
+            OnCourseKey key = new OnCourseKey(startTime, competitor.getStartNumber(), startSequence++);
+            onCourseKeys.put(competitor, key);
+            batch.put(key, competitor);
+        }
+        // A sorted batch is copied in linear time into an empty on-course queue
+        onCourse.putAll(batch);
+
+        for (Competitor competitor : started) {
+            for (CompetitorListener listener : listeners) {
+                listener.onStatusChanged(competitor, CompetitorStatus.NOT_STARTED, CompetitorStatus.ON_COURSE);
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Re-resolves the category of every competitor with a known birth year, e.g. when the season or the rule set
+     * changes. Competitors whose category changes are moved to their new category group and start-order position,
+     * and the listeners are notified, so a ranking engine moves finished competitors to the leaderboard of their new
+     * category. It can therefore also run during or after the race.
+     *
+     * @param resolver the rule set to resolve categories with
+     * @return the number of competitors whose category changed
+     */
+    public int recategorize(CategoryResolver resolver) {
+        int changed = 0;
+        for (Competitor competitor : getAllCompetitors()) {
+            Category category = resolver.resolve(competitor.getBirthYear());
+            if (category == null || category == competitor.getCategory()) {
+                continue;
             }
+            Category previous = competitor.getCategory();
+            competitor.setCategoryInBatch(category);
+            refile(competitor, previous);
+            changed++;
         }
+        return changed;
     }
 
     //====================================================================================================
@@ -229,6 +507,44 @@ public class CompetitorList {
         return gender == Gender.MALE ? maleCompetitorsByCategory : femaleCompetitorsByCategory;
     }
 
+    /**
+     * Retrieves the competitors of a gender and category through the query cache.
+     *
+     * @param gender   the gender to filter by
+     * @param category the category to filter by
+     * @return the unmodifiable Set of competitors
+     */
+    private Set<Competitor> getCompetitorsByCategory(Gender gender, Category category) {
+        Category key = categoryKey(category);
+        int view = QueryCache.view(gender, key);
+        long version = queryCache.version(gender, key);
+        Set<Competitor> competitors = queryCache.get(view, version);
+        if (competitors == null) {
+            competitors = queryCache.put(view, version, new HashSet<>(getGenderMap(gender).getOrDefault(key, Collections.emptySet())));
+        }
+        return competitors;
+    }
+
+    /**
+     * Creates a set of competitors matching the concurrency of this list.
+     *
+     * @return a new empty set
+     */
+    private Set<Competitor> newSet() {
+        return concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+    }
+
+    /**
+     * Maps a category to the key used in the category maps.
+     * Concurrent maps do not accept null keys, so uncategorized competitors are kept under UNKNOWN there.
+     *
+     * @param category the category of a competitor
+     * @return the key of the category map
+     */
+    private Category categoryKey(Category category) {
+        return category == null && concurrent ? Category.UNKNOWN : category;
+    }
+
     /**
      * Retrieves all competitors from a map of competitors grouped by category.
      *
@@ -242,27 +558,308 @@ public class CompetitorList {
     }
 
     /**
-     * Retrieves the next competitor with status NOT_STARTED from a specific category.
-     * Competitors are sorted by start number, with those without a start number placed at the end.
+     * Retrieves the part of the start-order index that can hold competitors of a selection.
      *
-     * @param competitorsByCategory the map of competitors grouped by category
-     * @param category              the category to filter by
-     * @return the next competitor with status NOT_STARTED, or null if none are found
+     * @param selection the selection
+     * @return a view of the start-order index restricted to the selected category and gender
      */
-    private Competitor getNextCompetitorFromCategory(Map<Category, Set<Competitor>> competitorsByCategory, Category category) {
-        if (competitorsByCategory.containsKey(category)) {
-            List<Competitor> competitors = new ArrayList<>(competitorsByCategory.get(category));
-            competitors.sort((c1, c2) -> {
-                int startNumber1 = c1.getStartNumber() == 0 ? Integer.MAX_VALUE : c1.getStartNumber();
-                int startNumber2 = c2.getStartNumber() == 0 ? Integer.MAX_VALUE : c2.getStartNumber();
-                return Integer.compare(startNumber1, startNumber2);
-            });
-            for (Competitor competitor : competitors) {
-                if (competitor.getStatus() == CompetitorStatus.NOT_STARTED) {
-                    return competitor;
-                }
+    private SortedMap<StartOrderKey, Competitor> waitingCompetitors(StartSelection selection) {
+        if (selection.category() == null) {
+            return startOrder;
+        }
+        int category = selection.category().ordinal();
+        if (selection.gender() == null) {
+            return startOrder.subMap(StartOrderKey.first(category, 0), StartOrderKey.first(category + 1, 0));
+        }
+        int gender = selection.gender() == Gender.MALE ? 1 : 0;
+        return startOrder.subMap(StartOrderKey.first(category, gender), StartOrderKey.first(category, gender + 1));
+    }
+
+    /**
+     * Adds a competitor to the start-order index.
+     *
+     * @param competitor the competitor to index
+     * @param sequence   the insertion sequence, used to order competitors with equal start numbers
+     */
+    private void indexStartOrder(Competitor competitor, long sequence) {
+        StartOrderKey key = StartOrderKey.of(competitor, sequence);
+        startOrderKeys.put(competitor, key);
+        startOrder.put(key, competitor);
+    }
+
+    /**
+     * Removes a competitor from the start-order index.
+     *
+     * @param competitor the competitor to remove
+     * @return the key the competitor was indexed with, or null if it was not indexed
+     */
+    private StartOrderKey unindexStartOrder(Competitor competitor) {
+        StartOrderKey key = startOrderKeys.remove(competitor);
+        if (key != null) {
+            startOrder.remove(key);
+        }
+        return key;
+    }
+
+    /**
+     * Adds a competitor to the on-course queue, keyed by its current start time and start number.
+     *
+     * @param competitor the competitor to index
+     */
+    private void indexOnCourse(Competitor competitor) {
+        OnCourseKey key = new OnCourseKey(competitor.getStartTime(), competitor.getStartNumber(), startSequence++);
+        onCourseKeys.put(competitor, key);
+        onCourse.put(key, competitor);
+    }
+
+    /**
+     * Removes a competitor from the on-course queue.
+     *
+     * @param competitor the competitor to remove
+     */
+    private void unindexOnCourse(Competitor competitor) {
+        OnCourseKey key = onCourseKeys.remove(competitor);
+        if (key != null) {
+            onCourse.remove(key);
+        }
+    }
+
+    /**
+     * Re-positions a competitor in the on-course queue if it is on course.
+     *
+     * @param competitor the competitor
+     */
+    private void reindexOnCourse(Competitor competitor) {
+        if (onCourseKeys.containsKey(competitor)) {
+            unindexOnCourse(competitor);
+            indexOnCourse(competitor);
+        }
+    }
+
+    /**
+     * Moves a competitor whose category changed from its previous category group to its new one, re-positions it in
+     * the start order of its new group and notifies the listeners.
+     *
+     * @param competitor the competitor, already carrying its new category
+     * @param previous   the previous category
+     */
+    private void refile(Competitor competitor, Category previous) {
+        Map<Category, Set<Competitor>> targetMap = getGenderMap(competitor.getGender());
+        Category previousKey = categoryKey(previous);
+        Category category = categoryKey(competitor.getCategory());
+        Set<Competitor> competitors = targetMap.get(previousKey);
+        if (competitors != null) {
+            competitors.remove(competitor);
+            if (competitors.isEmpty()) {
+                targetMap.remove(previousKey);
+            }
+        }
+        targetMap.computeIfAbsent(category, k -> newSet()).add(competitor);
+        queryCache.modified(competitor.getGender(), previousKey);
+        queryCache.modified(competitor.getGender(), category);
+
+        StartOrderKey key = unindexStartOrder(competitor);
+        if (key != null) {
+            indexStartOrder(competitor, key.sequence());
+        }
+        notifyChanged(competitor);
+    }
+
+    /**
+     * Notifies the listeners that attributes of a competitor other than its status changed.
+     *
+     * @param competitor the competitor
+     */
+    private void notifyChanged(Competitor competitor) {
+        for (CompetitorListener listener : listeners) {
+            listener.onCompetitorChanged(competitor);
+        }
+    }
+
+    /**
+     * Adds a competitor to the bucket of the given status.
+     *
+     * @param competitor the competitor to add
+     * @param status     the status bucket, ignored if null
+     */
+    private void addToStatusBucket(Competitor competitor, CompetitorStatus status) {
+        if (status != null) {
+            competitorsByStatus.get(status).add(competitor);
+        }
+    }
+
+    /**
+     * Removes a competitor from the bucket of the given status.
+     *
+     * @param competitor the competitor to remove
+     * @param status     the status bucket, ignored if null
+     */
+    private void removeFromStatusBucket(Competitor competitor, CompetitorStatus status) {
+        if (status != null) {
+            competitorsByStatus.get(status).remove(competitor);
+        }
+    }
+
+    //====================================================================================================
+    // Competitor notifications
+    //====================================================================================================
+    /**
+     * Called by a competitor of this list after its status changed.
+     * Moves the competitor to the bucket of its new status. Competitors entering NOT_STARTED are added to the
+     * start-order index and competitors entering ON_COURSE to the on-course queue; competitors leaving either status
+     * are removed from the matching structure. Listeners are notified once all indexes are up to date.
+     *
+     * @param competitor the competitor whose status changed
+     * @param previous   the previous status
+     * @param status     the new status
+     */
+    void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        removeFromStatusBucket(competitor, previous);
+        addToStatusBucket(competitor, status);
+
+        if (previous == CompetitorStatus.NOT_STARTED) {
+            unindexStartOrder(competitor);
+        } else if (previous == CompetitorStatus.ON_COURSE) {
+            unindexOnCourse(competitor);
+        }
+
+        if (status == CompetitorStatus.NOT_STARTED) {
+            if (!startOrderKeys.containsKey(competitor)) {
+                indexStartOrder(competitor, insertionSequence++);
+            }
+        } else if (status == CompetitorStatus.ON_COURSE) {
+            unindexOnCourse(competitor);
+            indexOnCourse(competitor);
+        }
+
+        for (CompetitorListener listener : listeners) {
+            listener.onStatusChanged(competitor, previous, status);
+        }
+    }
+
+    /**
+     * Called by a competitor of this list after its times were corrected. Re-positions the competitor in the
+     * on-course queue and notifies the listeners.
+     *
+     * @param competitor the competitor whose start time changed
+     */
+    void onStartTimeChanged(Competitor competitor) {
+        reindexOnCourse(competitor);
+        for (CompetitorListener listener : listeners) {
+            listener.onTimesChanged(competitor);
+        }
+    }
+
+    /**
+     * Called by a competitor of this list after it was started again while on course. Re-positions the competitor in
+     * the on-course queue and notifies the listeners.
+     *
+     * @param competitor the restarted competitor
+     */
+    void onRestarted(Competitor competitor) {
+        reindexOnCourse(competitor);
+        for (CompetitorListener listener : listeners) {
+            listener.onRestarted(competitor);
+        }
+    }
+
+    /**
+     * Called by a competitor of this list after its category was set directly. Files the competitor under its new
+     * category and notifies the listeners.
+     *
+     * @param competitor the competitor whose category changed
+     * @param previous   the previous category
+     */
+    void onCategoryChanged(Competitor competitor, Category previous) {
+        refile(competitor, previous);
+    }
+
+    /**
+     * Called by a competitor of this list after its start number changed.
+     * Moves the competitor to its new start number in the start number index and re-positions it in the start-order
+     * index, keeping its insertion sequence, and in the on-course queue. Notifies the listeners.
+     *
+     * @param competitor the competitor whose start number changed
+     * @param previous   the previous start number
+     */
+    void onStartNumberChanged(Competitor competitor, int previous) {
+        competitorsByStartNumber.remove(previous, competitor);
+        competitorsByStartNumber.put(competitor.getStartNumber(), competitor);
+        StartOrderKey key = unindexStartOrder(competitor);
+        if (key != null) {
+            indexStartOrder(competitor, key.sequence());
+        }
+        reindexOnCourse(competitor);
+        notifyChanged(competitor);
+    }
+
+    /**
+     * Called by a competitor of this list after it passed an intermediate checkpoint. Notifies the listeners.
+     *
+     * @param competitor the competitor
+     * @param checkpoint the checkpoint, starting at 1
+     */
+    void onSplitRecorded(Competitor competitor, int checkpoint) {
+        for (CompetitorListener listener : listeners) {
+            listener.onSplitRecorded(competitor, checkpoint);
+        }
+    }
+
+    /**
+     * Sort key of the start-order index.
+     * Orders by category, female before male, then by start number with unnumbered competitors last.
+     */
+    private record StartOrderKey(int category, int gender, int startNumber, long sequence) implements Comparable<StartOrderKey> {
+
+        static StartOrderKey of(Competitor competitor, long sequence) {
+            Category category = competitor.getCategory();
+            int startNumber = competitor.getStartNumber();
+            return new StartOrderKey(
+                    category == null ? Integer.MAX_VALUE : category.ordinal(),
+                    competitor.getGender() == Gender.MALE ? 1 : 0,
+                    startNumber == 0 ? Integer.MAX_VALUE : startNumber,
+                    sequence);
+        }
+
+        /**
+         * @return the lowest key of a category and gender, used as bound of range views
+         */
+        static StartOrderKey first(int category, int gender) {
+            return new StartOrderKey(category, gender, Integer.MIN_VALUE, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(StartOrderKey other) {
+            int result = Integer.compare(category, other.category);
+            if (result == 0) {
+                result = Integer.compare(gender, other.gender);
+            }
+            if (result == 0) {
+                result = Integer.compare(startNumber, other.startNumber);
+            }
+            if (result == 0) {
+                result = Long.compare(sequence, other.sequence);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Sort key of the on-course queue.
+     * Orders by start time, then by start number, then by the order in which the competitors were started.
+     */
+    private record OnCourseKey(long startTime, int startNumber, long sequence) implements Comparable<OnCourseKey> {
+
+        @Override
+        public int compareTo(OnCourseKey other) {
+            int result = Long.compare(startTime, other.startTime);
+            if (result == 0) {
+                result = Integer.compare(startNumber, other.startNumber);
+            }
+            if (result == 0) {
+                result = Long.compare(sequence, other.sequence);
             }
+            return result;
         }
-        return null;
     }
 }
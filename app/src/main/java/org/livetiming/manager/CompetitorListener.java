@@ -0,0 +1,75 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.CompetitorStatus;
+
+/**
+ * Listener notified by a {@link CompetitorList} when one of its competitors changes status or passes a checkpoint,
+ * and when competitors are added, removed or renumbered.
+ */
+@FunctionalInterface
+public interface CompetitorListener {
+
+    /**
+     * Called after the status of a competitor changed and the list has updated its indexes.
+     *
+     * @param competitor the competitor whose status changed
+     * @param previous   the previous status
+     * @param status     the new status
+     */
+    void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status);
+
+    /**
+     * Called after a competitor passed an intermediate checkpoint.
+     *
+     * @param competitor the competitor
+     * @param checkpoint the checkpoint, starting at 1
+     */
+    default void onSplitRecorded(Competitor competitor, int checkpoint) {
+    }
+
+    /**
+     * Called after the start number or category of a competitor changed without a status change, and by default
+     * after its times changed.
+     *
+     * @param competitor the competitor
+     */
+    default void onCompetitorChanged(Competitor competitor) {
+    }
+
+    /**
+     * Called after the start or finish time of a competitor changed without a status change, i.e. its times were
+     * corrected, and by default after it was started again while on course. Delegates to
+     * {@link #onCompetitorChanged} by default.
+     *
+     * @param competitor the competitor
+     */
+    default void onTimesChanged(Competitor competitor) {
+        onCompetitorChanged(competitor);
+    }
+
+    /**
+     * Called after a competitor on course was started again, which replaced its start time and cleared its split
+     * times. Delegates to {@link #onTimesChanged} by default.
+     *
+     * @param competitor the competitor
+     */
+    default void onRestarted(Competitor competitor) {
+        onTimesChanged(competitor);
+    }
+
+    /**
+     * Called after a competitor was added to the list.
+     *
+     * @param competitor the competitor
+     */
+    default void onCompetitorAdded(Competitor competitor) {
+    }
+
+    /**
+     * Called after a competitor was removed from the list.
+     *
+     * @param competitor the competitor
+     */
+    default void onCompetitorRemoved(Competitor competitor) {
+    }
+}
@@ -0,0 +1,110 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.CategoryResolver;
+import org.livetiming.model.CompetitorStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A CompetitorList that can be shared between the start gate, the finish cell and any number of result readers.
+ * Mutations, including the notifications sent by competitors when they start or finish, are serialized on the list.
+ * The lookup by start number reads the start number index, which is not thread-safe, and therefore also locks on the
+ * list; all other read methods work without locking on concurrent collections. Iterating a returned view is weakly
+ * consistent: it never fails, but may or may not reflect changes made while iterating.
+ */
+public class ConcurrentCompetitorList extends CompetitorList {
+
+    /**
+     * Constructs an empty ConcurrentCompetitorList.
+     */
+    public ConcurrentCompetitorList() {
+        super(true);
+    }
+
+    /**
+     * Constructs a ConcurrentCompetitorList and initializes it with a set of competitors.
+     *
+     * @param competitors the set of competitors to initialize the list with
+     */
+    public ConcurrentCompetitorList(Set<Competitor> competitors) {
+        super(true, competitors);
+    }
+
+    @Override
+    public synchronized void addCompetitor(Competitor competitor) {
+        super.addCompetitor(competitor);
+    }
+
+    @Override
+    public synchronized void addCompetitors(Collection<Competitor> competitors) {
+        super.addCompetitors(competitors);
+    }
+
+    @Override
+    public synchronized void removeCompetitor(Competitor competitor) {
+        super.removeCompetitor(competitor);
+    }
+
+    @Override
+    public synchronized Competitor getCompetitorByStartNumber(int startNumber) {
+        return super.getCompetitorByStartNumber(startNumber);
+    }
+
+    @Override
+    public synchronized List<Competitor> startAll(StartSelection selection, long startTime) {
+        return super.startAll(selection, startTime);
+    }
+
+    @Override
+    public synchronized void resetCompetitorsStatus() {
+        super.resetCompetitorsStatus();
+    }
+
+    @Override
+    public synchronized void assignStartNumbersByCategory() {
+        super.assignStartNumbersByCategory();
+    }
+
+    @Override
+    public synchronized List<SeededGroup> assignStartNumbers(SeedingOrder order, int firstStartNumber) {
+        return super.assignStartNumbers(order, firstStartNumber);
+    }
+
+    @Override
+    public synchronized int recategorize(CategoryResolver resolver) {
+        return super.recategorize(resolver);
+    }
+
+    @Override
+    synchronized void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        super.onStatusChanged(competitor, previous, status);
+    }
+
+    @Override
+    synchronized void onStartTimeChanged(Competitor competitor) {
+        super.onStartTimeChanged(competitor);
+    }
+
+    @Override
+    synchronized void onRestarted(Competitor competitor) {
+        super.onRestarted(competitor);
+    }
+
+    @Override
+    synchronized void onCategoryChanged(Competitor competitor, Category previous) {
+        super.onCategoryChanged(competitor, previous);
+    }
+
+    @Override
+    synchronized void onStartNumberChanged(Competitor competitor, int previous) {
+        super.onStartNumberChanged(competitor, previous);
+    }
+
+    @Override
+    synchronized void onSplitRecorded(Competitor competitor, int checkpoint) {
+        super.onSplitRecorded(competitor, checkpoint);
+    }
+}
@@ -0,0 +1,150 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the category and gender views of a {@link CompetitorList} until a mutation changes their members.
+ * Every (gender group, category) key has a modification counter that the list increments after adding, removing or
+ * re-categorizing a competitor of that key. A cached view remembers the counters it was built from: a category view
+ * depends on the key of each gender group, a gender view on all keys of its group. Status, time and start number
+ * changes do not change membership and leave the views cached.
+ *
+ * <p>Views are published as immutable entries, so readers of a concurrent list never see a half-built view. A reader
+ * that raced with a mutation stores its view under the counter it read before copying, so the view is rebuilt on the
+ * next lookup.
+ */
+class QueryCache {
+    private static final int CATEGORY_SLOTS = Category.values().length + 1;
+    private static final int GROUPS = 2;
+    private static final int COMBINED = GROUPS * CATEGORY_SLOTS;
+    private static final int BY_GENDER = COMBINED + CATEGORY_SLOTS;
+
+    private final AtomicLongArray modifications;
+    private final AtomicLongArray groupModifications;
+    private final CachedView[] views;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    QueryCache() {
+        this.modifications = new AtomicLongArray(GROUPS * CATEGORY_SLOTS);
+        this.groupModifications = new AtomicLongArray(GROUPS);
+        this.views = new CachedView[BY_GENDER + GROUPS];
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    //====================================================================================================
+    // Invalidation
+    //====================================================================================================
+    /**
+     * Invalidates the views holding competitors of a gender and category. Must be called after the mutation.
+     *
+     * @param gender   the gender of the changed competitor
+     * @param category the category key of the changed competitor
+     */
+    void modified(Gender gender, Category category) {
+        int group = group(gender);
+        modifications.incrementAndGet(group * CATEGORY_SLOTS + slot(category));
+        groupModifications.incrementAndGet(group);
+    }
+
+    //====================================================================================================
+    // Versions and views
+    //====================================================================================================
+    /**
+     * @return the version of the competitors of a gender and category
+     */
+    long version(Gender gender, Category category) {
+        return modifications.get(group(gender) * CATEGORY_SLOTS + slot(category));
+    }
+
+    /**
+     * Counters only grow, so an unchanged sum means that no counter changed.
+     *
+     * @return the version of the competitors of a category, of any gender
+     */
+    long version(Category category) {
+        int slot = slot(category);
+        return modifications.get(slot) + modifications.get(CATEGORY_SLOTS + slot);
+    }
+
+    /**
+     * @return the version of the competitors of a gender
+     */
+    long version(Gender gender) {
+        return groupModifications.get(group(gender));
+    }
+
+    static int view(Gender gender, Category category) {
+        return group(gender) * CATEGORY_SLOTS + slot(category);
+    }
+
+    static int view(Category category) {
+        return COMBINED + slot(category);
+    }
+
+    static int view(Gender gender) {
+        return BY_GENDER + group(gender);
+    }
+
+    /**
+     * Looks up a cached view.
+     *
+     * @param view    the view, see the {@code view} methods
+     * @param version the current version of the competitors in the view
+     * @return the cached view, or null if it is missing or out of date
+     */
+    Set<Competitor> get(int view, long version) {
+        CachedView cached = views[view];
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.competitors();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches a freshly built view.
+     *
+     * @param view        the view, see the {@code view} methods
+     * @param version     the version read before building the view
+     * @param competitors the members of the view, not to be modified afterwards
+     * @return the unmodifiable cached view
+     */
+    Set<Competitor> put(int view, long version, Set<Competitor> competitors) {
+        Set<Competitor> unmodifiable = Collections.unmodifiableSet(competitors);
+        views[view] = new CachedView(version, unmodifiable);
+        return unmodifiable;
+    }
+
+    QueryCacheStats getStats() {
+        return new QueryCacheStats(hits.sum(), misses.sum());
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Groups genders like the category maps of the list: males in one group, everyone else in the other.
+     */
+    private static int group(Gender gender) {
+        return gender == Gender.MALE ? 0 : 1;
+    }
+
+    /**
+     * Maps a category key to its slot; the null key of a plain list gets the last slot.
+     */
+    private static int slot(Category category) {
+        return category == null ? CATEGORY_SLOTS - 1 : category.ordinal();
+    }
+
+    private record CachedView(long version, Set<Competitor> competitors) {
+    }
+}
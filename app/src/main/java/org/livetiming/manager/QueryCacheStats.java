@@ -0,0 +1,18 @@
+package org.livetiming.manager;
+
+/**
+ * Hit and miss counts of the category and gender views cached by a {@link CompetitorList}.
+ *
+ * @param hits   the lookups answered from the cache
+ * @param misses the lookups that had to build the view
+ */
+public record QueryCacheStats(long hits, long misses) {
+
+    /**
+     * @return the share of lookups answered from the cache, or 0 if there were none
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,25 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+import java.util.List;
+
+/**
+ * A category and gender group of a seeded start list, numbered with a contiguous range of start numbers.
+ * As in the category maps of a {@link CompetitorList}, competitors without a male gender are grouped as FEMALE.
+ *
+ * @param category         the category, or null for competitors without a category
+ * @param gender           MALE or FEMALE
+ * @param firstStartNumber the start number of the first competitor of the group
+ * @param competitors      the competitors of the group in start order
+ */
+public record SeededGroup(Category category, Gender gender, int firstStartNumber, List<Competitor> competitors) {
+
+    /**
+     * @return the start number of the last competitor of the group, or one less than the first if the group is empty
+     */
+    public int lastStartNumber() {
+        return firstStartNumber + competitors.size() - 1;
+    }
+}
@@ -0,0 +1,95 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Orders the competitors of one category and gender group before they are numbered, see
+ * {@link CompetitorList#assignStartNumbers(SeedingOrder, int)}.
+ * Groups are ordered independently and possibly in parallel. Every group arrives sorted by last name, first name, club,
+ * birth year and previous start number, so an order that only depends on the group yields the same start list on
+ * every run.
+ */
+@FunctionalInterface
+public interface SeedingOrder {
+
+    /**
+     * Orders the competitors of a group in place.
+     *
+     * @param category    the category of the group, or null for competitors without a category
+     * @param gender      the gender of the group, MALE or FEMALE
+     * @param competitors the competitors of the group, sorted alphabetically
+     */
+    void order(Category category, Gender gender, List<Competitor> competitors);
+
+    /**
+     * @return an order keeping the competitors of each group sorted by name
+     */
+    static SeedingOrder alphabetical() {
+        return (category, gender, competitors) -> {
+        };
+    }
+
+    /**
+     * Seeds the competitors by ranking points, the competitor with the most points starting first. Competitors with
+     * equal points stay in alphabetical order.
+     *
+     * @param points the ranking points of a competitor
+     * @return the order
+     */
+    static SeedingOrder byRankingPoints(ToDoubleFunction<Competitor> points) {
+        return (category, gender, competitors) -> competitors.sort(Comparator.comparingDouble(points).reversed());
+    }
+
+    /**
+     * Draws the start order at random. Every group draws from its own generator derived from the seed, its category
+     * and its gender, so the same seed reproduces the draw regardless of how groups are scheduled.
+     *
+     * @param seed the seed of the draw
+     * @return the order
+     */
+    static SeedingOrder randomDraw(long seed) {
+        return (category, gender, competitors) -> {
+            long group = (category == null ? Category.values().length : category.ordinal()) * 2L + (gender == Gender.MALE ? 1 : 0);
+            SplittableRandom random = new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (group + 1));
+            for (int i = competitors.size() - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                competitors.set(i, competitors.set(j, competitors.get(i)));
+            }
+        };
+    }
+
+    /**
+     * Starts the competitors in reverse order of a previous result, so the winner starts last. Competitors without a
+     * previous result start first, in alphabetical order.
+     *
+     * @param previousRank the rank of a competitor in the previous result, starting at 1, or 0 if it has none
+     * @return the order
+     */
+    static SeedingOrder reverseOfResults(ToIntFunction<Competitor> previousRank) {
+        return (category, gender, competitors) -> competitors.sort(Comparator.comparingInt(competitor -> {
+            int rank = previousRank.applyAsInt(competitor);
+            return rank > 0 ? -rank : Integer.MIN_VALUE;
+        }));
+    }
+
+    /**
+     * Separates club mates: the result of this order is taken as is, except that a competitor following a competitor
+     * of the same club is moved back behind the next competitor of another club. Competitors without a club never
+     * need to be separated.
+     *
+     * @return the order with club separation
+     */
+    default SeedingOrder separatingClubs() {
+        return (category, gender, competitors) -> {
+            order(category, gender, competitors);
+            StartNumberSeeder.separateClubs(competitors);
+        };
+    }
+}
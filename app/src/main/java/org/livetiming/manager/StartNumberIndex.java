@@ -0,0 +1,175 @@
+package org.livetiming.manager;
+
+import java.util.Arrays;
+
+/**
+ * Maps start numbers to competitors in an open-addressing hash table keyed by primitive ints.
+ * Lookups, insertions and removals are O(1) on average and never box the start number. Start number 0 marks an
+ * unnumbered competitor and is never indexed; when several competitors share a start number, the one indexed last
+ * wins.
+ *
+ * <p>The index is not thread-safe.
+ */
+public class StartNumberIndex {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] keys;
+    private Competitor[] values;
+    private int size;
+
+    /**
+     * Constructs an empty StartNumberIndex.
+     */
+    public StartNumberIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty StartNumberIndex with room for the given number of start numbers.
+     *
+     * @param expectedSize the expected number of start numbers
+     */
+    public StartNumberIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize * 2) - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new Competitor[capacity];
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Retrieves the competitor with a start number.
+     *
+     * @param startNumber the start number
+     * @return the competitor, or null if no competitor has the start number
+     */
+    public Competitor get(int startNumber) {
+        if (startNumber == 0) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slotOf(startNumber, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == startNumber) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indexes a competitor under a start number, replacing the competitor indexed under it before.
+     *
+     * @param startNumber the start number, ignored if 0
+     * @param competitor  the competitor
+     */
+    public void put(int startNumber, Competitor competitor) {
+        if (startNumber == 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(startNumber, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == startNumber) {
+                values[slot] = competitor;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = startNumber;
+        values[slot] = competitor;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    /**
+     * Removes a start number if it is indexed for the given competitor.
+     * Another competitor that took over the start number in the meantime stays indexed.
+     *
+     * @param startNumber the start number
+     * @param competitor  the competitor
+     * @return true if the start number was removed
+     */
+    public boolean remove(int startNumber, Competitor competitor) {
+        if (startNumber == 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slotOf(startNumber, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == startNumber) {
+                if (values[slot] != competitor) {
+                    return false;
+                }
+                delete(slot, mask);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of indexed start numbers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all start numbers.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Empties a slot and shifts the entries of its probe sequence back, so lookups never stop early.
+     */
+    private void delete(int slot, int mask) {
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            // Move the entry into the gap unless its home slot lies cyclically between the gap and its position
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Competitor[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Competitor[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads consecutive start numbers over the table (Fibonacci hashing). The high half is folded into the low half,
+     * so tables larger than 2^16 slots use all of their slots.
+     */
+    static int slotOf(int startNumber, int mask) {
+        int hash = startNumber * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
@@ -0,0 +1,240 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes seeded start lists for a {@link CompetitorList}.
+ * The category and gender groups are copied, sorted into their canonical alphabetical order and seeded in parallel on
+ * a fork-join pool, one task per group. A prefix sum over the group sizes then gives every group its contiguous range
+ * of start numbers, in the start order of the list: by category, female before male.
+ */
+class StartNumberSeeder {
+    /**
+     * The canonical order of a group, independent of the iteration order of the category sets.
+     */
+    static final Comparator<Competitor> ALPHABETICAL = StartNumberSeeder::compareAlphabetically;
+
+    private final ForkJoinPool pool;
+
+    StartNumberSeeder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Seeds the groups of a list. The list is only read; the start numbers are assigned by the caller.
+     *
+     * @param male             the male competitors by category
+     * @param female           the other competitors by category
+     * @param order            the order of each group
+     * @param firstStartNumber the start number of the first competitor
+     * @return the numbered groups in start order
+     */
+    List<SeededGroup> seed(Map<Category, Set<Competitor>> male, Map<Category, Set<Competitor>> female, SeedingOrder order,
+                           int firstStartNumber) {
+        List<Category> categories = new ArrayList<>(male.keySet());
+        for (Category category : female.keySet()) {
+            if (!male.containsKey(category)) {
+                categories.add(category);
+            }
+        }
+        categories.sort(Comparator.nullsLast(Comparator.naturalOrder()));
+
+        List<Category> groupCategories = new ArrayList<>();
+        List<Gender> groupGenders = new ArrayList<>();
+        List<Competitor[]> groups = new ArrayList<>();
+        for (Category category : categories) {
+            addGroup(female.get(category), category, Gender.FEMALE, groupCategories, groupGenders, groups);
+            addGroup(male.get(category), category, Gender.MALE, groupCategories, groupGenders, groups);
+        }
+
+        List<List<Competitor>> ordered = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            ordered.add(null);
+        }
+        pool.invoke(new OrderGroups(groupCategories, groupGenders, groups, ordered, order, 0, groups.size()));
+
+        // Prefix sum over the group sizes: every group starts where the previous one ends
+        int[] offsets = new int[ordered.size() + 1];
+        for (int i = 0; i < ordered.size(); i++) {
+            offsets[i + 1] = offsets[i] + ordered.get(i).size();
+        }
+        List<SeededGroup> seeded = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            seeded.add(new SeededGroup(groupCategories.get(i), groupGenders.get(i), firstStartNumber + offsets[i], ordered.get(i)));
+        }
+        return seeded;
+    }
+
+    /**
+     * Reorders competitors so that club mates do not start one after another where avoidable.
+     * Competitors are taken in their given order; when the next one is of the same club as the one before, the next
+     * competitor of another club is taken first. Each club is a queue of positions, and a priority queue yields the
+     * club whose next competitor comes first, so reordering takes O(n log clubs).
+     *
+     * @param competitors the competitors to reorder in place
+     */
+    static void separateClubs(List<Competitor> competitors) {
+        Map<String, ClubQueue> clubs = new HashMap<>();
+        List<ClubQueue> queues = new ArrayList<>();
+        for (int i = 0; i < competitors.size(); i++) {
+            String club = competitors.get(i).getClub();
+            // Competitors without a club never conflict, so each one forms a queue of its own
+            ClubQueue queue = club == null ? null : clubs.get(club);
+            if (queue == null) {
+                queue = new ClubQueue(club);
+                queues.add(queue);
+                if (club != null) {
+                    clubs.put(club, queue);
+                }
+            }
+            queue.add(i);
+        }
+        PriorityQueue<ClubQueue> next = new PriorityQueue<>(Math.max(1, queues.size()), Comparator.comparingInt(ClubQueue::head));
+        next.addAll(queues);
+
+        Competitor[] source = competitors.toArray(new Competitor[0]);
+        String previous = null;
+        for (int i = 0; i < source.length; i++) {
+            ClubQueue queue = next.poll();
+            if (queue.club != null && queue.club.equals(previous) && !next.isEmpty()) {
+                ClubQueue other = next.poll();
+                next.add(queue);
+                queue = other;
+            }
+            competitors.set(i, source[queue.poll()]);
+            previous = queue.club;
+            if (!queue.isEmpty()) {
+                next.add(queue);
+            }
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Compares by last name, first name, club, birth year and start number, missing values last. Written out rather
+     * than chained from key extractors, as it runs n log n times per seeding.
+     */
+    private static int compareAlphabetically(Competitor a, Competitor b) {
+        int result = compareNullsLast(a.getLastName(), b.getLastName());
+        if (result == 0) {
+            result = compareNullsLast(a.getFirstName(), b.getFirstName());
+        }
+        if (result == 0) {
+            result = compareNullsLast(a.getClub(), b.getClub());
+        }
+        if (result == 0) {
+            result = compareNullsLast(a.getBirthYear(), b.getBirthYear());
+        }
+        if (result == 0) {
+            result = Integer.compare(a.getStartNumber(), b.getStartNumber());
+        }
+        return result;
+    }
+
+    private static <T extends Comparable<T>> int compareNullsLast(T a, T b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null || b == null) {
+            return a == null ? 1 : -1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static void addGroup(Set<Competitor> competitors, Category category, Gender gender, List<Category> categories,
+                                 List<Gender> genders, List<Competitor[]> groups) {
+        if (competitors != null && !competitors.isEmpty()) {
+            categories.add(category);
+            genders.add(gender);
+            groups.add(competitors.toArray(new Competitor[0]));
+        }
+    }
+
+    /**
+     * Orders a range of groups, forking until every task orders a single group.
+     */
+    private static final class OrderGroups extends RecursiveAction {
+        private final List<Category> categories;
+        private final List<Gender> genders;
+        private final List<Competitor[]> groups;
+        private final List<List<Competitor>> ordered;
+        private final SeedingOrder order;
+        private final int from;
+        private final int to;
+
+        OrderGroups(List<Category> categories, List<Gender> genders, List<Competitor[]> groups, List<List<Competitor>> ordered,
+                    SeedingOrder order, int from, int to) {
+            this.categories = categories;
+            this.genders = genders;
+            this.groups = groups;
+            this.ordered = ordered;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new OrderGroups(categories, genders, groups, ordered, order, from, middle),
+                        new OrderGroups(categories, genders, groups, ordered, order, middle, to));
+            } else if (to > from) {
+                Competitor[] group = groups.get(from);
+                // Large groups are sorted in parallel as well
+                Arrays.parallelSort(group, ALPHABETICAL);
+                List<Competitor> competitors = new ArrayList<>(Arrays.asList(group));
+                order.order(categories.get(from), genders.get(from), competitors);
+                // Each task writes its own slot; invoke() publishes the results to the caller
+                ordered.set(from, competitors);
+            }
+        }
+    }
+
+    /**
+     * The positions of the competitors of one club, in order.
+     */
+    private static final class ClubQueue {
+        private final String club;
+        private int[] positions = new int[4];
+        private int head;
+        private int tail;
+
+        ClubQueue(String club) {
+            this.club = club;
+        }
+
+        void add(int position) {
+            if (tail == positions.length) {
+                positions = Arrays.copyOf(positions, tail * 2);
+            }
+            positions[tail++] = position;
+        }
+
+        int head() {
+            return positions[head];
+        }
+
+        int poll() {
+            return positions[head++];
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+    }
+}
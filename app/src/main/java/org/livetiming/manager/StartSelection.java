@@ -0,0 +1,62 @@
+package org.livetiming.manager;
+
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+/**
+ * Selects the competitors of a wave or mass start by category, gender and start number range.
+ * Criteria left open (null category or gender) match every competitor.
+ *
+ * @param category         the category to start, or null for all categories
+ * @param gender           the gender to start, or null for all genders
+ * @param firstStartNumber the lowest start number to start
+ * @param lastStartNumber  the highest start number to start
+ */
+public record StartSelection(Category category, Gender gender, int firstStartNumber, int lastStartNumber) {
+
+    /**
+     * @return a selection of all competitors, i.e. a mass start
+     */
+    public static StartSelection all() {
+        return new StartSelection(null, null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param category the category to start
+     * @return a selection of all competitors of a category
+     */
+    public static StartSelection of(Category category) {
+        return new StartSelection(category, null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param category the category to start
+     * @param gender   the gender to start
+     * @return a selection of all competitors of a category and gender
+     */
+    public static StartSelection of(Category category, Gender gender) {
+        return new StartSelection(category, gender, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param firstStartNumber the lowest start number to start
+     * @param lastStartNumber  the highest start number to start
+     * @return a selection of all competitors whose start number lies in the range
+     */
+    public static StartSelection startNumbers(int firstStartNumber, int lastStartNumber) {
+        return new StartSelection(null, null, firstStartNumber, lastStartNumber);
+    }
+
+    /**
+     * Checks whether a competitor belongs to the selection.
+     *
+     * @param competitor the competitor
+     * @return true if the competitor matches all criteria
+     */
+    public boolean matches(Competitor competitor) {
+        int startNumber = competitor.getStartNumber();
+        return (category == null || category == competitor.getCategory())
+                && (gender == null || gender == competitor.getGender())
+                && startNumber >= firstStartNumber && startNumber <= lastStartNumber;
+    }
+}
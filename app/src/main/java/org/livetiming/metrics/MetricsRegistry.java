@@ -0,0 +1,222 @@
+package org.livetiming.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the counters, latency histograms and gauges of the application under names in the Prometheus style, e.g.
+ * {@code livetiming_race_operations_total{race="Sprint",operation="finish_next"}}.
+ * Counters are {@link LongAdder}s, so threads incrementing the same counter do not contend. Metrics are looked up once
+ * when instrumentation is set up; the hot path only increments and records.
+ *
+ * <p>The registry is exposed as MXBean through {@link #registerMBean(String)} and as plain text through
+ * {@link #writeText(Appendable)}, e.g. by a {@link MetricsHttpHandler}.
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, LongAdder> counters;
+    private final Map<String, LatencyHistogram> histograms;
+    private final Map<String, LongSupplier> gauges;
+
+    /**
+     * Constructs an empty MetricsRegistry.
+     */
+    public MetricsRegistry() {
+        this.counters = new ConcurrentSkipListMap<>();
+        this.histograms = new ConcurrentSkipListMap<>();
+        this.gauges = new ConcurrentSkipListMap<>();
+    }
+
+    //====================================================================================================
+    // Registration
+    //====================================================================================================
+    /**
+     * Retrieves a counter, creating it on first use.
+     *
+     * @param name   the metric name
+     * @param labels label names and values, alternating
+     * @return the counter
+     */
+    public LongAdder counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), k -> new LongAdder());
+    }
+
+    /**
+     * Retrieves a latency histogram, creating it on first use.
+     *
+     * @param name   the metric name
+     * @param labels label names and values, alternating
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(key(name, labels), k -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a histogram maintained elsewhere, replacing any histogram registered under the same name.
+     *
+     * @param histogram the histogram
+     * @param name      the metric name
+     * @param labels    label names and values, alternating
+     */
+    public void register(LatencyHistogram histogram, String name, String... labels) {
+        histograms.put(key(name, labels), histogram);
+    }
+
+    /**
+     * Registers a gauge whose value is read whenever the metrics are collected.
+     *
+     * @param value  supplies the current value
+     * @param name   the metric name
+     * @param labels label names and values, alternating
+     */
+    public void gauge(LongSupplier value, String name, String... labels) {
+        gauges.put(key(name, labels), value);
+    }
+
+    /**
+     * Removes a gauge, unless another gauge has since been registered under the same name.
+     *
+     * @param value  the supplier the gauge was registered with
+     * @param name   the metric name
+     * @param labels label names and values, alternating
+     */
+    public void removeGauge(LongSupplier value, String name, String... labels) {
+        gauges.remove(key(name, labels), value);
+    }
+
+    /**
+     * Removes all metrics carrying a label, e.g. those of a race that was removed.
+     *
+     * @param label the label name
+     * @param value the label value
+     */
+    public void removeLabeled(String label, String value) {
+        String fragment = label + "=\"" + value + "\"";
+        counters.keySet().removeIf(key -> key.contains(fragment));
+        histograms.keySet().removeIf(key -> key.contains(fragment));
+        gauges.keySet().removeIf(key -> key.contains(fragment));
+    }
+
+    //====================================================================================================
+    // Collection
+    //====================================================================================================
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        counters.forEach((key, counter) -> values.put(key, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        gauges.forEach((key, gauge) -> values.put(key, gauge.getAsLong()));
+        return values;
+    }
+
+    @Override
+    public Map<String, String> getLatencies() {
+        Map<String, String> values = new LinkedHashMap<>();
+        histograms.forEach((key, histogram) -> values.put(key, histogram.toString()));
+        return values;
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text format. Histograms are written as summaries with quantiles in
+     * nanoseconds.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeText(Appendable out) throws IOException {
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            out.append(counter.getKey()).append(' ').append(Long.toString(counter.getValue().sum())).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            out.append(gauge.getKey()).append(' ').append(Long.toString(gauge.getValue().getAsLong())).append('\n');
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            int labels = key.indexOf('{');
+            String name = labels < 0 ? key : key.substring(0, labels);
+            String labelSet = labels < 0 ? "" : key.substring(labels + 1, key.length() - 1);
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{').append(labelSet).append(labelSet.isEmpty() ? "" : ",")
+                        .append("quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                        .append(Long.toString(histogram.getPercentile(quantile * 100))).append('\n');
+            }
+            String suffix = labels < 0 ? "" : key.substring(labels);
+            out.append(name).append("_count").append(suffix).append(' ').append(Long.toString(histogram.getCount())).append('\n');
+            out.append(name).append("_max").append(suffix).append(' ').append(Long.toString(histogram.getMax())).append('\n');
+        }
+    }
+
+    //====================================================================================================
+    // JMX
+    //====================================================================================================
+    /**
+     * Registers the registry with the platform MBean server.
+     *
+     * @param objectName the object name, e.g. {@code org.livetiming:type=Metrics}
+     * @return the registered name
+     * @throws IllegalArgumentException if the name is malformed or already registered
+     */
+    public ObjectName registerMBean(String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("Cannot register the metrics as " + objectName + ".", e);
+        } catch (MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Cannot register the metrics as " + objectName + ".", e);
+        }
+    }
+
+    /**
+     * Unregisters the registry from the platform MBean server, if it is registered under the given name.
+     *
+     * @param name the registered name
+     */
+    public void unregisterMBean(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            // Not registered (any more)
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private static String key(String name, String... labels) {
+        if (labels.length == 0) {
+            return name;
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs.");
+        }
+        StringBuilder key = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return key.append('}').toString();
+    }
+}
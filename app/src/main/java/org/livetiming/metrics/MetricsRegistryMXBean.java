@@ -0,0 +1,24 @@
+package org.livetiming.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link MetricsRegistry}, as shown by JConsole or any other JMX client.
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * @return the current value of every counter by metric name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * @return the current value of every gauge by metric name
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * @return a summary of every latency histogram by metric name
+     */
+    Map<String, String> getLatencies();
+}
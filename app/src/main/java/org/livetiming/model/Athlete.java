@@ -8,20 +8,24 @@ public class Athlete {
     private final Gender gender;
     private final String club;
     private final Year birthYear;
-    private Category category;
-    private CompetitorStatus status;
+    private volatile Category category;
+    private volatile CompetitorStatus status;
 
     public Athlete(String firstName, String lastName, Gender gender, String club, Year birthYear, CompetitorStatus status) {
+        this(firstName, lastName, gender, club, birthYear, birthYear == null ? null : Category.getCategoryByBirthYear(birthYear), status);
+    }
+
+    /**
+     * Constructs an Athlete with an already resolved category, e.g. when importing many athletes at once.
+     */
+    public Athlete(String firstName, String lastName, Gender gender, String club, Year birthYear, Category category, CompetitorStatus status) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.gender = gender;
         this.club = club;
         this.birthYear = birthYear;
+        this.category = category;
         this.status = status;
-
-        if (birthYear != null) {
-            this.category = Category.getCategoryByBirthYear(birthYear);
-        }
     }
 
     //====================================================================================================
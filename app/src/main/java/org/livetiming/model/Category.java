@@ -8,7 +8,10 @@ public enum Category {
     public static Category getCategoryByBirthYear(Year birthYear) {
         int year = birthYear.getValue();
         int age = Year.now().getValue() - year;
+        return getCategoryByAge(age);
+    }
 
+    public static Category getCategoryByAge(int age) {
         if (age <= 2) {
             return BABY;
         } else if (age <= 5) {
@@ -0,0 +1,196 @@
+package org.livetiming.model;
+
+import org.livetiming.exception.CategoryRulesException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resolves the category of an athlete from the birth year, for one rule set and one season.
+ * The age brackets are evaluated once, when the resolver is built, into a table indexed by birth year, so resolving
+ * a category is a single array lookup. Since only birth years are known, the age of an athlete is the age reached
+ * in the reference year, so the result does not depend on the clock of the host or the day of the race.
+ *
+ * <p>Resolvers are immutable and independent of each other, so several rule sets (e.g. the rules of two
+ * federations, or of two seasons) can be used side by side.
+ *
+ * <p>Rule files list one bracket per line as {@code CATEGORY = maximum age}, in ascending order of age. The last
+ * bracket may use {@code *} as maximum age to cover all older athletes; without it, older athletes are UNKNOWN.
+ * Empty lines and lines starting with {@code #} are ignored.
+ */
+public final class CategoryResolver {
+    private static final int MAX_AGE = 120;
+
+    private final String name;
+    private final Year referenceYear;
+    private final int firstBirthYear;
+    private final Category[] categoriesByBirthYear;
+
+    /**
+     * Constructs a CategoryResolver from age brackets.
+     *
+     * @param name          the name of the rule set
+     * @param referenceYear the season the ages are computed for
+     * @param brackets      the age brackets in ascending order of their maximum age
+     * @throws CategoryRulesException if the brackets are empty or not in ascending order
+     */
+    public CategoryResolver(String name, Year referenceYear, List<AgeBracket> brackets) {
+        if (brackets.isEmpty()) {
+            throw new CategoryRulesException("Rule set " + name + " has no age brackets.");
+        }
+        for (int i = 1; i < brackets.size(); i++) {
+            if (brackets.get(i).maxAge() <= brackets.get(i - 1).maxAge()) {
+                throw new CategoryRulesException("Age brackets of rule set " + name + " are not in ascending order at "
+                        + brackets.get(i).category() + ".");
+            }
+        }
+
+        this.name = name;
+        this.referenceYear = referenceYear;
+        this.firstBirthYear = referenceYear.getValue() - MAX_AGE;
+        this.categoriesByBirthYear = new Category[MAX_AGE + 1];
+        int bracket = 0;
+        for (int age = 0; age <= MAX_AGE; age++) {
+            while (bracket < brackets.size() && age > brackets.get(bracket).maxAge()) {
+                bracket++;
+            }
+            categoriesByBirthYear[MAX_AGE - age] = bracket < brackets.size() ? brackets.get(bracket).category() : Category.UNKNOWN;
+        }
+    }
+
+    /**
+     * Creates a resolver using the brackets of {@link Category#getCategoryByAge(int)}.
+     *
+     * @param referenceYear the season the ages are computed for
+     * @return the resolver
+     */
+    public static CategoryResolver standard(Year referenceYear) {
+        return new CategoryResolver("standard", referenceYear, List.of(
+                new AgeBracket(Category.BABY, 2),
+                new AgeBracket(Category.MINI, 5),
+                new AgeBracket(Category.U10, 10),
+                new AgeBracket(Category.U12, 12),
+                new AgeBracket(Category.U14, 14),
+                new AgeBracket(Category.U16, 16),
+                new AgeBracket(Category.U18, 18),
+                new AgeBracket(Category.U20, 20),
+                new AgeBracket(Category.SENIOR, 35),
+                new AgeBracket(Category.VETERAN, 50),
+                new AgeBracket(Category.MASTER, 65),
+                new AgeBracket(Category.GRAND_MASTER, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Loads a resolver from a rule file. The name of the rule set is the file name without extension.
+     *
+     * @param path          the rule file
+     * @param referenceYear the season the ages are computed for
+     * @return the resolver
+     * @throws IOException            if the file cannot be read
+     * @throws CategoryRulesException if the file contains an invalid rule
+     */
+    public static CategoryResolver load(Path path, Year referenceYear) throws IOException {
+        String fileName = path.getFileName().toString();
+        int extension = fileName.lastIndexOf('.');
+        return parse(extension > 0 ? fileName.substring(0, extension) : fileName, referenceYear, Files.readAllLines(path));
+    }
+
+    /**
+     * Parses the lines of a rule file.
+     *
+     * @param name          the name of the rule set
+     * @param referenceYear the season the ages are computed for
+     * @param lines         the lines of the rule file
+     * @return the resolver
+     * @throws CategoryRulesException if a line contains an invalid rule
+     */
+    public static CategoryResolver parse(String name, Year referenceYear, List<String> lines) {
+        List<AgeBracket> brackets = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf('=');
+            if (separator < 0) {
+                throw new CategoryRulesException("Line " + (i + 1) + " of rule set " + name + " is not of the form CATEGORY = age.");
+            }
+            String categoryName = line.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+            String maxAge = line.substring(separator + 1).trim();
+            try {
+                brackets.add(new AgeBracket(Category.valueOf(categoryName), "*".equals(maxAge) ? Integer.MAX_VALUE : Integer.parseInt(maxAge)));
+            } catch (IllegalArgumentException e) {
+                throw new CategoryRulesException("Invalid rule '" + line + "' on line " + (i + 1) + " of rule set " + name + ".", e);
+            }
+        }
+        return new CategoryResolver(name, referenceYear, brackets);
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Resolves the category of a birth year.
+     *
+     * @param birthYear the birth year, may be null
+     * @return the category, or null if the birth year is null
+     */
+    public Category resolve(Year birthYear) {
+        return birthYear == null ? null : resolve(birthYear.getValue());
+    }
+
+    /**
+     * Resolves the category of a birth year.
+     * Birth years after the reference year resolve to the youngest category, birth years more than 120 years before it
+     * to the oldest.
+     *
+     * @param birthYear the birth year
+     * @return the category
+     */
+    public Category resolve(int birthYear) {
+        int index = Math.max(0, Math.min(categoriesByBirthYear.length - 1, birthYear - firstBirthYear));
+        return categoriesByBirthYear[index];
+    }
+
+    /**
+     * Creates an athlete whose category is resolved by this rule set.
+     *
+     * @return the athlete
+     */
+    public Athlete createAthlete(String firstName, String lastName, Gender gender, String club, Year birthYear, CompetitorStatus status) {
+        return new Athlete(firstName, lastName, gender, club, birthYear, resolve(birthYear), status);
+    }
+
+    /**
+     * @return the name of the rule set
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the season the ages are computed for
+     */
+    public Year getReferenceYear() {
+        return this.referenceYear;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + referenceYear;
+    }
+
+    /**
+     * An age bracket of a rule set.
+     *
+     * @param category the category of the bracket
+     * @param maxAge   the highest age, reached in the reference year, belonging to the category
+     */
+    public record AgeBracket(Category category, int maxAge) {
+    }
+}
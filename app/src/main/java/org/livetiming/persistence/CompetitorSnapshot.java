@@ -0,0 +1,542 @@
+package org.livetiming.persistence;
+
+import org.livetiming.exception.SnapshotException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a competitor list, so a timing box restarted mid-event loads its field in milliseconds instead of
+ * re-importing it. Snapshots are written through a {@link FileChannel} into a temporary file that atomically replaces
+ * the previous snapshot, so a crash while saving never leaves a torn file behind.
+ *
+ * <p>An opened snapshot is a read-only view of the memory-mapped file: attributes are decoded from the mapped bytes
+ * on access, so result printers and other read-only consumers never materialize the competitors.
+ *
+ * <p>Layout, little-endian:
+ * <ul>
+ *     <li>Header, 24 bytes: magic {@code LTCS} (int), format version (int), competitor count (int), string count
+ *     (int), offset of the first record (long).</li>
+ *     <li>String table: every distinct name and club once, as varint byte length and UTF-8 bytes.</li>
+ *     <li>One record per competitor: start number (zigzag varint); first name, last name and club (varint string
+ *     ids, the club shifted by one so that 0 means none); gender, category and status (one byte each, 0xFF for
+ *     none); birth year (varint, 0 for unknown); start and finish time (fixed 8 bytes each); split count (varint)
+ *     followed by the split times (fixed 8 bytes each).</li>
+ * </ul>
+ */
+public class CompetitorSnapshot implements AutoCloseable {
+    static final int MAGIC = 0x5343544C; // "LTCS" in little-endian byte order
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int NONE = 0xFF;
+
+    private static final Gender[] GENDERS = Gender.values();
+    private static final Category[] CATEGORIES = Category.values();
+    private static final CompetitorStatus[] STATUSES = CompetitorStatus.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final int[] recordOffsets;
+
+    private CompetitorSnapshot(FileChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        try {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new SnapshotException("Not a competitor snapshot.");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new SnapshotException("Unsupported competitor snapshot version " + buffer.getInt(4) + ".");
+            }
+            this.recordOffsets = new int[buffer.getInt(8)];
+            this.stringOffsets = new int[buffer.getInt(12)];
+            indexStrings();
+            indexRecords(Math.toIntExact(buffer.getLong(16)));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException | ArithmeticException e) {
+            throw new SnapshotException("The competitor snapshot is truncated or corrupt.", e);
+        }
+    }
+
+    //====================================================================================================
+    // Writing
+    //====================================================================================================
+    /**
+     * Writes a snapshot of all competitors of a list.
+     *
+     * @param competitors the competitor list
+     * @param path        the path of the snapshot file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CompetitorList competitors, Path path) throws IOException {
+        write(competitors.getAllCompetitors(), path);
+    }
+
+    /**
+     * Writes a snapshot of competitors.
+     *
+     * @param competitors the competitors
+     * @param path        the path of the snapshot file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Collection<Competitor> competitors, Path path) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] stringIds = new int[competitors.size() * 3];
+        int index = 0;
+        for (Competitor competitor : competitors) {
+            stringIds[index++] = idOf(competitor.getFirstName(), ids, strings);
+            stringIds[index++] = idOf(competitor.getLastName(), ids, strings);
+            stringIds[index++] = competitor.getClub() == null ? 0 : idOf(competitor.getClub(), ids, strings) + 1;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.skip(HEADER_SIZE);
+            for (byte[] string : strings) {
+                out.varint(string.length);
+                out.bytes(string);
+            }
+            long recordsOffset = out.position();
+            index = 0;
+            for (Competitor competitor : competitors) {
+                long[] splits = competitor.getSplitTimes();
+                out.ensure(64 + splits.length * 8);
+                out.varint(zigzag(competitor.getStartNumber()));
+                out.varint(stringIds[index++]);
+                out.varint(stringIds[index++]);
+                out.varint(stringIds[index++]);
+                out.ordinal(competitor.getGender());
+                out.ordinal(competitor.getCategory());
+                out.ordinal(competitor.getStatus());
+                out.varint(competitor.getBirthYear() == null ? 0 : competitor.getBirthYear().getValue());
+                out.fixed(competitor.getStartTime());
+                out.fixed(competitor.getFinishTime());
+                out.varint(splits.length);
+                for (long split : splits) {
+                    out.fixed(split);
+                }
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(competitors.size()).putInt(strings.size()).putLong(recordsOffset).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //====================================================================================================
+    // Reading
+    //====================================================================================================
+    /**
+     * Opens a snapshot as a read-only view of the memory-mapped file.
+     *
+     * @param path the path of the snapshot file
+     * @return the snapshot
+     * @throws IOException       if the file cannot be read
+     * @throws SnapshotException if the file is not a valid snapshot
+     */
+    public static CompetitorSnapshot open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new SnapshotException("The competitor snapshot is too large to map.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CompetitorSnapshot(channel, buffer.order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the competitors of a snapshot. Every distinct string is decoded only once and shared by the competitors.
+     *
+     * @param path the path of the snapshot file
+     * @return the competitors, detached from any list
+     * @throws IOException       if the file cannot be read
+     * @throws SnapshotException if the file is not a valid snapshot
+     */
+    public static List<Competitor> read(Path path) throws IOException {
+        try (CompetitorSnapshot snapshot = open(path)) {
+            return snapshot.toCompetitors();
+        }
+    }
+
+    /**
+     * Reads the competitors of a snapshot and adds them to a list.
+     *
+     * @param path        the path of the snapshot file
+     * @param competitors the list to add the competitors to
+     * @return the number of read competitors
+     * @throws IOException       if the file cannot be read
+     * @throws SnapshotException if the file is not a valid snapshot
+     */
+    public static int load(Path path, CompetitorList competitors) throws IOException {
+        List<Competitor> loaded = read(path);
+        competitors.addCompetitors(loaded);
+        return loaded.size();
+    }
+
+    /**
+     * @return the number of competitors in the snapshot
+     */
+    public int size() {
+        return recordOffsets.length;
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the start number
+     */
+    public int getStartNumber(int index) {
+        return unzigzag(varintAt(recordOffsets[index]));
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the first name
+     */
+    public String getFirstName(int index) {
+        return stringAt(varintAt(skipVarints(recordOffsets[index], 1)));
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the last name
+     */
+    public String getLastName(int index) {
+        return stringAt(varintAt(skipVarints(recordOffsets[index], 2)));
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the club, or null
+     */
+    public String getClub(int index) {
+        int id = varintAt(skipVarints(recordOffsets[index], 3));
+        return id == 0 ? null : stringAt(id - 1);
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the gender
+     */
+    public Gender getGender(int index) {
+        return ordinalAt(fixedOffset(index), GENDERS);
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the category, or null
+     */
+    public Category getCategory(int index) {
+        return ordinalAt(fixedOffset(index) + 1, CATEGORIES);
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the status
+     */
+    public CompetitorStatus getStatus(int index) {
+        return ordinalAt(fixedOffset(index) + 2, STATUSES);
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the birth year, or null if unknown
+     */
+    public Year getBirthYear(int index) {
+        int year = varintAt(fixedOffset(index) + 3);
+        return year == 0 ? null : Year.of(year);
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the start time in nanoseconds since the epoch, or 0
+     */
+    public long getStartTime(int index) {
+        return buffer.getLong(timesOffset(index));
+    }
+
+    /**
+     * @param index the position of the competitor in the snapshot
+     * @return the finish time in nanoseconds since the epoch, or 0
+     */
+    public long getFinishTime(int index) {
+        return buffer.getLong(timesOffset(index) + 8);
+    }
+
+    /**
+     * Materializes the competitors of the snapshot, restoring their start numbers, statuses and times.
+     *
+     * @return the competitors, detached from any list
+     */
+    public List<Competitor> toCompetitors() {
+        String[] strings = new String[stringOffsets.length];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = stringAt(i);
+        }
+        List<Competitor> competitors = new ArrayList<>(recordOffsets.length);
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (int recordOffset : recordOffsets) {
+            in.position(recordOffset);
+            int startNumber = unzigzag(readVarint(in));
+            String firstName = strings[readVarint(in)];
+            String lastName = strings[readVarint(in)];
+            int club = readVarint(in);
+            Gender gender = ordinal(in.get(), GENDERS);
+            Category category = ordinal(in.get(), CATEGORIES);
+            CompetitorStatus status = ordinal(in.get(), STATUSES);
+            int birthYear = readVarint(in);
+            long startTime = in.getLong();
+            long finishTime = in.getLong();
+
+            Athlete athlete = new Athlete(firstName, lastName, gender, club == 0 ? null : strings[club - 1],
+                    birthYear == 0 ? null : Year.of(birthYear), category, CompetitorStatus.NOT_STARTED);
+            Competitor competitor = new Competitor(athlete, startNumber);
+            if (startTime != 0) {
+                competitor.start(startTime);
+            }
+            for (int checkpoint = 1, splits = readVarint(in); checkpoint <= splits; checkpoint++) {
+                long split = in.getLong();
+                if (split != 0) {
+                    competitor.recordSplit(checkpoint, split);
+                }
+            }
+            competitor.setFinishTime(finishTime);
+            competitor.setStatus(status);
+            competitors.add(competitor);
+        }
+        return competitors;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private void indexStrings() {
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < stringOffsets.length; i++) {
+            stringOffsets[i] = offset;
+            int length = varintAt(offset);
+            offset = skipVarints(offset, 1) + length;
+        }
+    }
+
+    private void indexRecords(int offset) {
+        for (int i = 0; i < recordOffsets.length; i++) {
+            recordOffsets[i] = offset;
+            int fixed = skipVarints(offset, 4);
+            checkStringId(varintAt(skipVarints(offset, 1)), 0);
+            checkStringId(varintAt(skipVarints(offset, 2)), 0);
+            checkStringId(varintAt(skipVarints(offset, 3)), 1);
+            checkOrdinal(buffer.get(fixed), GENDERS);
+            checkOrdinal(buffer.get(fixed + 1), CATEGORIES);
+            checkOrdinal(buffer.get(fixed + 2), STATUSES);
+            int times = skipVarints(fixed + 3, 1);
+            int splits = varintAt(times + 16);
+            offset = skipVarints(times + 16, 1) + splits * 8;
+        }
+        if (offset > buffer.limit()) {
+            throw new SnapshotException("The competitor snapshot is truncated or corrupt.");
+        }
+    }
+
+    /**
+     * Rejects a string id outside the string table, so that decoding a record never indexes past it.
+     *
+     * @param shift 1 for ids shifted by one so that 0 means none
+     */
+    private void checkStringId(int id, int shift) {
+        if (id < 0 || id - shift >= stringOffsets.length) {
+            throw new SnapshotException("The competitor snapshot refers to unknown string " + id + ".");
+        }
+    }
+
+    private static void checkOrdinal(byte value, Enum<?>[] values) {
+        int ordinal = value & 0xFF;
+        if (ordinal != NONE && ordinal >= values.length) {
+            throw new SnapshotException("The competitor snapshot has an unknown "
+                    + values.getClass().getComponentType().getSimpleName() + " " + ordinal + ".");
+        }
+    }
+
+    /**
+     * @return the offset of the gender byte of a record, which follows the four leading varints
+     */
+    private int fixedOffset(int index) {
+        return skipVarints(recordOffsets[index], 4);
+    }
+
+    /**
+     * @return the offset of the start time of a record
+     */
+    private int timesOffset(int index) {
+        return skipVarints(fixedOffset(index) + 3, 1);
+    }
+
+    private String stringAt(int id) {
+        int offset = stringOffsets[id];
+        int length = varintAt(offset);
+        byte[] bytes = new byte[length];
+        buffer.get(skipVarints(offset, 1), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int varintAt(int offset) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(offset++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private int skipVarints(int offset, int count) {
+        while (count > 0) {
+            if (buffer.get(offset++) >= 0) {
+                count--;
+            }
+        }
+        return offset;
+    }
+
+    private <T> T ordinalAt(int offset, T[] values) {
+        return ordinal(buffer.get(offset), values);
+    }
+
+    private static <T> T ordinal(byte value, T[] values) {
+        int ordinal = value & 0xFF;
+        return ordinal == NONE ? null : values[ordinal];
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int idOf(String value, Map<String, Integer> ids, List<byte[]> strings) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Buffered writer of the snapshot file.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long flushed;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void skip(int bytes) throws IOException {
+            ensure(bytes);
+            buffer.position(buffer.position() + bytes);
+        }
+
+        void varint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void fixed(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void ordinal(Enum<?> value) throws IOException {
+            ensure(1);
+            buffer.put((byte) (value == null ? NONE : value.ordinal()));
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.livetiming.persistence;
+
+/**
+ * Types of the records written to a {@link RaceJournal}.
+ * Each type has a stable code that is stored in the journal file, so codes must never be changed or reused.
+ */
+public enum JournalRecordType {
+    START_NUMBER_ASSIGNED(1),
+    STARTED(2),
+    FINISHED(3),
+    DID_NOT_FINISH(4),
+    RESET(5),
+    SPLIT(6),
+    DISQUALIFIED(7),
+    START_TIME_CORRECTED(8),
+    FINISH_TIME_CORRECTED(9),
+    REINSTATED(10);
+
+    private static final JournalRecordType[] BY_CODE = new JournalRecordType[11];
+
+    static {
+        for (JournalRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    JournalRecordType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the code stored in the journal file
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Retrieves the record type stored under a code.
+     *
+     * @param code the code read from the journal file
+     * @return the record type, or null if the code is unknown
+     */
+    public static JournalRecordType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
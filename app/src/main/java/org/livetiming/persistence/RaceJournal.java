@@ -0,0 +1,403 @@
+package org.livetiming.persistence;
+
+import org.livetiming.exception.JournalException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of race operations, backed by a memory-mapped file.
+ * Every operation is stored as a fixed-size record, so appending is a handful of writes into the mapped region and
+ * does not allocate. Records live in the page cache as soon as they are written, so they survive a crash of the JVM;
+ * {@link #flush()} additionally forces them to the storage device.
+ *
+ * <p>Record layout, 24 bytes: type code (int), start number (int), competitor fingerprint (long), time (long).
+ * The type code is written last, so a record torn by a crash reads as the end of the journal. Its lowest byte holds
+ * the record type; SPLIT records keep the checkpoint in the bytes above. START_NUMBER_ASSIGNED records keep the
+ * previous start number of a renumbered competitor in the time field, and 0 for a first assignment.
+ *
+ * <p>Records are matched to competitors by start number, so the journal can be replayed into a competitor list that was
+ * re-imported after a restart. Renumbered competitors are matched by their previous start number. First start
+ * number assignments, and records of competitors without a start number, are matched by a fingerprint of the athlete
+ * data instead; athletes with identical data are handed their start numbers in turn, so they are not merged into one
+ * competitor.
+ */
+public class RaceJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 24;
+    private static final int RECORDS_PER_REGION = 1 << 16;
+    private static final long REGION_SIZE = (long) RECORD_SIZE * RECORDS_PER_REGION;
+
+    private static final int TYPE_OFFSET = 0;
+    private static final int START_NUMBER_OFFSET = 4;
+    private static final int FINGERPRINT_OFFSET = 8;
+    private static final int TIME_OFFSET = 16;
+
+    private final FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+
+    private RaceJournal(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.position = findEnd();
+        mapRegion(position - position % REGION_SIZE);
+    }
+
+    /**
+     * Opens the journal at the given path, creating it if it does not exist.
+     * New records are appended after the last complete record of an existing journal.
+     *
+     * @param path the path of the journal file
+     * @return the opened journal
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static RaceJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new RaceJournal(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    //====================================================================================================
+    // Appending
+    //====================================================================================================
+    /**
+     * Records that a start number was assigned to a competitor.
+     *
+     * @param competitor the competitor with its new start number
+     */
+    public void startNumberAssigned(Competitor competitor) {
+        append(JournalRecordType.START_NUMBER_ASSIGNED, competitor.getStartNumber(), fingerprint(competitor), 0);
+    }
+
+    /**
+     * Records that a competitor was given another start number.
+     *
+     * @param competitor the competitor with its new start number
+     * @param previous   the previous start number of the competitor
+     */
+    public void startNumberChanged(Competitor competitor, int previous) {
+        append(JournalRecordType.START_NUMBER_ASSIGNED, competitor.getStartNumber(), fingerprint(competitor), previous);
+    }
+
+    /**
+     * Records that a competitor started.
+     *
+     * @param competitor the competitor with its start time
+     */
+    public void started(Competitor competitor) {
+        append(JournalRecordType.STARTED, competitor.getStartNumber(), fingerprint(competitor), competitor.getStartTime());
+    }
+
+    /**
+     * Records that a competitor finished.
+     *
+     * @param competitor the competitor with its finish time
+     */
+    public void finished(Competitor competitor) {
+        append(JournalRecordType.FINISHED, competitor.getStartNumber(), fingerprint(competitor), competitor.getFinishTime());
+    }
+
+    /**
+     * Records that a competitor passed an intermediate checkpoint.
+     *
+     * @param competitor the competitor with its split time
+     * @param checkpoint the checkpoint, starting at 1
+     */
+    public void split(Competitor competitor, int checkpoint) {
+        write(JournalRecordType.SPLIT.getCode() | checkpoint << 8, competitor.getStartNumber(), fingerprint(competitor),
+                competitor.getSplitTime(checkpoint));
+    }
+
+    /**
+     * Records that a competitor did not finish.
+     *
+     * @param competitor the competitor
+     */
+    public void didNotFinish(Competitor competitor) {
+        append(JournalRecordType.DID_NOT_FINISH, competitor.getStartNumber(), fingerprint(competitor), 0);
+    }
+
+    /**
+     * Records that a competitor was disqualified.
+     *
+     * @param competitor the competitor
+     */
+    public void disqualified(Competitor competitor) {
+        append(JournalRecordType.DISQUALIFIED, competitor.getStartNumber(), fingerprint(competitor), 0);
+    }
+
+    /**
+     * Records a corrected start time of a competitor.
+     *
+     * @param competitor the competitor with its corrected start time
+     */
+    public void startTimeCorrected(Competitor competitor) {
+        append(JournalRecordType.START_TIME_CORRECTED, competitor.getStartNumber(), fingerprint(competitor), competitor.getStartTime());
+    }
+
+    /**
+     * Records a corrected finish time of a competitor.
+     *
+     * @param competitor the competitor with its corrected finish time
+     */
+    public void finishTimeCorrected(Competitor competitor) {
+        append(JournalRecordType.FINISH_TIME_CORRECTED, competitor.getStartNumber(), fingerprint(competitor), competitor.getFinishTime());
+    }
+
+    /**
+     * Records that a competitor marked as "did not finish" was put back on course.
+     *
+     * @param competitor the competitor
+     */
+    public void reinstated(Competitor competitor) {
+        append(JournalRecordType.REINSTATED, competitor.getStartNumber(), fingerprint(competitor), 0);
+    }
+
+    /**
+     * Records that the status of all competitors was reset.
+     */
+    public void reset() {
+        append(JournalRecordType.RESET, 0, 0, 0);
+    }
+
+    /**
+     * Appends a record to the journal.
+     *
+     * @param type        the record type
+     * @param startNumber the start number of the competitor, or 0
+     * @param fingerprint the fingerprint of the competitor, or 0
+     * @param time        the time of the operation, or 0
+     */
+    public void append(JournalRecordType type, int startNumber, long fingerprint, long time) {
+        write(type.getCode(), startNumber, fingerprint, time);
+    }
+
+    /**
+     * Writes a record to the journal.
+     *
+     * @param code the type code, including the checkpoint of SPLIT records
+     */
+    private synchronized void write(int code, int startNumber, long fingerprint, long time) {
+        if (position - regionStart == REGION_SIZE) {
+            try {
+                mapRegion(position);
+            } catch (IOException e) {
+                throw new JournalException("Could not extend the race journal.", e);
+            }
+        }
+        int offset = (int) (position - regionStart);
+        region.putInt(offset + START_NUMBER_OFFSET, startNumber);
+        region.putLong(offset + FINGERPRINT_OFFSET, fingerprint);
+        region.putLong(offset + TIME_OFFSET, time);
+        region.putInt(offset + TYPE_OFFSET, code);
+        position += RECORD_SIZE;
+    }
+
+    /**
+     * Forces all appended records to the storage device.
+     */
+    public synchronized void flush() {
+        region.force();
+    }
+
+    /**
+     * @return the number of records in the journal
+     */
+    public synchronized long size() {
+        return position / RECORD_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        region.force();
+        channel.close();
+    }
+
+    //====================================================================================================
+    // Replay
+    //====================================================================================================
+    /**
+     * Replays all records of the journal onto a competitor list, restoring start numbers, statuses and times.
+     * The list must contain the same athletes as when the records were written.
+     *
+     * @param competitors the competitor list to restore
+     * @return the number of replayed records
+     * @throws JournalException if a record refers to an unknown competitor or has an unknown type
+     */
+    public synchronized long replay(CompetitorList competitors) {
+        Replay replay = new Replay(competitors);
+
+        try {
+            long replayed = 0;
+            for (long start = 0; start < position; start += REGION_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, position - start));
+                for (int offset = 0; offset < buffer.limit(); offset += RECORD_SIZE) {
+                    replay.apply(buffer, offset);
+                    replayed++;
+                }
+            }
+            return replayed;
+        } catch (IOException e) {
+            throw new JournalException("Could not read the race journal.", e);
+        }
+    }
+
+    /**
+     * The competitors of a replay, by start number and by fingerprint.
+     */
+    private static final class Replay {
+        private final CompetitorList competitors;
+        private final Map<Integer, Competitor> competitorsByStartNumber = new HashMap<>();
+        private final Map<Long, ArrayDeque<Competitor>> competitorsByFingerprint = new HashMap<>();
+
+        private Replay(CompetitorList competitors) {
+            this.competitors = competitors;
+            for (Competitor competitor : competitors.getAllCompetitors()) {
+                if (competitor.getStartNumber() != 0) {
+                    competitorsByStartNumber.put(competitor.getStartNumber(), competitor);
+                }
+                competitorsByFingerprint.computeIfAbsent(fingerprint(competitor), f -> new ArrayDeque<>()).add(competitor);
+            }
+        }
+
+        /**
+         * Applies a single record to the competitor list.
+         */
+        private void apply(MappedByteBuffer buffer, int offset) {
+            int code = buffer.getInt(offset + TYPE_OFFSET);
+            JournalRecordType type = JournalRecordType.fromCode(code & 0xFF);
+            if (type == null) {
+                throw new JournalException("Unknown journal record type " + code + ".");
+            }
+            if (type == JournalRecordType.RESET) {
+                competitors.resetCompetitorsStatus();
+                return;
+            }
+
+            int startNumber = buffer.getInt(offset + START_NUMBER_OFFSET);
+            long fingerprint = buffer.getLong(offset + FINGERPRINT_OFFSET);
+            Competitor competitor = find(type, startNumber, fingerprint, buffer.getLong(offset + TIME_OFFSET));
+            if (competitor == null) {
+                throw new JournalException("Journal record refers to an unknown competitor with start number "
+                        + startNumber + ".");
+            }
+            switch (type) {
+                case START_NUMBER_ASSIGNED -> {
+                    competitorsByStartNumber.remove(competitor.getStartNumber(), competitor);
+                    competitor.setStartNumber(startNumber);
+                    competitorsByStartNumber.put(startNumber, competitor);
+                }
+                case STARTED -> competitor.start(buffer.getLong(offset + TIME_OFFSET));
+                case FINISHED -> competitor.finish(buffer.getLong(offset + TIME_OFFSET));
+                case SPLIT -> competitor.recordSplit(code >>> 8, buffer.getLong(offset + TIME_OFFSET));
+                case DID_NOT_FINISH -> competitor.setStatus(CompetitorStatus.DID_NOT_FINISH);
+                case DISQUALIFIED -> competitor.setStatus(CompetitorStatus.DISQUALIFIED);
+                case START_TIME_CORRECTED -> competitor.correctTimes(buffer.getLong(offset + TIME_OFFSET), competitor.getFinishTime());
+                case FINISH_TIME_CORRECTED -> competitor.correctTimes(competitor.getStartTime(), buffer.getLong(offset + TIME_OFFSET));
+                case REINSTATED -> competitor.setStatus(CompetitorStatus.ON_COURSE);
+                default -> throw new JournalException("Unexpected journal record type " + type + ".");
+            }
+        }
+
+        /**
+         * Retrieves the competitor a record refers to: a renumbered competitor by its previous start number, a first
+         * start number assignment or a competitor without a start number by its fingerprint, and any other by its
+         * start number.
+         */
+        private Competitor find(JournalRecordType type, int startNumber, long fingerprint, long time) {
+            if (type == JournalRecordType.START_NUMBER_ASSIGNED) {
+                return time != 0 ? competitorsByStartNumber.get((int) time) : byFingerprint(fingerprint, true);
+            }
+            return startNumber == 0 ? byFingerprint(fingerprint, false) : competitorsByStartNumber.get(startNumber);
+        }
+
+        /**
+         * Retrieves a competitor by the fingerprint of its athlete data.
+         *
+         * @param rotate whether to hand the next record with this fingerprint to the next athlete with identical data
+         */
+        private Competitor byFingerprint(long fingerprint, boolean rotate) {
+            ArrayDeque<Competitor> candidates = competitorsByFingerprint.get(fingerprint);
+            if (candidates == null) {
+                return null;
+            }
+            if (!rotate) {
+                return candidates.peekFirst();
+            }
+            Competitor competitor = candidates.pollFirst();
+            candidates.addLast(competitor);
+            return competitor;
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * Maps the region of the file starting at the given position, growing the file if necessary.
+     *
+     * @param start the position of the region, a multiple of the region size
+     */
+    private void mapRegion(long start) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, REGION_SIZE);
+        regionStart = start;
+    }
+
+    /**
+     * Finds the position after the last complete record, i.e. the first record slot with a zero type code.
+     *
+     * @return the position at which the next record is appended
+     */
+    private long findEnd() throws IOException {
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+        for (long start = 0; start < size; start += REGION_SIZE) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+            for (int offset = 0; offset < buffer.limit(); offset += RECORD_SIZE) {
+                if (buffer.getInt(offset + TYPE_OFFSET) == 0) {
+                    return start + offset;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a fingerprint of the athlete data of a competitor.
+     * The fingerprint is stable across JVM runs, unlike identity or string hash codes.
+     *
+     * @param athlete the athlete to fingerprint
+     * @return the fingerprint
+     */
+    static long fingerprint(Athlete athlete) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fingerprint(hash, athlete.getFirstName());
+        hash = fingerprint(hash, athlete.getLastName());
+        hash = fingerprint(hash, athlete.getClub());
+        hash = fingerprint(hash, athlete.getGender() == null ? null : athlete.getGender().name());
+        return athlete.getBirthYear() == null ? hash : (hash ^ athlete.getBirthYear().getValue()) * 0x100000001b3L;
+    }
+
+    private static long fingerprint(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xff) * 0x100000001b3L;
+    }
+}
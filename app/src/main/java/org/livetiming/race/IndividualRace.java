@@ -1,19 +1,35 @@
 package org.livetiming.race;
 
+import org.livetiming.exception.CompetitorNotFoundException;
 import org.livetiming.exception.NoCompetitorsOnCourseException;
 import org.livetiming.manager.Competitor;
 import org.livetiming.manager.CompetitorList;
+import org.livetiming.manager.SeededGroup;
+import org.livetiming.manager.SeedingOrder;
+import org.livetiming.manager.StartSelection;
+import org.livetiming.metrics.MetricsRegistry;
 import org.livetiming.model.CompetitorStatus;
+import org.livetiming.persistence.RaceJournal;
+import org.livetiming.race.RaceMetrics.RaceOperation;
+import org.livetiming.ranking.RankingEngine;
+import org.livetiming.timing.TimeSource;
 
+import java.util.List;
 import java.util.Set;
 
 /**
  * Represents an individual race with a list of competitors.
  * Handles race operations such as starting, finishing, and marking competitors as "did not finish".
+ * Race operations are serialized, so the start gate and the finish cell may call them from different threads.
  */
 public class IndividualRace {
     private final String name;
     private final CompetitorList competitors;
+    private final TimeSource timeSource;
+    private final RaceJournal journal;
+    private final RankingEngine ranking;
+    private volatile int checkpointCount;
+    private RaceMetrics metrics = RaceMetrics.DISABLED;
 
     /**
      * Constructs an IndividualRace with a specified name and a set of competitors.
@@ -23,8 +39,23 @@ public class IndividualRace {
      * @param competitors the set of competitors participating in the race
      */
     public IndividualRace(String name, Set<Competitor> competitors) {
+        this(name, competitors, TimeSource.system());
+    }
+
+    /**
+     * Constructs an IndividualRace with a specified name, a set of competitors and the time source of the race.
+     * Resets the competitors' statuses and assigns start numbers by category.
+     *
+     * @param name        the name of the race
+     * @param competitors the set of competitors participating in the race
+     * @param timeSource  the time source used to stamp starts and finishes
+     */
+    public IndividualRace(String name, Set<Competitor> competitors, TimeSource timeSource) {
         this.name = name;
         this.competitors = new CompetitorList(competitors);
+        this.timeSource = timeSource;
+        this.journal = null;
+        this.ranking = createRanking(this.competitors);
         this.competitors.resetCompetitorsStatus();
         this.competitors.assignStartNumbersByCategory();
     }
@@ -36,45 +67,567 @@ public class IndividualRace {
      * @param competitors the CompetitorList
      */
     public IndividualRace(String name, CompetitorList competitors) {
+        this(name, competitors, TimeSource.system());
+    }
+
+    /**
+     * Constructs an IndividualRace with a specified set of competitors and the time source of the race.
+     *
+     * @param name        the name of the race
+     * @param competitors the CompetitorList
+     * @param timeSource  the time source used to stamp starts and finishes
+     */
+    public IndividualRace(String name, CompetitorList competitors, TimeSource timeSource) {
+        this(name, competitors, timeSource, null);
+    }
+
+    /**
+     * Constructs an IndividualRace that records every race operation in a journal.
+     * To recover a race after a restart, replay the journal onto the re-imported competitors first
+     * (see {@link RaceJournal#replay(CompetitorList)}) and pass both to this constructor.
+     *
+     * @param name        the name of the race
+     * @param competitors the CompetitorList
+     * @param timeSource  the time source used to stamp starts and finishes
+     * @param journal     the journal to append race operations to, or null to not journal them
+     */
+    public IndividualRace(String name, CompetitorList competitors, TimeSource timeSource, RaceJournal journal) {
         this.name = name;
         this.competitors = competitors;
+        this.timeSource = timeSource;
+        this.journal = journal;
+        this.ranking = createRanking(competitors);
     }
 
     /**
-     * Starts the next competitor in the race who has not yet started.
+     * @return the name of the race
      */
-    public void startNext() {
-        competitors.getNextCompetitor().start();
+    public String getName() {
+        return name;
     }
 
-/**
- * Marks the next competitor on course as finished with the specified finish time.
- *
- * @param finishTime the finish time of the competitor
- * @throws NoCompetitorsOnCourseException if no competitors are currently on course
- */
-public void finishNext(long finishTime) {
-    Set<Competitor> competitorsOnCourse = competitors.getCompetitorsOnCourse();
+    /**
+     * @return the competitors of the race
+     */
+    public CompetitorList getCompetitors() {
+        return competitors;
+    }
 
-    if (competitorsOnCourse.isEmpty()) {
-        throw new NoCompetitorsOnCourseException("No competitors are currently on course.");
+    /**
+     * @return the time source the race stamps starts and finishes with when no time is given
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
     }
 
-    Competitor nextCompetitor = competitorsOnCourse.iterator().next();
-    nextCompetitor.finish(finishTime);
-}
+    /**
+     * Retrieves the live leaderboards of the race, updated on every finish.
+     *
+     * @return the ranking engine of the race
+     */
+    public RankingEngine getRanking() {
+        return ranking;
+    }
 
     /**
-     * Marks the next competitor on course as "did not finish".
+     * @return the instrumentation of the race, {@link RaceMetrics#DISABLED} unless metrics were enabled
+     */
+    public synchronized RaceMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts recording the counts and latencies of the race operations, the status transitions of the competitors
+     * and gauges of the field into a registry.
+     *
+     * @param registry the registry to record into
+     * @return the instrumentation of the race
+     */
+    public synchronized RaceMetrics enableMetrics(MetricsRegistry registry) {
+        disableMetrics();
+        metrics = new RaceMetrics(name, competitors, registry);
+        competitors.addListener(metrics);
+        return metrics;
+    }
+
+    /**
+     * Stops recording metrics and removes the gauges of the race from the registry. Counters and latencies already
+     * recorded stay in the registry.
+     */
+    public synchronized void disableMetrics() {
+        competitors.removeListener(metrics);
+        metrics.unregisterGauges();
+        metrics = RaceMetrics.DISABLED;
+    }
+
+    /**
+     * @return the number of intermediate checkpoints of the course
+     */
+    public int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * Sets the number of intermediate checkpoints of the course, numbered from 1 in course order.
+     *
+     * @param checkpointCount the number of checkpoints
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public void setCheckpointCount(int checkpointCount) {
+        if (checkpointCount < 0) {
+            throw new IllegalArgumentException("The number of checkpoints must not be negative.");
+        }
+        this.checkpointCount = checkpointCount;
+    }
+
+    /**
+     * Resets the status, finish time and split times of all competitors of the race.
+     */
+    public synchronized void reset() {
+        competitors.resetCompetitorsStatus();
+        if (journal != null) {
+            journal.reset();
+        }
+    }
+
+    /**
+     * Assigns start numbers to the competitors of the race by category.
+     */
+    public synchronized void assignStartNumbers() {
+        assignStartNumbers(SeedingOrder.alphabetical());
+    }
+
+    /**
+     * Seeds the start list of the race and assigns start numbers from 1, by category, female before male.
+     *
+     * @param order the order within each category and gender, e.g. {@link SeedingOrder#randomDraw(long)}
+     * @return the numbered groups in start order
+     */
+    public synchronized List<SeededGroup> assignStartNumbers(SeedingOrder order) {
+        List<SeededGroup> groups = competitors.assignStartNumbers(order, 1);
+        if (journal != null) {
+            for (SeededGroup group : groups) {
+                for (Competitor competitor : group.competitors()) {
+                    journal.startNumberAssigned(competitor);
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Gives a competitor another start number, e.g. when a bib was handed out twice or swapped at the start.
+     *
+     * @param startNumber    the current start number of the competitor
+     * @param newStartNumber the new start number
+     * @throws CompetitorNotFoundException if no competitor has this start number
+     * @throws IllegalArgumentException    if another competitor already has the new start number
+     */
+    public synchronized void renumber(int startNumber, int newStartNumber) {
+        long begin = metrics.begin();
+        Competitor competitor = competitors.getCompetitorByStartNumber(startNumber);
+        if (competitor == null) {
+            throw rejected(new CompetitorNotFoundException("No competitor has start number " + startNumber + "."));
+        }
+        Competitor holder = competitors.getCompetitorByStartNumber(newStartNumber);
+        if (holder != null && holder != competitor) {
+            throw rejected(new IllegalArgumentException("Start number " + newStartNumber + " is already assigned."));
+        }
+        competitor.setStartNumber(newStartNumber);
+        if (journal != null) {
+            journal.startNumberChanged(competitor, startNumber);
+        }
+        metrics.end(RaceOperation.RENUMBER, begin);
+    }
+
+    /**
+     * Starts the next competitor in the race who has not yet started, stamped with the current time of the race's
+     * time source.
+     *
+     * @throws CompetitorNotFoundException if no competitor is waiting to start
+     */
+    public synchronized void startNext() {
+        startNext(timeSource.now());
+    }
+
+    /**
+     * Starts the next competitor in the race who has not yet started with the specified start time.
+     *
+     * @param startTime the start time of the competitor in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor is waiting to start
+     */
+    public synchronized void startNext(long startTime) {
+        long begin = metrics.begin();
+        Competitor nextCompetitor = competitors.getNextCompetitor();
+        metrics.end(RaceOperation.NEXT_COMPETITOR, begin);
+        if (nextCompetitor == null) {
+            throw rejected(new CompetitorNotFoundException("No competitor is waiting to start."));
+        }
+        nextCompetitor.start(startTime);
+        if (journal != null) {
+            journal.started(nextCompetitor);
+        }
+        metrics.end(RaceOperation.START_NEXT, begin);
+    }
+
+    /**
+     * Starts the competitor with a start number, e.g. when the start gate reports the bib of the starter.
+     *
+     * @param startNumber the start number of the competitor
+     * @param startTime   the start time of the competitor in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor with this start number is waiting to start
+     */
+    public synchronized void start(int startNumber, long startTime) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.NOT_STARTED, "is waiting to start");
+        competitor.start(startTime);
+        if (journal != null) {
+            journal.started(competitor);
+        }
+        metrics.end(RaceOperation.START, begin);
+    }
+
+    /**
+     * Starts all competitors who have not yet started at once, stamped with the current time of the race's time
+     * source.
+     *
+     * @return the number of started competitors
+     */
+    public synchronized int massStart() {
+        return startWave(StartSelection.all(), timeSource.now());
+    }
+
+    /**
+     * Starts all competitors who have not yet started at once with a shared start time.
+     *
+     * @param startTime the start time of the competitors in nanoseconds since the epoch
+     * @return the number of started competitors
+     */
+    public synchronized int massStart(long startTime) {
+        return startWave(StartSelection.all(), startTime);
+    }
+
+    /**
+     * Starts a wave of competitors, e.g. a category or a block of start numbers, stamped with the current time of
+     * the race's time source.
+     *
+     * @param selection the competitors of the wave
+     * @return the number of started competitors
      */
-    public void didNotFinishNext() {
-        Set<Competitor> competitorsOnCourse = competitors.getCompetitorsOnCourse();
+    public synchronized int startWave(StartSelection selection) {
+        return startWave(selection, timeSource.now());
+    }
+
+    /**
+     * Starts a wave of competitors, e.g. a category or a block of start numbers, with a shared start time.
+     * Competitors of the selection who already started are left alone.
+     *
+     * @param selection the competitors of the wave
+     * @param startTime the start time of the competitors in nanoseconds since the epoch
+     * @return the number of started competitors
+     */
+    public synchronized int startWave(StartSelection selection, long startTime) {
+        long begin = metrics.begin();
+        List<Competitor> started = competitors.startAll(selection, startTime);
+        if (journal != null) {
+            for (Competitor competitor : started) {
+                journal.started(competitor);
+            }
+        }
+        metrics.end(RaceOperation.WAVE_START, begin);
+        return started.size();
+    }
+
+    /**
+     * Marks the next competitor on course as finished, stamped with the current time of the race's time source.
+     *
+     * @throws NoCompetitorsOnCourseException if no competitors are currently on course
+     */
+    public synchronized void finishNext() {
+        finishNext(timeSource.now());
+    }
+
+    /**
+     * Marks the next competitor on course as finished with the specified finish time.
+     *
+     * @param finishTime the finish time of the competitor in nanoseconds since the epoch
+     * @throws NoCompetitorsOnCourseException if no competitors are currently on course
+     */
+    public synchronized void finishNext(long finishTime) {
+        long begin = metrics.begin();
+        Competitor nextCompetitor = nextCompetitorOnCourse();
+        nextCompetitor.finish(finishTime);
+        if (journal != null) {
+            journal.finished(nextCompetitor);
+        }
+        metrics.end(RaceOperation.FINISH_NEXT, begin);
+    }
+
+    /**
+     * Marks the competitor with a start number as finished, e.g. when the finish cell reports the bib of the finisher.
+     *
+     * @param startNumber the start number of the competitor
+     * @param finishTime  the finish time of the competitor in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor with this start number is on course
+     */
+    public synchronized void finish(int startNumber, long finishTime) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.ON_COURSE, "is on course");
+        competitor.finish(finishTime);
+        if (journal != null) {
+            journal.finished(competitor);
+        }
+        metrics.end(RaceOperation.FINISH, begin);
+    }
 
-        if (competitorsOnCourse.isEmpty()) {
-            throw new NoCompetitorsOnCourseException("No competitors are currently on course.");
+    /**
+     * Records a split for the competitor on course the longest who has not passed the checkpoint yet.
+     *
+     * @param checkpoint the checkpoint, starting at 1
+     * @param splitTime  the time at which the competitor passed the checkpoint in nanoseconds since the epoch
+     * @throws IllegalArgumentException       if the race has no such checkpoint
+     * @throws NoCompetitorsOnCourseException if every competitor on course already passed the checkpoint
+     */
+    public synchronized void recordSplit(int checkpoint, long splitTime) {
+        long begin = metrics.begin();
+        checkCheckpoint(checkpoint);
+        for (Competitor competitor : competitors.getCompetitorsOnCourse()) {
+            if (competitor.getSplitTime(checkpoint) == 0) {
+                recordSplit(competitor, checkpoint, splitTime);
+                metrics.end(RaceOperation.SPLIT, begin);
+                return;
+            }
         }
+        throw rejected(new NoCompetitorsOnCourseException("No competitor on course has yet to pass checkpoint " + checkpoint + "."));
+    }
 
-        Competitor nextCompetitor = competitorsOnCourse.iterator().next();
+    /**
+     * Records a split for the competitor with a start number.
+     *
+     * @param checkpoint  the checkpoint, starting at 1
+     * @param startNumber the start number of the competitor
+     * @param splitTime   the time at which the competitor passed the checkpoint in nanoseconds since the epoch
+     * @throws IllegalArgumentException    if the race has no such checkpoint
+     * @throws CompetitorNotFoundException if no competitor with this start number is on course
+     */
+    public synchronized void recordSplit(int checkpoint, int startNumber, long splitTime) {
+        long begin = metrics.begin();
+        checkCheckpoint(checkpoint);
+        Competitor competitor = find(startNumber, CompetitorStatus.ON_COURSE, "is on course");
+        recordSplit(competitor, checkpoint, splitTime);
+        metrics.end(RaceOperation.SPLIT, begin);
+    }
+
+    /**
+     * Marks the next competitor on course as "did not finish".
+     *
+     * @throws NoCompetitorsOnCourseException if no competitors are currently on course
+     */
+    public synchronized void didNotFinishNext() {
+        long begin = metrics.begin();
+        Competitor nextCompetitor = nextCompetitorOnCourse();
         nextCompetitor.setStatus(CompetitorStatus.DID_NOT_FINISH);
+        if (journal != null) {
+            journal.didNotFinish(nextCompetitor);
+        }
+        metrics.end(RaceOperation.DID_NOT_FINISH, begin);
+    }
+
+    /**
+     * Marks the competitor with a start number as "did not finish", e.g. when a course marshal reports a retirement.
+     *
+     * @param startNumber the start number of the competitor
+     * @throws CompetitorNotFoundException if no competitor with this start number is on course
+     */
+    public synchronized void didNotFinish(int startNumber) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.ON_COURSE, "is on course");
+        competitor.setStatus(CompetitorStatus.DID_NOT_FINISH);
+        if (journal != null) {
+            journal.didNotFinish(competitor);
+        }
+        metrics.end(RaceOperation.DID_NOT_FINISH, begin);
+    }
+
+    /**
+     * Disqualifies the competitor with a start number. A finished competitor loses its rank.
+     *
+     * @param startNumber the start number of the competitor
+     * @throws CompetitorNotFoundException if no competitor has this start number
+     */
+    public synchronized void disqualify(int startNumber) {
+        long begin = metrics.begin();
+        Competitor competitor = competitors.getCompetitorByStartNumber(startNumber);
+        if (competitor == null) {
+            throw rejected(new CompetitorNotFoundException("No competitor has start number " + startNumber + "."));
+        }
+        competitor.setStatus(CompetitorStatus.DISQUALIFIED);
+        if (journal != null) {
+            journal.disqualified(competitor);
+        }
+        metrics.end(RaceOperation.DISQUALIFY, begin);
+    }
+
+    /**
+     * Corrects the start time of a competitor on course or finished, e.g. when the start gate fired late.
+     * A finished competitor is re-ranked, which only changes the ranks between its old and its new position.
+     *
+     * @param startNumber the start number of the competitor
+     * @param startTime   the corrected start time in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor with this start number is on course or finished
+     */
+    public synchronized void correctStartTime(int startNumber, long startTime) {
+        long begin = metrics.begin();
+        Competitor competitor = competitors.getCompetitorByStartNumber(startNumber);
+        if (competitor == null || (competitor.getStatus() != CompetitorStatus.ON_COURSE && competitor.getStatus() != CompetitorStatus.FINISHED)) {
+            throw rejected(new CompetitorNotFoundException("No competitor with start number " + startNumber + " has started."));
+        }
+        competitor.correctTimes(startTime, competitor.getFinishTime());
+        if (journal != null) {
+            journal.startTimeCorrected(competitor);
+        }
+        metrics.end(RaceOperation.CORRECT_TIME, begin);
+    }
+
+    /**
+     * Corrects the finish time of a finished competitor, e.g. after checking the photo finish.
+     * The competitor is re-ranked, which only changes the ranks between its old and its new position.
+     *
+     * @param startNumber the start number of the competitor
+     * @param finishTime  the corrected finish time in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor with this start number has finished
+     */
+    public synchronized void correctFinishTime(int startNumber, long finishTime) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.FINISHED, "has finished");
+        competitor.correctTimes(competitor.getStartTime(), finishTime);
+        if (journal != null) {
+            journal.finishTimeCorrected(competitor);
+        }
+        metrics.end(RaceOperation.CORRECT_TIME, begin);
+    }
+
+    /**
+     * Swaps the finish times of two finished competitors, e.g. when the finish cell assigned two close finishes to
+     * the wrong start numbers. Both competitors are re-ranked.
+     *
+     * @param startNumber      the start number of one competitor
+     * @param otherStartNumber the start number of the other competitor
+     * @throws CompetitorNotFoundException if either competitor has not finished
+     */
+    public synchronized void swapFinishTimes(int startNumber, int otherStartNumber) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.FINISHED, "has finished");
+        Competitor other = find(otherStartNumber, CompetitorStatus.FINISHED, "has finished");
+        long finishTime = competitor.getFinishTime();
+        competitor.correctTimes(competitor.getStartTime(), other.getFinishTime());
+        other.correctTimes(other.getStartTime(), finishTime);
+        if (journal != null) {
+            journal.finishTimeCorrected(competitor);
+            journal.finishTimeCorrected(other);
+        }
+        metrics.end(RaceOperation.SWAP_FINISH_TIMES, begin);
+    }
+
+    /**
+     * Puts a competitor marked as "did not finish" back on course, e.g. when a retirement was reported for the wrong
+     * start number. The competitor keeps its start time and split times.
+     *
+     * @param startNumber the start number of the competitor
+     * @throws CompetitorNotFoundException if no competitor with this start number is marked as "did not finish"
+     */
+    public synchronized void reinstate(int startNumber) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.DID_NOT_FINISH, "is marked as did not finish");
+        competitor.setStatus(CompetitorStatus.ON_COURSE);
+        if (journal != null) {
+            journal.reinstated(competitor);
+        }
+        metrics.end(RaceOperation.REINSTATE, begin);
+    }
+
+    /**
+     * Reinstates a competitor marked as "did not finish" who did finish, and ranks it with the finish time.
+     *
+     * @param startNumber the start number of the competitor
+     * @param finishTime  the finish time of the competitor in nanoseconds since the epoch
+     * @throws CompetitorNotFoundException if no competitor with this start number is marked as "did not finish"
+     */
+    public synchronized void reinstate(int startNumber, long finishTime) {
+        long begin = metrics.begin();
+        Competitor competitor = find(startNumber, CompetitorStatus.DID_NOT_FINISH, "is marked as did not finish");
+        competitor.finish(finishTime);
+        if (journal != null) {
+            journal.finished(competitor);
+        }
+        metrics.end(RaceOperation.REINSTATE, begin);
+    }
+
+    /**
+     * Creates the ranking engine of the race, ranks the competitors that already finished and registers it on the
+     * competitor list.
+     *
+     * @param competitors the competitors of the race
+     * @return the ranking engine
+     */
+    private static RankingEngine createRanking(CompetitorList competitors) {
+        RankingEngine ranking = new RankingEngine();
+        ranking.rankAll(competitors.getCompetitorsByStatus(CompetitorStatus.FINISHED));
+        competitors.addListener(ranking);
+        return ranking;
+    }
+
+    private void recordSplit(Competitor competitor, int checkpoint, long splitTime) {
+        competitor.recordSplit(checkpoint, splitTime);
+        if (journal != null) {
+            journal.split(competitor, checkpoint);
+        }
+    }
+
+    private void checkCheckpoint(int checkpoint) {
+        if (checkpoint < 1 || checkpoint > checkpointCount) {
+            throw rejected(new IllegalArgumentException("Race " + name + " has no checkpoint " + checkpoint + "."));
+        }
+    }
+
+    /**
+     * Looks up the competitor with a start number in the start number index and checks its status.
+     *
+     * @param startNumber the start number
+     * @param status      the status the competitor must have
+     * @param state       describes the status in the exception message
+     * @return the competitor
+     * @throws CompetitorNotFoundException if no competitor with this start number has the status
+     */
+    private Competitor find(int startNumber, CompetitorStatus status, String state) {
+        Competitor competitor = competitors.getCompetitorByStartNumber(startNumber);
+        if (competitor == null || competitor.getStatus() != status) {
+            throw rejected(new CompetitorNotFoundException("No competitor with start number " + startNumber + " " + state + "."));
+        }
+        return competitor;
+    }
+
+    /**
+     * Retrieves the competitor who started the earliest among those on course.
+     *
+     * @return the next competitor on course
+     * @throws NoCompetitorsOnCourseException if no competitors are currently on course
+     */
+    private Competitor nextCompetitorOnCourse() {
+        Competitor nextCompetitor = competitors.getNextCompetitorOnCourse();
+        if (nextCompetitor == null) {
+            throw rejected(new NoCompetitorsOnCourseException("No competitors are currently on course."));
+        }
+        return nextCompetitor;
+    }
+
+    /**
+     * Counts an operation the race rejects.
+     *
+     * @param exception the exception to throw
+     * @return the exception
+     */
+    private <E extends RuntimeException> E rejected(E exception) {
+        return metrics.rejected(exception);
     }
 }
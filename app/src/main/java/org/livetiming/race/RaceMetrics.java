@@ -0,0 +1,176 @@
+package org.livetiming.race;
+
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.exception.NoCompetitorsOnCourseException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.manager.CompetitorListener;
+import org.livetiming.metrics.LatencyHistogram;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.model.CompetitorStatus;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Instrumentation of a race: counts and latencies per operation, status transitions of the competitors, rejected
+ * operations, and gauges for the competitors on course, still waiting to start, and the hits and misses of the
+ * competitor query cache.
+ * All metrics are looked up in the registry once; recording an operation reads the clock twice, increments a
+ * {@link LongAdder} and records into a histogram. The {@link #DISABLED} instance records nothing and never reads the
+ * clock.
+ */
+public class RaceMetrics implements CompetitorListener {
+    /**
+     * Instrumentation that records nothing.
+     */
+    public static final RaceMetrics DISABLED = new RaceMetrics();
+
+    private static final CompetitorStatus[] STATUSES = CompetitorStatus.values();
+    private static final List<Class<? extends RuntimeException>> REJECTIONS =
+            List.of(NoCompetitorsOnCourseException.class, CompetitorNotFoundException.class, IllegalArgumentException.class);
+    private static final String[] GAUGES = {"livetiming_race_on_course", "livetiming_race_backlog",
+            "livetiming_competitor_query_cache_hits", "livetiming_competitor_query_cache_misses"};
+
+    private final boolean enabled;
+    private final MetricsRegistry registry;
+    private final String race;
+    private final LongAdder[] operations;
+    private final LatencyHistogram[] latencies;
+    private final LongAdder[] transitions;
+    private final LongAdder[] rejections;
+    private final LongSupplier[] gauges;
+
+    private RaceMetrics() {
+        this.enabled = false;
+        this.registry = null;
+        this.race = null;
+        this.operations = null;
+        this.latencies = null;
+        this.transitions = null;
+        this.rejections = null;
+        this.gauges = null;
+    }
+
+    /**
+     * Constructs the instrumentation of a race and registers its gauges.
+     *
+     * @param race        the name of the race
+     * @param competitors the competitors of the race
+     * @param registry    the registry to record into
+     */
+    RaceMetrics(String race, CompetitorList competitors, MetricsRegistry registry) {
+        this.enabled = true;
+        this.registry = registry;
+        this.race = race;
+        this.operations = new LongAdder[RaceOperation.values().length];
+        this.latencies = new LatencyHistogram[RaceOperation.values().length];
+        this.transitions = new LongAdder[STATUSES.length * STATUSES.length];
+        for (RaceOperation operation : RaceOperation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            operations[operation.ordinal()] = registry.counter("livetiming_race_operations_total", "race", race, "operation", name);
+            latencies[operation.ordinal()] = registry.histogram("livetiming_race_operation_latency_nanoseconds", "race", race, "operation", name);
+        }
+        this.rejections = new LongAdder[REJECTIONS.size()];
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = registry.counter("livetiming_race_rejections_total", "race", race,
+                    "exception", REJECTIONS.get(i).getSimpleName());
+        }
+        this.gauges = new LongSupplier[] {
+                () -> competitors.getCompetitorCount(CompetitorStatus.ON_COURSE),
+                () -> competitors.getCompetitorCount(CompetitorStatus.NOT_STARTED),
+                () -> competitors.getQueryCacheStats().hits(),
+                () -> competitors.getQueryCacheStats().misses()
+        };
+        for (int i = 0; i < gauges.length; i++) {
+            registry.gauge(gauges[i], GAUGES[i], "race", race);
+        }
+    }
+
+    //====================================================================================================
+    // Recording
+    //====================================================================================================
+    /**
+     * @return whether this instance records anything
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the beginning of an operation.
+     *
+     * @return the timestamp to pass to {@link #end}, or 0 if disabled
+     */
+    long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Counts a completed operation and records its latency.
+     *
+     * @param operation the operation
+     * @param begin     the timestamp returned by {@link #begin()}
+     */
+    void end(RaceOperation operation, long begin) {
+        if (enabled) {
+            latencies[operation.ordinal()].record(System.nanoTime() - begin);
+            operations[operation.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Counts an operation the race rejected.
+     *
+     * @param exception the exception thrown to the caller
+     * @param <E>       the exception type
+     * @return the exception
+     */
+    <E extends RuntimeException> E rejected(E exception) {
+        if (enabled) {
+            int index = REJECTIONS.indexOf(exception.getClass());
+            LongAdder rejection = index >= 0 ? rejections[index]
+                    : registry.counter("livetiming_race_rejections_total", "race", race, "exception", exception.getClass().getSimpleName());
+            rejection.increment();
+        }
+        return exception;
+    }
+
+    /**
+     * Removes the gauges of the race from the registry, so that the registry no longer holds on to the competitors.
+     * Counters and histograms stay in the registry.
+     */
+    void unregisterGauges() {
+        if (enabled) {
+            for (int i = 0; i < gauges.length; i++) {
+                registry.removeGauge(gauges[i], GAUGES[i], "race", race);
+            }
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        if (!enabled || previous == null || status == null) {
+            return;
+        }
+        int index = previous.ordinal() * STATUSES.length + status.ordinal();
+        LongAdder transition = transitions[index];
+        if (transition == null) {
+            // Created on first use; the registry hands racing threads the same counter
+            transition = registry.counter("livetiming_competitor_transitions_total", "race", race,
+                    "from", previous.name().toLowerCase(Locale.ROOT), "to", status.name().toLowerCase(Locale.ROOT));
+            transitions[index] = transition;
+        }
+        transition.increment();
+    }
+
+    /**
+     * The instrumented operations of a race.
+     */
+    enum RaceOperation {
+        START_NEXT, START, WAVE_START, FINISH_NEXT, FINISH, SPLIT, DID_NOT_FINISH, DISQUALIFY, CORRECT_TIME, SWAP_FINISH_TIMES,
+        REINSTATE, RENUMBER, NEXT_COMPETITOR
+    }
+}
@@ -0,0 +1,42 @@
+package org.livetiming.race;
+
+/**
+ * A start of the schedule of a {@link StartScheduler} at the moment it was read.
+ * Times are nanoseconds since the epoch.
+ *
+ * @param startNumber the start number of the competitor
+ * @param plannedTime the planned start time
+ * @param actualTime  the time the competitor was started, or 0 if not started by the scheduler
+ * @param state       the state of the start
+ */
+public record ScheduledStart(int startNumber, long plannedTime, long actualTime, State state) {
+
+    /**
+     * @return the time between the planned and the actual start, or 0 if the competitor has not been started
+     */
+    public long deviation() {
+        return state == State.STARTED ? actualTime - plannedTime : 0;
+    }
+
+    /**
+     * The state of a scheduled start.
+     */
+    public enum State {
+        /**
+         * The start is still to come.
+         */
+        PLANNED,
+        /**
+         * The scheduler started the competitor.
+         */
+        STARTED,
+        /**
+         * The competitor was taken off the schedule, leaving a gap.
+         */
+        SKIPPED,
+        /**
+         * The race rejected the start, e.g. because the competitor had already been started by hand.
+         */
+        MISSED
+    }
+}
@@ -0,0 +1,50 @@
+package org.livetiming.race;
+
+import java.time.Duration;
+
+/**
+ * Rules for the planned start times of an interval start, e.g. one competitor every 30 seconds.
+ * Times are in nanoseconds.
+ *
+ * @param interval            the time between two starts
+ * @param competitorsPerStart the number of competitors starting together, e.g. 2 for pair starts
+ * @param categoryGap         an additional pause before the first start of each category and gender group
+ */
+public record StartInterval(long interval, int competitorsPerStart, long categoryGap) {
+
+    public StartInterval {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The start interval must be positive.");
+        }
+        if (competitorsPerStart < 1) {
+            throw new IllegalArgumentException("At least one competitor must start at a time.");
+        }
+        if (categoryGap < 0) {
+            throw new IllegalArgumentException("The gap between categories must not be negative.");
+        }
+    }
+
+    /**
+     * @param interval the time between two starts
+     * @return rules starting one competitor at a time without pauses between categories
+     */
+    public static StartInterval every(Duration interval) {
+        return new StartInterval(interval.toNanos(), 1, 0);
+    }
+
+    /**
+     * @param competitorsPerStart the number of competitors starting together
+     * @return these rules with the given number of competitors per start
+     */
+    public StartInterval withCompetitorsPerStart(int competitorsPerStart) {
+        return new StartInterval(interval, competitorsPerStart, categoryGap);
+    }
+
+    /**
+     * @param categoryGap the additional pause before the first start of each category and gender group
+     * @return these rules with the given pause between categories
+     */
+    public StartInterval withCategoryGap(Duration categoryGap) {
+        return new StartInterval(interval, competitorsPerStart, categoryGap.toNanos());
+    }
+}
@@ -0,0 +1,343 @@
+package org.livetiming.race;
+
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.metrics.LatencyHistogram;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.timing.TimeSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts the competitors of an interval-start race at planned times on a dedicated thread.
+ * The planned start times of the whole start list are computed once from the start numbers and the
+ * {@link StartInterval} rules. The timer thread parks until shortly before the next planned start and then spins on
+ * the time source of the race, so starts are triggered within microseconds of the plan. Every start records its
+ * deviation from the plan.
+ *
+ * <p>Changes only touch the affected start: a competitor taken off the schedule leaves a gap, and a late competitor
+ * moves into the next gap, or behind the last start if there is none. Nobody else's start time changes.
+ */
+public class StartScheduler implements AutoCloseable {
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final IndividualRace race;
+    private final TimeSource timeSource;
+    private final StartInterval rules;
+    private final Map<Integer, Entry> entries;
+    private final PriorityQueue<Entry> pending;
+    private final TreeMap<Long, Integer> gaps;
+    private final LatencyHistogram deviation;
+    private final Thread thread;
+    private long lastPlannedTime;
+    private int missed;
+    private volatile boolean running;
+
+    /**
+     * Constructs a StartScheduler and plans the start times of all competitors of the race waiting to start, in order
+     * of their start numbers. Competitors without a start number are not scheduled. The timer thread is started by
+     * {@link #start()}.
+     *
+     * @param race           the race to start the competitors of
+     * @param firstStartTime the planned start time of the first competitor in nanoseconds since the epoch
+     * @param rules          the interval rules
+     */
+    public StartScheduler(IndividualRace race, long firstStartTime, StartInterval rules) {
+        this.race = race;
+        this.timeSource = race.getTimeSource();
+        this.rules = rules;
+        this.entries = new LinkedHashMap<>();
+        this.pending = new PriorityQueue<>(Comparator.comparingLong((Entry entry) -> entry.plannedTime)
+                .thenComparingInt(entry -> entry.startNumber));
+        this.gaps = new TreeMap<>();
+        this.deviation = new LatencyHistogram();
+        this.thread = new Thread(this::run, "start-scheduler-" + race.getName());
+        this.thread.setDaemon(true);
+        plan(firstStartTime);
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Starts the timer thread.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Retrieves the schedule in order of start numbers.
+     *
+     * @return the scheduled starts
+     */
+    public synchronized List<ScheduledStart> getSchedule() {
+        List<ScheduledStart> schedule = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            schedule.add(entry.toScheduledStart());
+        }
+        return schedule;
+    }
+
+    /**
+     * Retrieves the scheduled start of a competitor.
+     *
+     * @param startNumber the start number of the competitor
+     * @return the scheduled start
+     * @throws CompetitorNotFoundException if the competitor is not on the schedule
+     */
+    public synchronized ScheduledStart getScheduledStart(int startNumber) {
+        return entry(startNumber).toScheduledStart();
+    }
+
+    /**
+     * @return the next start still to come, or null if all planned starts are done
+     */
+    public synchronized ScheduledStart getNextStart() {
+        Entry next = pending.peek();
+        return next == null ? null : next.toScheduledStart();
+    }
+
+    /**
+     * @return the histogram of the time between the planned and the actual starts
+     */
+    public LatencyHistogram getDeviation() {
+        return deviation;
+    }
+
+    /**
+     * Takes a competitor off the schedule, e.g. one who does not start. Its start stays empty as a gap that a late
+     * competitor can take.
+     *
+     * @param startNumber the start number of the competitor
+     * @throws CompetitorNotFoundException if the competitor is not on the schedule or no longer planned to start
+     */
+    public synchronized void skip(int startNumber) {
+        Entry entry = planned(startNumber);
+        pending.remove(entry);
+        entry.state = ScheduledStart.State.SKIPPED;
+        addGap(entry.plannedTime);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Moves a late competitor into the first gap after both its planned start and the current time, or behind the
+     * last planned start if there is no gap. The start times of all other competitors stay as planned.
+     *
+     * @param startNumber the start number of the competitor
+     * @return the new planned start time
+     * @throws CompetitorNotFoundException if the competitor is not on the schedule or was already started
+     */
+    public synchronized long late(int startNumber) {
+        Entry entry = entry(startNumber);
+        if (entry.state == ScheduledStart.State.STARTED) {
+            throw new CompetitorNotFoundException("No competitor with start number " + startNumber + " is waiting to start.");
+        }
+        if (entry.state == ScheduledStart.State.PLANNED) {
+            pending.remove(entry);
+            addGap(entry.plannedTime);
+        }
+        Long gap = gaps.higherKey(Math.max(entry.plannedTime, timeSource.now()));
+        if (gap != null) {
+            removeGap(gap);
+            entry.plannedTime = gap;
+        } else {
+            lastPlannedTime = Math.max(lastPlannedTime + rules.interval(), timeSource.now());
+            entry.plannedTime = lastPlannedTime;
+        }
+        entry.state = ScheduledStart.State.PLANNED;
+        pending.add(entry);
+        LockSupport.unpark(thread);
+        return entry.plannedTime;
+    }
+
+    /**
+     * Exposes the start deviation histogram in a registry, together with gauges of the starts still to come and of
+     * the starts the race rejected.
+     *
+     * @param registry the registry
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        String race = this.race.getName();
+        registry.register(deviation, "livetiming_start_deviation_nanoseconds", "race", race);
+        registry.gauge(this::getPendingCount, "livetiming_start_pending", "race", race);
+        registry.gauge(this::getMissedCount, "livetiming_start_missed", "race", race);
+    }
+
+    /**
+     * Stops the timer thread. Starts still to come stay planned. If the calling thread is interrupted while waiting,
+     * its interrupt flag is restored and the timer thread is left to stop on its own.
+     *
+     * @throws IllegalStateException if the timer thread did not stop within a minute
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (thread.isAlive()) {
+            throw new IllegalStateException("The start scheduler of race " + race.getName()
+                    + " did not stop within a minute.");
+        }
+    }
+
+    //====================================================================================================
+    // Package-private methods
+    //====================================================================================================
+    /**
+     * Starts every competitor whose planned start time has come, stamped with the given time. A start the race
+     * rejects or fails is marked as missed; a failure is also reported to the uncaught exception handler of the timer
+     * thread. Either way the remaining starts are triggered.
+     *
+     * @param now the current time in nanoseconds since the epoch
+     * @return the number of started competitors
+     */
+    synchronized int startDue(long now) {
+        int started = 0;
+        while (!pending.isEmpty() && pending.peek().plannedTime <= now) {
+            Entry entry = pending.poll();
+            try {
+                race.start(entry.startNumber, now);
+                entry.state = ScheduledStart.State.STARTED;
+                entry.actualTime = now;
+                deviation.record(now - entry.plannedTime);
+                started++;
+            } catch (CompetitorNotFoundException e) {
+                entry.state = ScheduledStart.State.MISSED;
+                missed++;
+            } catch (RuntimeException e) {
+                entry.state = ScheduledStart.State.MISSED;
+                missed++;
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        return started;
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private void plan(long firstStartTime) {
+        List<Competitor> waiting = new ArrayList<>();
+        for (Competitor competitor : race.getCompetitors().getCompetitorsByStatus(CompetitorStatus.NOT_STARTED)) {
+            if (competitor.getStartNumber() != 0) {
+                waiting.add(competitor);
+            }
+        }
+        waiting.sort(Comparator.comparingInt(Competitor::getStartNumber));
+
+        long time = firstStartTime;
+        int inStart = 0;
+        Competitor previous = null;
+        for (Competitor competitor : waiting) {
+            if (previous != null && !sameGroup(previous, competitor)) {
+                // A new category opens a new start after the pause between categories
+                time += rules.interval() + rules.categoryGap();
+                inStart = 0;
+            } else if (inStart == rules.competitorsPerStart()) {
+                time += rules.interval();
+                inStart = 0;
+            }
+            Entry entry = new Entry(competitor.getStartNumber(), time);
+            entries.put(entry.startNumber, entry);
+            pending.add(entry);
+            inStart++;
+            previous = competitor;
+        }
+        lastPlannedTime = time;
+    }
+
+    private static boolean sameGroup(Competitor a, Competitor b) {
+        return Objects.equals(a.getCategory(), b.getCategory()) && (a.getGender() == Gender.MALE) == (b.getGender() == Gender.MALE);
+    }
+
+    private void run() {
+        while (running) {
+            long next = nextPlannedTime();
+            long remaining = next - timeSource.now();
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(Math.min(remaining - SPIN_NANOS, MAX_PARK_NANOS));
+            } else if (remaining > 0) {
+                Thread.onSpinWait();
+            } else {
+                startDue(timeSource.now());
+            }
+        }
+    }
+
+    private synchronized long nextPlannedTime() {
+        Entry next = pending.peek();
+        return next == null ? Long.MAX_VALUE : next.plannedTime;
+    }
+
+    private synchronized long getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized long getMissedCount() {
+        return missed;
+    }
+
+    private Entry entry(int startNumber) {
+        Entry entry = entries.get(startNumber);
+        if (entry == null) {
+            throw new CompetitorNotFoundException("No competitor with start number " + startNumber + " is on the start schedule.");
+        }
+        return entry;
+    }
+
+    private Entry planned(int startNumber) {
+        Entry entry = entry(startNumber);
+        if (entry.state != ScheduledStart.State.PLANNED) {
+            throw new CompetitorNotFoundException("No competitor with start number " + startNumber + " is planned to start.");
+        }
+        return entry;
+    }
+
+    private void addGap(long time) {
+        gaps.merge(time, 1, Integer::sum);
+    }
+
+    private void removeGap(long time) {
+        gaps.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * A start of the schedule; guarded by the scheduler.
+     */
+    private static final class Entry {
+        private final int startNumber;
+        private long plannedTime;
+        private long actualTime;
+        private ScheduledStart.State state;
+
+        Entry(int startNumber, long plannedTime) {
+            this.startNumber = startNumber;
+            this.plannedTime = plannedTime;
+            this.state = ScheduledStart.State.PLANNED;
+        }
+
+        ScheduledStart toScheduledStart() {
+            return new ScheduledStart(startNumber, plannedTime, actualTime, state);
+        }
+    }
+}
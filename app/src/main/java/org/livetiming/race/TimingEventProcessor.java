@@ -0,0 +1,180 @@
+package org.livetiming.race;
+
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.exception.NoCompetitorsOnCourseException;
+import org.livetiming.metrics.LatencyHistogram;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.timing.TimingChannel;
+import org.livetiming.timing.TimingEventRing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies the impulses of the timing hardware to a race on a dedicated thread.
+ * The hardware driver publishes impulses into a {@link TimingEventRing}, which never blocks and never allocates, so
+ * a burst of finishes is captured at full speed even while the race state is being updated. The consumer thread
+ * drains the ring in batches, applies each impulse to the race and records the time from capture to applied state.
+ *
+ * <p>START impulses start the competitor with the reported start number, or the next competitor if none was reported;
+ * FINISH impulses finish the reported competitor, or the competitor on course the longest. Impulses the race rejects,
+ * e.g. a finish while nobody is on course, are counted and skipped. Any other exception is a bug: it is counted as a
+ * failure and reported to the uncaught exception handler of the consumer thread, which keeps running.
+ */
+public class TimingEventProcessor implements AutoCloseable {
+    private static final int BATCH_SIZE = 256;
+    private static final int SPINS_BEFORE_PARKING = 1_000;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final IndividualRace race;
+    private final TimingEventRing ring;
+    private final LatencyHistogram latency;
+    private final AtomicLong applied;
+    private final AtomicLong rejected;
+    private final AtomicLong failed;
+    private final Thread thread;
+    private final TimingEventRing.Handler handler;
+    private volatile boolean running;
+
+    /**
+     * Constructs a TimingEventProcessor. The consumer thread is started by {@link #start()}.
+     *
+     * @param race     the race to apply the impulses to
+     * @param capacity the number of impulses the ring can buffer
+     */
+    public TimingEventProcessor(IndividualRace race, int capacity) {
+        this.race = race;
+        this.ring = new TimingEventRing(capacity);
+        this.latency = new LatencyHistogram();
+        this.applied = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.handler = this::apply;
+        this.thread = new Thread(this::run, "timing-" + race.getName());
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the consumer thread.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Retrieves the ring the timing hardware publishes its impulses to. Only one thread may publish.
+     *
+     * @return the ring buffer of the processor
+     */
+    public TimingEventRing getRing() {
+        return ring;
+    }
+
+    /**
+     * @return the histogram of the time from capturing an impulse to having applied it to the race
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the number of impulses applied to the race
+     */
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    /**
+     * @return the number of impulses the race rejected
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of impulses that failed with an unexpected exception
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Exposes the latency histogram and the counts of the processor in a registry, together with a gauge of the
+     * impulses waiting in the ring.
+     *
+     * @param registry the registry
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        String race = this.race.getName();
+        registry.register(latency, "livetiming_timing_latency_nanoseconds", "race", race);
+        registry.gauge(ring::size, "livetiming_timing_backlog", "race", race);
+        registry.gauge(ring::getDroppedCount, "livetiming_timing_dropped", "race", race);
+        registry.gauge(applied::get, "livetiming_timing_applied", "race", race);
+        registry.gauge(rejected::get, "livetiming_timing_rejected", "race", race);
+        registry.gauge(failed::get, "livetiming_timing_failed", "race", race);
+    }
+
+    /**
+     * Stops the consumer thread after it applied the impulses already in the ring. If the calling thread is
+     * interrupted while waiting, its interrupt flag is restored and the consumer is left to finish on its own.
+     *
+     * @throws IllegalStateException if the consumer thread did not stop within a minute
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (thread.isAlive()) {
+            throw new IllegalStateException("The timing consumer of race " + race.getName()
+                    + " did not stop within a minute.");
+        }
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    private void run() {
+        int idle = 0;
+        while (running || ring.size() > 0) {
+            if (ring.drain(handler, BATCH_SIZE) > 0) {
+                idle = 0;
+            } else if (++idle < SPINS_BEFORE_PARKING) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private void apply(TimingChannel channel, long timestamp, int startNumber, long capturedAt) {
+        try {
+            if (channel == TimingChannel.START) {
+                if (startNumber == 0) {
+                    race.startNext(timestamp);
+                } else {
+                    race.start(startNumber, timestamp);
+                }
+            } else if (startNumber == 0) {
+                race.finishNext(timestamp);
+            } else {
+                race.finish(startNumber, timestamp);
+            }
+            applied.incrementAndGet();
+        } catch (CompetitorNotFoundException | NoCompetitorsOnCourseException e) {
+            rejected.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+        latency.record(System.nanoTime() - capturedAt);
+    }
+}
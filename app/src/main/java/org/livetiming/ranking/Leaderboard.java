@@ -0,0 +1,459 @@
+package org.livetiming.ranking;
+
+import org.livetiming.manager.Competitor;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * An ordered leaderboard of finished competitors, ranked by net time.
+ * The entries are kept in an order-statistic treap (a randomized balanced search tree whose nodes know the size of
+ * their subtree), so adding or removing a result, looking up the rank of a competitor or the result at a rank are
+ * O(log n), and the top N are read in order without sorting the field.
+ *
+ * <p>Competitors with the same net time share a rank and are listed by start number. A leaderboard can also rank by
+ * another time of the competitors, e.g. the time to an intermediate checkpoint.
+ */
+public class Leaderboard {
+    private final ToLongFunction<Competitor> time;
+    private final Map<Competitor, Node> nodes;
+    private final Map<Integer, Node> nodesByStartNumber;
+    private Node root;
+    private long sequence;
+    private long seed;
+
+    /**
+     * Constructs an empty Leaderboard ranking by net time.
+     */
+    public Leaderboard() {
+        this(Leaderboard::netTime);
+    }
+
+    /**
+     * Constructs an empty Leaderboard ranking by the given time of the competitors.
+     *
+     * @param time computes the time a competitor is ranked by, read once when the competitor is added
+     */
+    public Leaderboard(ToLongFunction<Competitor> time) {
+        this.time = time;
+        this.nodes = new IdentityHashMap<>();
+        this.nodesByStartNumber = new HashMap<>();
+        this.seed = 0x9E3779B97F4A7C15L;
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Adds the result of a finished competitor, replacing a previous result of the same competitor.
+     *
+     * @param competitor the finished competitor
+     * @return the ranked result of the competitor right after adding it
+     */
+    public synchronized RankedResult add(Competitor competitor) {
+        remove(competitor);
+
+        Node node = new Node(competitor, time.applyAsLong(competitor), competitor.getStartNumber(), sequence++, nextPriority());
+        Node[] parts = split(root, node, false);
+        Node previous = last(parts[0]);
+        int position = size(parts[0]);
+        root = merge(merge(parts[0], node), parts[1]);
+        nodes.put(competitor, node);
+        if (node.startNumber != 0) {
+            nodesByStartNumber.put(node.startNumber, node);
+        }
+        return result(node, position, previous);
+    }
+
+    /**
+     * Re-ranks a competitor whose time changed, e.g. after a timing correction, and reports which results moved.
+     * Only the results between the old and the new position of the competitor are read, so this takes
+     * O(log n + k) for k moved results rather than time proportional to the field.
+     *
+     * @param competitor the competitor to re-rank; an unranked competitor is added as if it was ranked last
+     * @return the change of the leaderboard
+     */
+    public synchronized RankChange rerank(Competitor competitor) {
+        Node old = nodes.get(competitor);
+        int oldPosition = old == null ? size(root) : countBefore(old);
+        int previousRank = old == null ? 0 : countFasterThan(old.netTime) + 1;
+        RankedResult result = add(competitor);
+        Node node = nodes.get(competitor);
+        int position = countBefore(node);
+
+        // Moving up pushes the results in between back by one, moving down pulls them forward
+        List<RankedResult> shifted = position < oldPosition
+                ? range(position + 1, oldPosition + 1)
+                : range(oldPosition, position);
+        // Results behind both positions keep their place, but their rank changes if they tied with either time
+        int next = Math.max(oldPosition + 1, position + 1);
+        while (next < size(root)) {
+            Node behind = select(next);
+            if (behind.netTime != node.netTime && (old == null || behind.netTime != old.netTime)) {
+                break;
+            }
+            shifted.add(result(behind, next, select(next - 1)));
+            next++;
+        }
+        return new RankChange(competitor, previousRank, result, shifted);
+    }
+
+    /**
+     * Removes the result of a competitor.
+     *
+     * @param competitor the competitor to remove
+     * @return true if the competitor was on the leaderboard
+     */
+    public synchronized boolean remove(Competitor competitor) {
+        Node node = nodes.remove(competitor);
+        if (node == null) {
+            return false;
+        }
+        if (nodesByStartNumber.get(node.startNumber) == node) {
+            nodesByStartNumber.remove(node.startNumber);
+        }
+        Node[] lower = split(root, node, false);
+        Node[] upper = split(lower[1], node, true);
+        root = merge(lower[0], upper[1]);
+        return true;
+    }
+
+    /**
+     * Checks whether a competitor is on the leaderboard under another start number than its current one, i.e. it was
+     * renumbered after it was added and has to be added again to be found by its new start number.
+     *
+     * @param competitor the competitor
+     * @return true if the competitor is on the leaderboard under a previous start number
+     */
+    public synchronized boolean isRenumbered(Competitor competitor) {
+        Node node = nodes.get(competitor);
+        return node != null && node.startNumber != competitor.getStartNumber();
+    }
+
+    /**
+     * Retrieves the rank of a competitor. Competitors with equal net times share a rank.
+     *
+     * @param competitor the competitor
+     * @return the rank starting at 1, or 0 if the competitor is not on the leaderboard
+     */
+    public synchronized int getRank(Competitor competitor) {
+        Node node = nodes.get(competitor);
+        return node == null ? 0 : countFasterThan(node.netTime) + 1;
+    }
+
+    /**
+     * Retrieves the rank of the competitor with a start number.
+     *
+     * @param startNumber the start number
+     * @return the rank starting at 1, or 0 if no competitor with this start number is on the leaderboard
+     */
+    public synchronized int getRankOfStartNumber(int startNumber) {
+        Node node = nodesByStartNumber.get(startNumber);
+        return node == null ? 0 : countFasterThan(node.netTime) + 1;
+    }
+
+    /**
+     * Retrieves the ranked result of a competitor.
+     *
+     * @param competitor the competitor
+     * @return the ranked result, or null if the competitor is not on the leaderboard
+     */
+    public synchronized RankedResult getResult(Competitor competitor) {
+        Node node = nodes.get(competitor);
+        if (node == null) {
+            return null;
+        }
+        int position = countBefore(node);
+        return result(node, position, position == 0 ? null : select(position - 1));
+    }
+
+    /**
+     * Retrieves the result at a position of the leaderboard.
+     *
+     * @param position the position starting at 1
+     * @return the ranked result, or null if the position is out of range
+     */
+    public synchronized RankedResult getResultAt(int position) {
+        if (position < 1 || position > size(root)) {
+            return null;
+        }
+        Node node = select(position - 1);
+        return result(node, position - 1, position == 1 ? null : select(position - 2));
+    }
+
+    /**
+     * Retrieves the first results of the leaderboard, in order.
+     *
+     * @param count the maximum number of results
+     * @return the top results
+     */
+    public synchronized List<RankedResult> getTop(int count) {
+        List<RankedResult> results = new ArrayList<>(Math.min(count, size(root)));
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        Node leader = first(root);
+        RankedResult previous = null;
+        while ((node != null || !path.isEmpty()) && results.size() < count) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            int rank = previous != null && previous.netTime() == node.netTime ? previous.rank() : results.size() + 1;
+            previous = new RankedResult(node.competitor, rank, node.netTime, node.netTime - leader.netTime,
+                    previous == null ? 0 : node.netTime - previous.netTime());
+            results.add(previous);
+            node = node.right;
+        }
+        return results;
+    }
+
+    /**
+     * @return the competitor with the best net time, or null if the leaderboard is empty
+     */
+    public synchronized Competitor getLeader() {
+        Node leader = first(root);
+        return leader == null ? null : leader.competitor;
+    }
+
+    /**
+     * @return the number of results on the leaderboard
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    //====================================================================================================
+    // Private methods
+    //====================================================================================================
+    /**
+     * @return the net time of a competitor
+     */
+    static long netTime(Competitor competitor) {
+        return competitor.getFinishTime() - competitor.getStartTime();
+    }
+
+    /**
+     * Builds the ranked result of a node from its position and the node in front of it.
+     */
+    private RankedResult result(Node node, int position, Node previous) {
+        Node leader = position == 0 ? node : first(root);
+        int rank = previous != null && previous.netTime == node.netTime ? countFasterThan(node.netTime) + 1 : position + 1;
+        return new RankedResult(node.competitor, rank, node.netTime, node.netTime - leader.netTime,
+                previous == null ? 0 : node.netTime - previous.netTime);
+    }
+
+    /**
+     * Reads the results at the zero-based positions from inclusive to exclusive, walking the treap in order from the
+     * first of them.
+     */
+    private List<RankedResult> range(int from, int to) {
+        List<RankedResult> results = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) {
+            return results;
+        }
+        // The path to the first position holds every node that follows it in order, up to the right spines
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        int position = from;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                path.push(node);
+                node = node.left;
+            } else if (position == leftSize) {
+                path.push(node);
+                break;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        Node leader = first(root);
+        RankedResult previous = null;
+        Node previousNode = from == 0 ? null : select(from - 1);
+        for (int i = from; i < to; i++) {
+            node = path.pop();
+            for (Node next = node.right; next != null; next = next.left) {
+                path.push(next);
+            }
+            if (previous == null) {
+                previous = result(node, i, previousNode);
+            } else {
+                int rank = previous.netTime() == node.netTime ? previous.rank() : i + 1;
+                previous = new RankedResult(node.competitor, rank, node.netTime, node.netTime - leader.netTime,
+                        node.netTime - previous.netTime());
+            }
+            results.add(previous);
+        }
+        return results;
+    }
+
+    /**
+     * Counts the results with a strictly better net time.
+     */
+    private int countFasterThan(long netTime) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.netTime < netTime) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the nodes ordered before a node.
+     */
+    private int countBefore(Node target) {
+        int count = 0;
+        Node node = root;
+        while (node != target) {
+            if (node.compareTo(target) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count + size(target.left);
+    }
+
+    /**
+     * Retrieves the node at a zero-based position.
+     */
+    private Node select(int position) {
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return node;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Splits a treap into the nodes ordered before the key and the others.
+     * If inclusive is set, a node equal to the key goes to the first part.
+     */
+    private static Node[] split(Node node, Node key, boolean inclusive) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        int comparison = node.compareTo(key);
+        if (comparison < 0 || (inclusive && comparison == 0)) {
+            Node[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Merges two treaps where all nodes of the first are ordered before the nodes of the second.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node first(Node node) {
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Node last(Node node) {
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * @return the next random node priority (xorshift)
+     */
+    private long nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return seed;
+    }
+
+    /**
+     * A treap node holding the result of one competitor.
+     */
+    private static final class Node implements Comparable<Node> {
+        private final Competitor competitor;
+        private final long netTime;
+        private final int startNumber;
+        private final long sequence;
+        private final long priority;
+        private Node left;
+        private Node right;
+        private int size;
+
+        private Node(Competitor competitor, long netTime, int startNumber, long sequence, long priority) {
+            this.competitor = competitor;
+            this.netTime = netTime;
+            this.startNumber = startNumber;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.size = 1;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int result = Long.compare(netTime, other.netTime);
+            if (result == 0) {
+                result = Integer.compare(startNumber, other.startNumber);
+            }
+            if (result == 0) {
+                result = Long.compare(sequence, other.sequence);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.livetiming.ranking;
+
+import org.livetiming.manager.Competitor;
+
+import java.util.List;
+
+/**
+ * The change of a leaderboard after the result of one competitor moved, e.g. after a timing correction.
+ * Only the results between the old and the new position of the competitor shift, so the change lists just these,
+ * plus the results that now tie or no longer tie with the competitor.
+ *
+ * @param competitor   the competitor whose result moved
+ * @param previousRank the rank before the change, or 0 if the competitor was not ranked
+ * @param result       the result of the competitor after the change
+ * @param shifted      the results of the other competitors whose position or rank changed, in leaderboard order
+ */
+public record RankChange(Competitor competitor, int previousRank, RankedResult result, List<RankedResult> shifted) {
+}
@@ -0,0 +1,16 @@
+package org.livetiming.ranking;
+
+import org.livetiming.manager.Competitor;
+
+/**
+ * The result of a competitor on a leaderboard at the moment it was computed.
+ * Times and gaps are in nanoseconds.
+ *
+ * @param competitor    the competitor
+ * @param rank          the rank starting at 1, shared by competitors with equal net times
+ * @param netTime       the time between start and finish
+ * @param gapToLeader   the difference to the net time of the leader
+ * @param gapToPrevious the difference to the net time of the competitor ranked just before, 0 for the leader
+ */
+public record RankedResult(Competitor competitor, int rank, long netTime, long gapToLeader, long gapToPrevious) {
+}
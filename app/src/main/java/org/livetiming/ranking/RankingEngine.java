@@ -0,0 +1,296 @@
+package org.livetiming.ranking;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorListener;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps live leaderboards for a race: one overall and one per category and gender, plus one per intermediate
+ * checkpoint ranked by the time from start to checkpoint.
+ * Registered as listener on a CompetitorList, it ranks competitors as soon as they finish or pass a checkpoint and
+ * removes them again when they leave the FINISHED status, drop out of the race or are removed from the list, so
+ * results never have to be sorted by the clients. A correction of the times of a finished competitor moves its
+ * result and reports only the results it passed; a change of its category or gender moves it to the leaderboard of
+ * its new group.
+ */
+public class RankingEngine implements CompetitorListener {
+    private final Leaderboard overall;
+    private final Map<Category, Map<Gender, Leaderboard>> leaderboards;
+    private final List<RankingListener> listeners;
+    private volatile Leaderboard[] splitLeaderboards;
+
+    /**
+     * Constructs a RankingEngine with empty leaderboards.
+     */
+    public RankingEngine() {
+        this.overall = new Leaderboard();
+        this.leaderboards = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            Map<Gender, Leaderboard> byGender = new EnumMap<>(Gender.class);
+            for (Gender gender : Gender.values()) {
+                byGender.put(gender, new Leaderboard());
+            }
+            leaderboards.put(category, byGender);
+        }
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.splitLeaderboards = new Leaderboard[0];
+    }
+
+    //====================================================================================================
+    // Public methods
+    //====================================================================================================
+    /**
+     * Registers a listener that is notified whenever a result enters or leaves the leaderboards.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(RankingListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(RankingListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return the leaderboard over all competitors
+     */
+    public Leaderboard getOverall() {
+        return overall;
+    }
+
+    /**
+     * Retrieves the leaderboard of a category and gender.
+     * Competitors without category or gender are ranked under UNKNOWN.
+     *
+     * @param category the category
+     * @param gender   the gender
+     * @return the leaderboard
+     */
+    public Leaderboard getLeaderboard(Category category, Gender gender) {
+        return leaderboards.get(category == null ? Category.UNKNOWN : category).get(gender == null ? Gender.UNKNOWN : gender);
+    }
+
+    /**
+     * Retrieves the leaderboard of an intermediate checkpoint, ranked by the time from start to checkpoint.
+     *
+     * @param checkpoint the checkpoint, starting at 1
+     * @return the leaderboard
+     * @throws IllegalArgumentException if the checkpoint is lower than 1
+     */
+    public Leaderboard getSplitLeaderboard(int checkpoint) {
+        if (checkpoint < 1) {
+            throw new IllegalArgumentException("Checkpoints start at 1, got " + checkpoint + ".");
+        }
+        Leaderboard[] boards = splitLeaderboards;
+        return checkpoint <= boards.length ? boards[checkpoint - 1] : createSplitLeaderboards(checkpoint);
+    }
+
+    /**
+     * Ranks a competitor at an intermediate checkpoint, or re-ranks it if it was already ranked there.
+     *
+     * @param competitor the competitor that passed the checkpoint
+     * @param checkpoint the checkpoint, starting at 1
+     */
+    public void rankSplit(Competitor competitor, int checkpoint) {
+        RankedResult result = getSplitLeaderboard(checkpoint).add(competitor);
+        for (RankingListener listener : listeners) {
+            listener.onSplitRanked(checkpoint, result);
+        }
+    }
+
+    /**
+     * Re-ranks a competitor at the checkpoints it passed and removes it from the other checkpoint leaderboards, e.g.
+     * after its start time was corrected, which moves its split times, or it was started again, which clears them.
+     *
+     * @param competitor the competitor
+     */
+    public void rerankSplits(Competitor competitor) {
+        Leaderboard[] boards = splitLeaderboards;
+        for (int checkpoint = 1; checkpoint <= boards.length; checkpoint++) {
+            if (competitor.getSplitTime(checkpoint) != 0) {
+                rankSplit(competitor, checkpoint);
+            } else {
+                boards[checkpoint - 1].remove(competitor);
+            }
+        }
+    }
+
+    /**
+     * Ranks a finished competitor, or re-ranks it if it was already ranked.
+     *
+     * @param competitor the finished competitor
+     */
+    public void rank(Competitor competitor) {
+        RankedResult overallResult = overall.add(competitor);
+        RankedResult categoryResult = getLeaderboard(competitor.getCategory(), competitor.getGender()).add(competitor);
+        for (RankingListener listener : listeners) {
+            listener.onRanked(overallResult, categoryResult);
+        }
+    }
+
+    /**
+     * Re-ranks a finished competitor whose times were corrected. The listeners are told which results moved, so they
+     * only have to update the ranks between the old and the new position of the competitor.
+     *
+     * @param competitor the finished competitor
+     */
+    public void rerank(Competitor competitor) {
+        RankChange overallChange = overall.rerank(competitor);
+        RankChange categoryChange = getLeaderboard(competitor.getCategory(), competitor.getGender()).rerank(competitor);
+        for (RankingListener listener : listeners) {
+            listener.onRankChanged(overallChange, categoryChange);
+        }
+    }
+
+    /**
+     * Ranks all given finished competitors, e.g. after a race was recovered.
+     *
+     * @param competitors the finished competitors
+     */
+    public void rankAll(Collection<Competitor> competitors) {
+        for (Competitor competitor : competitors) {
+            rank(competitor);
+        }
+    }
+
+    /**
+     * Removes a competitor from the leaderboards.
+     *
+     * @param competitor the competitor to remove
+     */
+    public void unrank(Competitor competitor) {
+        boolean removed = overall.remove(competitor);
+        removed |= getLeaderboard(competitor.getCategory(), competitor.getGender()).remove(competitor);
+        if (removed) {
+            for (RankingListener listener : listeners) {
+                listener.onUnranked(competitor);
+            }
+        }
+    }
+
+    @Override
+    public void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        if (status == CompetitorStatus.FINISHED) {
+            rank(competitor);
+        } else if (previous == CompetitorStatus.FINISHED) {
+            unrank(competitor);
+        }
+        // Split ranks are kept while racing and after finishing; a new start or dropping out removes them
+        if (status != CompetitorStatus.FINISHED && (status != CompetitorStatus.ON_COURSE || previous == CompetitorStatus.NOT_STARTED)) {
+            for (Leaderboard board : splitLeaderboards) {
+                board.remove(competitor);
+            }
+        }
+    }
+
+    @Override
+    public void onCompetitorChanged(Competitor competitor) {
+        // A renumbered competitor is ranked again under its new start number, which also orders it among the
+        // competitors it ties with
+        Leaderboard[] boards = splitLeaderboards;
+        for (int checkpoint = 1; checkpoint <= boards.length; checkpoint++) {
+            if (boards[checkpoint - 1].isRenumbered(competitor)) {
+                rankSplit(competitor, checkpoint);
+            }
+        }
+        // A finished competitor whose category or gender changed moves to the leaderboard of its new group
+        if (competitor.getStatus() == CompetitorStatus.FINISHED
+                && (leaveFormerLeaderboard(competitor) || overall.isRenumbered(competitor))) {
+            rank(competitor);
+        }
+    }
+
+    @Override
+    public void onTimesChanged(Competitor competitor) {
+        rerankSplits(competitor);
+        // Corrected times of a finished competitor move its result
+        if (competitor.getStatus() == CompetitorStatus.FINISHED) {
+            leaveFormerLeaderboard(competitor);
+            rerank(competitor);
+        }
+    }
+
+    @Override
+    public void onSplitRecorded(Competitor competitor, int checkpoint) {
+        rankSplit(competitor, checkpoint);
+    }
+
+    @Override
+    public void onCompetitorAdded(Competitor competitor) {
+        // A competitor added with results, e.g. a late entry keyed in after the race, is ranked right away
+        CompetitorStatus status = competitor.getStatus();
+        if (status == CompetitorStatus.FINISHED) {
+            rank(competitor);
+        }
+        if (status == CompetitorStatus.FINISHED || status == CompetitorStatus.ON_COURSE) {
+            long[] splits = competitor.getSplitTimes();
+            for (int checkpoint = 1; checkpoint <= splits.length; checkpoint++) {
+                if (splits[checkpoint - 1] != 0) {
+                    rankSplit(competitor, checkpoint);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onCompetitorRemoved(Competitor competitor) {
+        unrank(competitor);
+        for (Leaderboard board : splitLeaderboards) {
+            board.remove(competitor);
+        }
+    }
+
+    /**
+     * Removes a ranked competitor from the category leaderboard it was ranked on, if that is no longer the one of its
+     * category and gender.
+     *
+     * @return true if the competitor is not on the leaderboard of its category and gender
+     */
+    private boolean leaveFormerLeaderboard(Competitor competitor) {
+        Leaderboard current = getLeaderboard(competitor.getCategory(), competitor.getGender());
+        if (current.getRank(competitor) != 0) {
+            return false;
+        }
+        for (Map<Gender, Leaderboard> byGender : leaderboards.values()) {
+            for (Leaderboard board : byGender.values()) {
+                if (board != current && board.remove(competitor)) {
+                    return true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grows the checkpoint leaderboards up to the given checkpoint.
+     *
+     * @return the leaderboard of the checkpoint
+     */
+    private synchronized Leaderboard createSplitLeaderboards(int checkpoint) {
+        Leaderboard[] boards = splitLeaderboards;
+        if (checkpoint > boards.length) {
+            boards = Arrays.copyOf(boards, checkpoint);
+            for (int i = splitLeaderboards.length; i < checkpoint; i++) {
+                int index = i + 1;
+                boards[i] = new Leaderboard(competitor -> competitor.getSplitTime(index) - competitor.getStartTime());
+            }
+            splitLeaderboards = boards;
+        }
+        return boards[checkpoint - 1];
+    }
+}
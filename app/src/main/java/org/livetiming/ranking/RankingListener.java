@@ -0,0 +1,46 @@
+package org.livetiming.ranking;
+
+import org.livetiming.manager.Competitor;
+
+/**
+ * Listener notified by a {@link RankingEngine} when results enter or leave the leaderboards.
+ */
+public interface RankingListener {
+
+    /**
+     * Called after a finished competitor was ranked.
+     *
+     * @param overall  the result on the overall leaderboard
+     * @param category the result on the leaderboard of the competitor's category and gender
+     */
+    void onRanked(RankedResult overall, RankedResult category);
+
+    /**
+     * Called instead of {@link #onRanked} after the result of a ranked competitor moved, e.g. after its times were
+     * corrected. Only the results between the old and the new position of the competitor changed rank. By default,
+     * the new results of the competitor are passed on to {@link #onRanked}.
+     *
+     * @param overall  the change of the overall leaderboard
+     * @param category the change of the leaderboard of the competitor's category and gender
+     */
+    default void onRankChanged(RankChange overall, RankChange category) {
+        onRanked(overall.result(), category.result());
+    }
+
+    /**
+     * Called after the result of a competitor was removed from the leaderboards.
+     *
+     * @param competitor the competitor
+     */
+    default void onUnranked(Competitor competitor) {
+    }
+
+    /**
+     * Called after a competitor was ranked at an intermediate checkpoint.
+     *
+     * @param checkpoint the checkpoint, starting at 1
+     * @param result     the result on the leaderboard of the checkpoint
+     */
+    default void onSplitRanked(int checkpoint, RankedResult result) {
+    }
+}
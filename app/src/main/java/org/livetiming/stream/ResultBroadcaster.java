@@ -0,0 +1,242 @@
+package org.livetiming.stream;
+
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorListener;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.ranking.RankChange;
+import org.livetiming.ranking.RankedResult;
+import org.livetiming.ranking.RankingEngine;
+import org.livetiming.ranking.RankingListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns the changes of a race into compact delta events and fans them out to all subscribers.
+ * Each change is encoded once as a single-line JSON object and the same string is queued for every subscriber.
+ * The latest event of every competitor is kept as snapshot for clients that connect or resync; the events of finished
+ * competitors are encoded again with their current ranks when the snapshot is read, as later finishes shift them.
+ *
+ * <p>Event types are the competitor statuses; a FINISHED event carries the overall and category rank, net time and
+ * gap to the leader of the finisher. Clients insert it into their board, which shifts the ranks behind it. When a
+ * correction moves a result, every result it passed is published again with its new ranks.
+ */
+public class ResultBroadcaster implements CompetitorListener, RankingListener {
+    static final int DEFAULT_SUBSCRIBER_CAPACITY = 1024;
+
+    private final Set<Subscriber> subscribers;
+    private final Map<Competitor, Event> snapshot;
+    private final AtomicLong sequence;
+    private final int subscriberCapacity;
+    private volatile RankingEngine ranking;
+
+    /**
+     * Constructs a ResultBroadcaster with the default subscriber queue capacity.
+     */
+    public ResultBroadcaster() {
+        this(DEFAULT_SUBSCRIBER_CAPACITY);
+    }
+
+    /**
+     * Constructs a ResultBroadcaster.
+     *
+     * @param subscriberCapacity the number of events a subscriber may fall behind before it is resynced
+     */
+    public ResultBroadcaster(int subscriberCapacity) {
+        this.subscribers = ConcurrentHashMap.newKeySet();
+        this.snapshot = new ConcurrentHashMap<>();
+        this.sequence = new AtomicLong();
+        this.subscriberCapacity = subscriberCapacity;
+    }
+
+    /**
+     * Registers the broadcaster on a race and takes the current state of its competitors as snapshot.
+     *
+     * @param race the race to broadcast
+     */
+    public void attach(IndividualRace race) {
+        ranking = race.getRanking();
+        for (Competitor competitor : race.getCompetitors().getAllCompetitors()) {
+            if (competitor.getStatus() != CompetitorStatus.FINISHED) {
+                onStatusChanged(competitor, null, competitor.getStatus());
+            }
+        }
+        for (RankedResult result : race.getRanking().getOverall().getTop(Integer.MAX_VALUE)) {
+            Competitor competitor = result.competitor();
+            onRanked(result, race.getRanking().getLeaderboard(competitor.getCategory(), competitor.getGender()).getResult(competitor));
+        }
+        race.getRanking().addListener(this);
+        race.getCompetitors().addListener(this);
+    }
+
+    //====================================================================================================
+    // Subscriptions
+    //====================================================================================================
+    /**
+     * Registers a new subscriber. Its first events have to be the ones returned by {@link #getSnapshot()}.
+     *
+     * @return the new subscriber
+     */
+    public Subscriber subscribe() {
+        Subscriber subscriber = new Subscriber(subscriberCapacity);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Unregisters a subscriber.
+     *
+     * @param subscriber the subscriber to remove
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * @return the latest event of every competitor, finished competitors with their current ranks
+     */
+    public List<String> getSnapshot() {
+        RankingEngine ranking = this.ranking;
+        List<String> events = new ArrayList<>(snapshot.size());
+        for (Map.Entry<Competitor, Event> entry : snapshot.entrySet()) {
+            Competitor competitor = entry.getKey();
+            Event event = entry.getValue();
+            RankedResult overall = ranking != null && event.finished()
+                    ? ranking.getOverall().getResult(competitor) : null;
+            if (overall == null) {
+                events.add(event.json());
+            } else {
+                RankedResult category = ranking.getLeaderboard(competitor.getCategory(), competitor.getGender())
+                        .getResult(competitor);
+                events.add(encode(event.sequence(), competitor, CompetitorStatus.FINISHED, overall, category));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Queues an encoded event for every subscriber.
+     *
+     * @param event the encoded event
+     */
+    public void broadcast(String event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    //====================================================================================================
+    // Race events
+    //====================================================================================================
+    @Override
+    public void onStatusChanged(Competitor competitor, CompetitorStatus previous, CompetitorStatus status) {
+        // Finishes are published by onRanked, together with the ranks
+        if (status != CompetitorStatus.FINISHED) {
+            publish(competitor, status, null, null);
+        }
+    }
+
+    @Override
+    public void onRanked(RankedResult overall, RankedResult category) {
+        publish(overall.competitor(), CompetitorStatus.FINISHED, overall, category);
+    }
+
+    @Override
+    public void onRankChanged(RankChange overall, RankChange category) {
+        onRanked(overall.result(), category.result());
+        // The results the competitor passed changed rank too; clients cannot derive that from a moved result
+        Map<Competitor, RankedResult> categoryShifted = new LinkedHashMap<>();
+        for (RankedResult result : category.shifted()) {
+            categoryShifted.put(result.competitor(), result);
+        }
+        RankingEngine ranking = this.ranking;
+        for (RankedResult result : overall.shifted()) {
+            Competitor competitor = result.competitor();
+            RankedResult categoryResult = categoryShifted.remove(competitor);
+            if (categoryResult == null) {
+                categoryResult = ranking.getLeaderboard(competitor.getCategory(), competitor.getGender())
+                        .getResult(competitor);
+            }
+            if (categoryResult != null) {
+                onRanked(result, categoryResult);
+            }
+        }
+        for (RankedResult categoryResult : categoryShifted.values()) {
+            RankedResult result = ranking.getOverall().getResult(categoryResult.competitor());
+            if (result != null) {
+                onRanked(result, categoryResult);
+            }
+        }
+    }
+
+    private void publish(Competitor competitor, CompetitorStatus status, RankedResult overall, RankedResult category) {
+        long sequence = this.sequence.incrementAndGet();
+        String json = encode(sequence, competitor, status, overall, category);
+        snapshot.put(competitor, new Event(sequence, json, overall != null));
+        broadcast(json);
+    }
+
+    /**
+     * Encodes an event as a single-line JSON object.
+     */
+    private static String encode(long sequence, Competitor competitor, CompetitorStatus status, RankedResult overall,
+                                 RankedResult category) {
+        StringBuilder json = new StringBuilder(192)
+                .append("{\"seq\":").append(sequence)
+                .append(",\"type\":\"").append(status).append('"')
+                .append(",\"bib\":").append(competitor.getStartNumber())
+                .append(",\"name\":");
+        appendString(json, competitor.getName());
+        json.append(",\"category\":\"").append(competitor.getCategory()).append('"')
+                .append(",\"gender\":\"").append(competitor.getGender()).append('"');
+        if (status != CompetitorStatus.NOT_STARTED) {
+            json.append(",\"startTime\":").append(competitor.getStartTime());
+        }
+        if (overall != null) {
+            json.append(",\"netTime\":").append(overall.netTime())
+                    .append(",\"rank\":").append(overall.rank())
+                    .append(",\"gap\":").append(overall.gapToLeader())
+                    .append(",\"categoryRank\":").append(category.rank())
+                    .append(",\"categoryGap\":").append(category.gapToLeader());
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * The latest event of a competitor.
+     *
+     * @param sequence the sequence number of the event
+     * @param json     the encoded event
+     * @param finished whether the event carries ranks
+     */
+    private record Event(long sequence, String json, boolean finished) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.livetiming.stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP server streaming live results as Server-Sent Events on {@code /results}.
+ * Every connection is served by its own virtual thread, which first writes the snapshot of the race and then the
+ * events queued for its subscriber. A comment line is sent when the race is quiet, so dead connections are detected.
+ */
+public class ResultStreamServer implements AutoCloseable {
+    static final String PATH = "/results";
+    private static final long KEEP_ALIVE_SECONDS = 15;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResultBroadcaster broadcaster;
+
+    /**
+     * Constructs a ResultStreamServer serving each connection on a virtual thread.
+     *
+     * @param broadcaster the broadcaster providing the events
+     * @param address     the address to listen on, port 0 picks a free port
+     * @throws IOException if the server cannot be bound
+     */
+    public ResultStreamServer(ResultBroadcaster broadcaster, InetSocketAddress address) throws IOException {
+        this(broadcaster, address, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Constructs a ResultStreamServer.
+     *
+     * @param broadcaster the broadcaster providing the events
+     * @param address     the address to listen on, port 0 picks a free port
+     * @param executor    the executor serving the connections, one task per connection
+     * @throws IOException if the server cannot be bound
+     */
+    ResultStreamServer(ResultBroadcaster broadcaster, InetSocketAddress address, ExecutorService executor) throws IOException {
+        this.broadcaster = broadcaster;
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(PATH, this::stream);
+    }
+
+    /**
+     * Serves another resource next to the results stream, e.g. the metrics.
+     *
+     * @param path    the path of the resource
+     * @param handler the handler serving it
+     */
+    public void addHandler(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server and closes all streams.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Streams the events of the race to one client until it disconnects.
+     *
+     * @param exchange the HTTP exchange of the client
+     */
+    private void stream(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        Subscriber subscriber = broadcaster.subscribe();
+        try (OutputStream body = exchange.getResponseBody()) {
+            writeSnapshot(body);
+            while (!Thread.currentThread().isInterrupted()) {
+                String event = subscriber.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+                if (subscriber.consumeResync()) {
+                    writeSnapshot(body);
+                } else if (event != null) {
+                    writeEvent(body, event);
+                } else {
+                    body.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                }
+                body.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The client disconnected
+        } finally {
+            broadcaster.unsubscribe(subscriber);
+            exchange.close();
+        }
+    }
+
+    private void writeSnapshot(OutputStream body) throws IOException {
+        body.write("event: snapshot\ndata: \n\n".getBytes(StandardCharsets.UTF_8));
+        for (String event : broadcaster.getSnapshot()) {
+            writeEvent(body, event);
+        }
+        body.flush();
+    }
+
+    private static void writeEvent(OutputStream body, String event) throws IOException {
+        body.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
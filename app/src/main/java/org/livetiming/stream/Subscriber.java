@@ -0,0 +1,69 @@
+package org.livetiming.stream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A client of the live results stream.
+ * Events are queued in a bounded queue, so publishing never blocks on a client. When a client falls so far behind
+ * that its queue overflows, its pending events are dropped and coalesced into a single resync: the client is sent a
+ * fresh snapshot of the race instead of the events it missed.
+ */
+public class Subscriber {
+    private final BlockingQueue<String> queue;
+    private volatile boolean resyncRequired;
+
+    /**
+     * Constructs a Subscriber with a queue of the given capacity.
+     *
+     * @param capacity the maximum number of pending events
+     */
+    public Subscriber(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queues an event without blocking, or requests a resync if the queue is full.
+     *
+     * @param event the encoded event
+     */
+    void offer(String event) {
+        if (!queue.offer(event)) {
+            resyncRequired = true;
+            queue.clear();
+        }
+    }
+
+    /**
+     * Waits for the next event.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of the timeout
+     * @return the next encoded event, or null if none arrived in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    /**
+     * Checks whether the subscriber missed events and clears the flag.
+     *
+     * @return true if the subscriber has to be sent a new snapshot
+     */
+    public boolean consumeResync() {
+        if (resyncRequired) {
+            resyncRequired = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of queued events
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,28 @@
+package org.livetiming.timing;
+
+/**
+ * A time source fed by external timing hardware such as a start gate or a photocell.
+ * The hardware driver reports each impulse with the timestamp taken by the device; reading the source returns the
+ * timestamp of the latest impulse, so race operations record the device time instead of the time the impulse
+ * reached the JVM.
+ */
+public class ExternalImpulseTimeSource implements TimeSource {
+    private volatile long lastImpulse;
+
+    /**
+     * Records an impulse from the timing hardware.
+     *
+     * @param timestamp the device timestamp in nanoseconds since the epoch
+     */
+    public void onImpulse(long timestamp) {
+        this.lastImpulse = timestamp;
+    }
+
+    /**
+     * @return the timestamp of the latest impulse, or 0 if no impulse was received yet
+     */
+    @Override
+    public long now() {
+        return lastImpulse;
+    }
+}
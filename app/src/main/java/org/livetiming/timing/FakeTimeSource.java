@@ -0,0 +1,56 @@
+package org.livetiming.timing;
+
+/**
+ * A manually driven time source for tests and replays.
+ * Returns a fixed time that only changes when it is set or advanced, or replays a recorded sequence of timestamps,
+ * one per read, and keeps returning the last one when the sequence is exhausted.
+ */
+public class FakeTimeSource implements TimeSource {
+    private long time;
+    private long[] replay;
+    private int replayIndex;
+
+    /**
+     * Constructs a FakeTimeSource starting at the given time.
+     *
+     * @param time the initial time in nanoseconds since the epoch
+     */
+    public FakeTimeSource(long time) {
+        this.time = time;
+        this.replay = new long[0];
+    }
+
+    /**
+     * Constructs a FakeTimeSource that replays the given timestamps, one per call to {@link #now()}.
+     *
+     * @param timestamps the timestamps to replay in nanoseconds since the epoch
+     * @return a new FakeTimeSource
+     */
+    public static FakeTimeSource replaying(long... timestamps) {
+        FakeTimeSource timeSource = new FakeTimeSource(timestamps.length == 0 ? 0 : timestamps[0]);
+        timeSource.replay = timestamps.clone();
+        return timeSource;
+    }
+
+    @Override
+    public long now() {
+        if (replayIndex < replay.length) {
+            time = replay[replayIndex++];
+        }
+        return time;
+    }
+
+    /**
+     * @param time the time to set in nanoseconds since the epoch
+     */
+    public void set(long time) {
+        this.time = time;
+    }
+
+    /**
+     * @param nanos the number of nanoseconds to move the time forward
+     */
+    public void advance(long nanos) {
+        this.time += nanos;
+    }
+}
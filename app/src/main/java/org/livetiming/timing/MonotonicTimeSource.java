@@ -0,0 +1,37 @@
+package org.livetiming.timing;
+
+import java.time.Instant;
+
+/**
+ * A high-resolution monotonic time source.
+ * The wall clock is read once to anchor the source to the epoch; afterwards time advances with {@link System#nanoTime()},
+ * so it never jumps when the wall clock is adjusted (e.g. by NTP) during a race.
+ */
+public class MonotonicTimeSource implements TimeSource {
+    static final MonotonicTimeSource SYSTEM = new MonotonicTimeSource();
+
+    private final long epochAnchor;
+    private final long nanoAnchor;
+
+    /**
+     * Constructs a MonotonicTimeSource anchored to the current wall-clock time.
+     */
+    public MonotonicTimeSource() {
+        this(Instant.now());
+    }
+
+    /**
+     * Constructs a MonotonicTimeSource anchored to the given instant.
+     *
+     * @param anchor the instant that corresponds to the moment of construction
+     */
+    public MonotonicTimeSource(Instant anchor) {
+        this.nanoAnchor = System.nanoTime();
+        this.epochAnchor = anchor.getEpochSecond() * 1_000_000_000L + anchor.getNano();
+    }
+
+    @Override
+    public long now() {
+        return epochAnchor + (System.nanoTime() - nanoAnchor);
+    }
+}
@@ -0,0 +1,26 @@
+package org.livetiming.timing;
+
+/**
+ * Source of the timestamps recorded for starts and finishes.
+ * Timestamps are nanoseconds since the Unix epoch, so that they can be compared across timing devices
+ * while still separating athletes by thousandths of a second.
+ * Implementations must not allocate when read, as they are read on the start and finish paths.
+ */
+@FunctionalInterface
+public interface TimeSource {
+
+    /**
+     * @return the current time in nanoseconds since the Unix epoch
+     */
+    long now();
+
+    /**
+     * Retrieves the default time source of the application, a monotonic clock anchored to the wall clock
+     * when the application started.
+     *
+     * @return the shared system time source
+     */
+    static TimeSource system() {
+        return MonotonicTimeSource.SYSTEM;
+    }
+}
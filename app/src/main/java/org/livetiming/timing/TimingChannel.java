@@ -0,0 +1,8 @@
+package org.livetiming.timing;
+
+/**
+ * The channel of the timing hardware an impulse was captured on.
+ */
+public enum TimingChannel {
+    START, FINISH
+}
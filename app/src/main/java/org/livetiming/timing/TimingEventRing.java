@@ -0,0 +1,139 @@
+package org.livetiming.timing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A preallocated single-producer/single-consumer ring buffer of timing events, between the thread reading the timing
+ * hardware and the thread applying the events to the race.
+ * Events are stored field by field in primitive arrays, so neither side allocates. The producer never blocks: when
+ * the consumer has fallen a full ring behind, the event is rejected and counted as dropped.
+ *
+ * <p>Exactly one thread may call {@link #offer}, and exactly one thread may call {@link #drain}.
+ */
+public class TimingEventRing {
+    private static final TimingChannel[] CHANNELS = TimingChannel.values();
+
+    private final int mask;
+    private final byte[] channels;
+    private final long[] timestamps;
+    private final int[] startNumbers;
+    private final long[] capturedAt;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private long cachedHead;
+
+    /**
+     * Constructs a TimingEventRing.
+     *
+     * @param capacity the number of events the ring can hold, rounded up to a power of two
+     */
+    public TimingEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.channels = new byte[size];
+        this.timestamps = new long[size];
+        this.startNumbers = new int[size];
+        this.capturedAt = new long[size];
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+    }
+
+    /**
+     * Handles the events drained from the ring.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param channel     the channel the impulse was captured on
+         * @param timestamp   the device timestamp in nanoseconds since the epoch
+         * @param startNumber the start number reported with the impulse, or 0 if none
+         * @param capturedAt  the {@link System#nanoTime()} at which the impulse was offered to the ring
+         */
+        void onEvent(TimingChannel channel, long timestamp, int startNumber, long capturedAt);
+    }
+
+    //====================================================================================================
+    // Producer
+    //====================================================================================================
+    /**
+     * Publishes an impulse without a start number.
+     *
+     * @param channel   the channel the impulse was captured on
+     * @param timestamp the device timestamp in nanoseconds since the epoch
+     * @return true if the event was published, false if the ring is full
+     */
+    public boolean offer(TimingChannel channel, long timestamp) {
+        return offer(channel, timestamp, 0);
+    }
+
+    /**
+     * Publishes an impulse.
+     *
+     * @param channel     the channel the impulse was captured on
+     * @param timestamp   the device timestamp in nanoseconds since the epoch
+     * @param startNumber the start number reported with the impulse, or 0 if none
+     * @return true if the event was published, false if the ring is full
+     */
+    public boolean offer(TimingChannel channel, long timestamp, int startNumber) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.getAcquire();
+            if (position - cachedHead > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        int slot = (int) position & mask;
+        channels[slot] = (byte) channel.ordinal();
+        timestamps[slot] = timestamp;
+        startNumbers[slot] = startNumber;
+        capturedAt[slot] = System.nanoTime();
+        tail.setRelease(position + 1);
+        return true;
+    }
+
+    //====================================================================================================
+    // Consumer
+    //====================================================================================================
+    /**
+     * Hands the published events to a handler, in order, and frees their slots.
+     *
+     * @param handler the handler of the events
+     * @param limit   the maximum number of events to drain
+     * @return the number of drained events
+     */
+    public int drain(Handler handler, int limit) {
+        long position = head.get();
+        long available = Math.min(tail.getAcquire() - position, limit);
+        for (long i = 0; i < available; i++) {
+            int slot = (int) (position + i) & mask;
+            handler.onEvent(CHANNELS[channels[slot]], timestamps[slot], startNumbers[slot], capturedAt[slot]);
+            head.setRelease(position + i + 1);
+        }
+        return (int) available;
+    }
+
+    /**
+     * @return the number of published events not drained yet
+     */
+    public int size() {
+        return (int) (tail.getAcquire() - head.getAcquire());
+    }
+
+    /**
+     * @return the number of events the ring can hold
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the number of events rejected because the ring was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
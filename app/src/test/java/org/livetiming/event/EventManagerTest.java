@@ -0,0 +1,130 @@
+package org.livetiming.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.livetiming.exception.RaceNotFoundException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventManagerTest {
+
+    private static final Athlete ANNA = new Athlete("Anna", "Huber", Gender.FEMALE, "SC Wien", Year.of(1990), CompetitorStatus.NOT_STARTED);
+
+    private EventManager eventManager;
+
+    @BeforeEach
+    void setUp() {
+        eventManager = new EventManager();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        eventManager.close();
+    }
+
+    @Test
+    void testCrossRaceQueriesReadPublishedSnapshots() throws Exception {
+        eventManager.addRace(createRace("Sprint", 3));
+        eventManager.addRace(createRace("Distance", 2));
+
+        eventManager.execute("Sprint", race -> {
+            race.startNext(100L);
+            race.startNext(200L);
+            race.finishNext(700L);
+            race.finishNext(600L);
+        }).get();
+        eventManager.execute("Distance", race -> {
+            race.startNext(100L);
+            race.finishNext(900L);
+        }).get();
+
+        assertEquals(3, eventManager.getFinisherCount());
+        assertEquals(5, eventManager.getCompetitorCount());
+        List<RaceResult> results = eventManager.getResultsOf(ANNA);
+        assertEquals(2, results.size());
+        for (RaceResult result : results) {
+            assertEquals(CompetitorStatus.FINISHED, result.status());
+        }
+        RaceResult sprint = results.stream().filter(result -> result.race().equals("Sprint")).findFirst().orElseThrow();
+        assertEquals(2, sprint.rank());
+        assertEquals(600L, sprint.netTime());
+        assertEquals(1, eventManager.getSnapshot("Sprint").count(CompetitorStatus.NOT_STARTED));
+    }
+
+    @Test
+    void testOperationsOfARaceAreAppliedInOrderOnItsWriter() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            eventManager.addRace(createRace("Race " + i, 200));
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int n = 0; n < 200; n++) {
+            long time = n;
+            for (String name : eventManager.getRaceNames()) {
+                futures.add(eventManager.execute(name, race -> race.startNext(time)));
+                futures.add(eventManager.execute(name, race -> race.finishNext(time + 1_000)));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+        assertEquals(800, eventManager.getFinisherCount());
+        for (String name : eventManager.getRaceNames()) {
+            assertEquals(1 + 400, eventManager.getSnapshot(name).version());
+        }
+    }
+
+    @Test
+    void testUnknownAndDuplicateRacesAreRejected() {
+        eventManager.addRace(createRace("Sprint", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> eventManager.addRace(createRace("Sprint", 1)));
+        assertThrows(RaceNotFoundException.class, () -> eventManager.getSnapshot("Relay"));
+        assertNotNull(eventManager.removeRace("Sprint"));
+        assertThrows(RaceNotFoundException.class, () -> eventManager.execute("Sprint", race -> { }));
+    }
+
+    @Test
+    void testInterruptedCloseRestoresTheInterruptFlag() throws Exception {
+        eventManager.addRace(createRace("Sprint", 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = eventManager.execute("Sprint", race -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.currentThread().interrupt();
+        eventManager.close();
+
+        assertTrue(Thread.interrupted());
+        assertTrue(eventManager.getRaceNames().isEmpty());
+        release.countDown();
+        blocked.get(1, TimeUnit.SECONDS);
+    }
+
+    private static IndividualRace createRace(String name, int size) {
+        CompetitorList competitors = new CompetitorList();
+        competitors.addCompetitor(new Competitor(ANNA, 1));
+        for (int i = 2; i <= size; i++) {
+            competitors.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", Year.of(1990),
+                    CompetitorStatus.NOT_STARTED), i));
+        }
+        return new IndividualRace(name, competitors, new FakeTimeSource(0));
+    }
+}
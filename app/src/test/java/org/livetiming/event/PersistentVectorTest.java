@@ -0,0 +1,38 @@
+package org.livetiming.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentVectorTest {
+
+    @Test
+    void testAppendGrowsTheTrieAcrossLevels() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.plus(i);
+            expected.add(i);
+        }
+
+        assertEquals(40_000, vector.size());
+        assertEquals(expected, vector);
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentVector.empty().get(0));
+    }
+
+    @Test
+    void testOlderVersionsAreNotChanged() {
+        PersistentVector<String> first = PersistentVector.<String>empty().plus("a").plus("b").plus("c");
+        PersistentVector<String> second = first.with(1, "B");
+        PersistentVector<String> third = second.plus("d");
+
+        assertEquals(List.of("a", "b", "c"), first);
+        assertEquals(List.of("a", "B", "c"), second);
+        assertEquals(List.of("a", "B", "c", "d"), third);
+        assertThrows(UnsupportedOperationException.class, () -> first.set(0, "x"));
+        assertThrows(UnsupportedOperationException.class, () -> first.add("x"));
+    }
+}
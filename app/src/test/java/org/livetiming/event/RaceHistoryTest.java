@@ -0,0 +1,158 @@
+package org.livetiming.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.manager.SeedingOrder;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaceHistoryTest {
+
+    private FakeTimeSource timeSource;
+    private IndividualRace race;
+    private RaceHistory history;
+
+    @BeforeEach
+    void setUp() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 4; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        timeSource = new FakeTimeSource(0);
+        race = new IndividualRace("Sprint", competitorList, timeSource);
+        history = new RaceHistory(race, 3);
+    }
+
+    @Test
+    void testRaceOperationsAreRecordedAsTypedEvents() {
+        race.massStart(100L);
+        race.finish(2, 500L);
+        timeSource.set(600L);
+        race.didNotFinish(1);
+        race.disqualify(3);
+
+        assertEquals(4 + 4 + 3, history.size());
+        assertInstanceOf(RaceEvent.Registered.class, history.getEvent(0));
+        assertEquals(new RaceEvent.Started(100L, 0), history.getEvent(4));
+        assertEquals(new RaceEvent.Finished(500L, 1), history.getEvent(8));
+        assertEquals(new RaceEvent.DidNotFinish(600L, 0), history.getEvent(9));
+        assertEquals(new RaceEvent.Disqualified(600L, 2), history.getEvent(10));
+
+        RaceState state = history.getState();
+        assertEquals(new CompetitorState(2, CompetitorStatus.FINISHED, 100L, 500L), state.get(1));
+        assertEquals(400L, state.getByStartNumber(2).netTime());
+        assertEquals(1, state.count(CompetitorStatus.ON_COURSE));
+    }
+
+    @Test
+    void testSplitsRestartsReinstatementsAndResetsAreRecordedAsTypedEvents() {
+        race.massStart(100L);
+        race.getCompetitors().getCompetitorByStartNumber(1).recordSplit(1, 300L);
+        race.finish(1, 500L);
+        timeSource.set(600L);
+        race.didNotFinish(2);
+        race.reinstate(2, 700L);
+        Competitor third = race.getCompetitors().getCompetitorByStartNumber(3);
+        third.recordSplit(1, 350L);
+        third.start(400L);
+        RaceState beforeReset = history.getState();
+        race.reset();
+
+        assertEquals(List.of(new RaceEvent.SplitRecorded(300L, 0, 1), new RaceEvent.Finished(500L, 0),
+                new RaceEvent.DidNotFinish(600L, 1), new RaceEvent.Reinstated(600L, 1, CompetitorStatus.FINISHED, 700L),
+                new RaceEvent.SplitRecorded(350L, 2, 1), new RaceEvent.Started(400L, 2)),
+                history.getEvents().subList(8, 14));
+        assertEquals(new CompetitorState(1, CompetitorStatus.FINISHED, 100L, 500L, List.of(300L)), beforeReset.get(0));
+        assertEquals(new CompetitorState(2, CompetitorStatus.FINISHED, 100L, 700L), beforeReset.get(1));
+        assertEquals(new CompetitorState(3, CompetitorStatus.ON_COURSE, 400L, 0L), beforeReset.get(2));
+        assertEquals(300L, history.materialize(beforeReset).getCompetitorByStartNumber(1).getSplitTime(1));
+
+        for (RaceEvent event : history.getEvents().subList(14, history.size())) {
+            assertInstanceOf(RaceEvent.Reset.class, event);
+        }
+        assertEquals(4, history.getState().count(CompetitorStatus.NOT_STARTED));
+        assertEquals(history.getState().getCompetitors(), RaceState.replay(history.getEvents()).getCompetitors());
+        assertThrows(CompetitorNotFoundException.class, () -> history.append(new RaceEvent.Reinstated(0L, 0,
+                CompetitorStatus.ON_COURSE, 0L)));
+        assertThrows(CompetitorNotFoundException.class, () -> history.append(new RaceEvent.SplitRecorded(0L, 0, 1)));
+    }
+
+    @Test
+    void testPastStatesAreRebuiltByEventCountAndTime() {
+        race.massStart(100L);
+        race.finish(2, 500L);
+        race.finish(1, 700L);
+        race.finish(4, 900L);
+
+        for (int count = 0; count <= history.size(); count++) {
+            assertEquals(count, history.stateAt(count).getEventCount());
+            assertEquals(RaceState.replay(history.getEvents().subList(0, count)).getCompetitors(),
+                    history.stateAt(count).getCompetitors());
+        }
+        assertEquals(0, history.stateAsOf(99L).count(CompetitorStatus.ON_COURSE));
+        assertEquals(4, history.stateAsOf(100L).count(CompetitorStatus.ON_COURSE));
+        assertEquals(2, history.stateAsOf(799L).count(CompetitorStatus.FINISHED));
+        assertEquals(3, history.stateAsOf(Long.MAX_VALUE).count(CompetitorStatus.FINISHED));
+        assertSame(history.getState(), history.stateAsOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testMaterializedStateMatchesTheRace() {
+        race.massStart(100L);
+        race.finish(3, 400L);
+        race.getCompetitors().getCompetitorByStartNumber(3).start(150L);
+        race.finish(3, 450L);
+        race.finish(1, 600L);
+        RaceState beforeReset = history.getState();
+        race.reset();
+
+        CompetitorList past = history.materialize(beforeReset);
+        assertEquals(2, past.getCompetitorCount(CompetitorStatus.FINISHED));
+        Competitor third = past.getCompetitorByStartNumber(3);
+        assertEquals(CompetitorStatus.FINISHED, third.getStatus());
+        assertEquals(150L, third.getStartTime());
+        assertEquals(450L, third.getFinishTime());
+        assertEquals("3", third.getLastName());
+        assertEquals(4, history.getState().count(CompetitorStatus.NOT_STARTED));
+    }
+
+    @Test
+    void testRenumberingAndLateEntriesAreRecorded() {
+        race.assignStartNumbers(SeedingOrder.byRankingPoints(competitor -> Integer.parseInt(competitor.getLastName())));
+        Competitor late = new Competitor(new Athlete("Late", "Entry", Gender.MALE, "Club", null, CompetitorStatus.NOT_STARTED), 9);
+        race.getCompetitors().addCompetitor(late);
+
+        RaceState state = history.getState();
+        assertEquals(5, state.size());
+        assertEquals(new RaceEvent.BibChanged(0L, 0, 4), history.getEvents().stream()
+                .filter(event -> event instanceof RaceEvent.BibChanged && event.competitor() == 0).findFirst().orElseThrow());
+        assertEquals(9, state.get(history.positionOf(late)).startNumber());
+        for (Competitor competitor : race.getCompetitors().getAllCompetitors()) {
+            assertEquals(competitor.getStartNumber(), state.get(history.positionOf(competitor)).startNumber());
+        }
+    }
+
+    @Test
+    void testReducerIsPureAndRejectsInvalidEvents() {
+        RaceState before = history.getState();
+        RaceState after = before.apply(new RaceEvent.Started(100L, 0));
+
+        assertEquals(CompetitorStatus.NOT_STARTED, before.get(0).status());
+        assertEquals(CompetitorStatus.ON_COURSE, after.get(0).status());
+        assertEquals(before.getEventCount() + 1, after.getEventCount());
+        assertThrows(CompetitorNotFoundException.class, () -> before.apply(new RaceEvent.Finished(200L, 0)));
+        assertThrows(CompetitorNotFoundException.class, () -> before.apply(new RaceEvent.Started(100L, 7)));
+        assertThrows(CompetitorNotFoundException.class, () -> history.append(new RaceEvent.DidNotFinish(0L, 1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.stateAt(history.size() + 1));
+    }
+}
@@ -0,0 +1,99 @@
+package org.livetiming.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaceSnapshotPublisherTest {
+
+    private CompetitorList competitorList;
+    private IndividualRace race;
+    private RaceSnapshotPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        competitorList = new CompetitorList();
+        for (int i = 1; i <= 4; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        race = new IndividualRace("Sprint", competitorList, new FakeTimeSource(0));
+        publisher = new RaceSnapshotPublisher(race);
+    }
+
+    @Test
+    void testPublishedSnapshotsStayUnchangedByLaterOperations() {
+        RaceSnapshot initial = publisher.publish();
+        race.massStart(0L);
+        race.finish(3, 500L);
+        RaceSnapshot finished = publisher.publish();
+
+        assertEquals(4, initial.count(CompetitorStatus.NOT_STARTED));
+        assertEquals(0, initial.finishers());
+        assertEquals(1, finished.finishers());
+        assertEquals(3, finished.count(CompetitorStatus.ON_COURSE));
+        assertEquals(1, result(finished, 3).rank());
+        assertEquals(finished.version(), initial.version() + 1);
+        assertSame(finished, publisher.getSnapshot());
+    }
+
+    @Test
+    void testFasterFinisherShiftsTheRanksBehindIt() {
+        race.massStart(0L);
+        race.finish(1, 500L);
+        race.finish(2, 600L);
+        publisher.publish();
+
+        race.finish(3, 400L);
+        race.disqualify(1);
+        RaceSnapshot snapshot = publisher.publish();
+
+        assertEquals(1, result(snapshot, 3).rank());
+        assertEquals(0, result(snapshot, 1).rank());
+        assertEquals(2, result(snapshot, 2).rank());
+        assertEquals(2, snapshot.finishers());
+    }
+
+    @Test
+    void testCorrectedFinishTimeUpdatesTheRanksItPassed() {
+        race.massStart(0L);
+        race.finish(1, 100L);
+        race.finish(2, 200L);
+        race.finish(3, 300L);
+        publisher.publish();
+
+        race.correctFinishTime(3, 150L);
+        RaceSnapshot snapshot = publisher.publish();
+        assertEquals(1, result(snapshot, 1).rank());
+        assertEquals(2, result(snapshot, 3).rank());
+        assertEquals(3, result(snapshot, 2).rank());
+        assertEquals(150L, result(snapshot, 3).netTime());
+    }
+
+    @Test
+    void testAddedRemovedAndRenumberedCompetitorsArePublished() {
+        publisher.publish();
+        Competitor latecomer = new Competitor(new Athlete("Late", "Comer", Gender.MALE, "Club", null, CompetitorStatus.NOT_STARTED), 5);
+        competitorList.addCompetitor(latecomer);
+        competitorList.getCompetitorByStartNumber(4).setStartNumber(9);
+        RaceSnapshot snapshot = publisher.publish();
+        assertEquals(5, snapshot.results().size());
+        assertNotNull(result(snapshot, 9));
+
+        competitorList.removeCompetitor(latecomer);
+        snapshot = publisher.publish();
+        assertEquals(4, snapshot.results().size());
+        assertNull(result(snapshot, 5));
+    }
+
+    private static RaceResult result(RaceSnapshot snapshot, int startNumber) {
+        return snapshot.results().stream().filter(result -> result.startNumber() == startNumber).findFirst().orElse(null);
+    }
+}
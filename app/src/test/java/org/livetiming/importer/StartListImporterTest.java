@@ -0,0 +1,133 @@
+package org.livetiming.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Category;
+import org.livetiming.model.Gender;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Year;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartListImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final StartListImporter importer = new StartListImporter(Year.of(2024));
+
+    @Test
+    void testImportAddsCompetitorsInFileOrder() throws Exception {
+        Path path = write("""
+                firstName,lastName,gender,club,birthYear,startNumber
+                Anna,Huber,F,SC Wien,1990,12
+                Bert,Maier,M,SC Wien,2010,
+                Cleo,Gruber,,,,
+                """);
+        CompetitorList competitors = new CompetitorList();
+
+        ImportResult result = importer.importFile(path, competitors);
+
+        assertTrue(result.errors().isEmpty());
+        assertEquals(3, result.competitors().size());
+        assertEquals(3, competitors.getCompetitorCount());
+
+        Competitor anna = result.competitors().get(0);
+        assertEquals("Anna Huber", anna.getName());
+        assertEquals(Gender.FEMALE, anna.getGender());
+        assertEquals(Year.of(1990), anna.getBirthYear());
+        assertEquals(Category.getCategoryByAge(34), anna.getCategory());
+        assertEquals(12, anna.getStartNumber());
+
+        Competitor bert = result.competitors().get(1);
+        assertEquals(Category.getCategoryByAge(14), bert.getCategory());
+        assertEquals(0, bert.getStartNumber());
+        assertSame(anna.getClub(), bert.getClub());
+
+        Competitor cleo = result.competitors().get(2);
+        assertEquals(Gender.UNKNOWN, cleo.getGender());
+        assertNull(cleo.getClub());
+        assertNull(cleo.getBirthYear());
+    }
+
+    @Test
+    void testMalformedRowsAreReportedWithLineNumbers() throws Exception {
+        Path path = write("""
+                lastName;firstName;gender;birthYear
+                Huber;Anna;F;1990
+                Maier;Bert;X;2010
+
+                Gruber;Cleo;F;nineteen
+                Berger
+                Wolf;Dora;W;1985
+                """);
+
+        ImportResult result = importer.parse(path);
+
+        assertEquals(2, result.competitors().size());
+        assertEquals("Dora Wolf", result.competitors().get(1).getName());
+        assertEquals(3, result.errors().size());
+        assertEquals(3, result.errors().get(0).line());
+        assertEquals(5, result.errors().get(1).line());
+        assertEquals(6, result.errors().get(2).line());
+    }
+
+    @Test
+    void testLargeStartListKeepsFileOrderAcrossBatches() throws Exception {
+        StringBuilder content = new StringBuilder("firstName,lastName,gender,club,startNumber\n");
+        for (int i = 1; i <= 10_000; i++) {
+            content.append("First").append(i).append(",Last").append(i).append(i == 9_000 ? ",X" : ",F")
+                    .append(",Club ").append(i % 10).append(',').append(i).append('\n');
+        }
+        Path path = write(content.toString());
+
+        ImportResult result = importer.parse(path);
+
+        assertEquals(9_999, result.competitors().size());
+        for (int i = 0; i < result.competitors().size(); i++) {
+            assertEquals(i < 8_999 ? i + 1 : i + 2, result.competitors().get(i).getStartNumber());
+        }
+        assertSame(result.competitors().get(0).getClub(), result.competitors().get(9_009).getClub());
+        assertEquals(1, result.errors().size());
+        assertEquals(9_001, result.errors().get(0).line());
+    }
+
+    @Test
+    void testQuotedFieldsMayContainDelimitersAndQuotes() throws Exception {
+        Path path = write("\uFEFFfirstName,lastName,gender,club\r\n"
+                + "\"Anna\",\"Huber\",F,\"SC \"\"Blitz\"\", Wien\"\r\n");
+
+        ImportResult result = importer.parse(path);
+
+        assertTrue(result.errors().isEmpty());
+        assertEquals("Anna Huber", result.competitors().get(0).getName());
+        assertEquals("SC \"Blitz\", Wien", result.competitors().get(0).getClub());
+    }
+
+    @Test
+    void testMissingRequiredColumnIsReported() throws Exception {
+        Path path = write("""
+                firstName,lastName,club
+                Anna,Huber,SC Wien
+                """);
+        CompetitorList competitors = new CompetitorList();
+
+        ImportResult result = importer.importFile(path, competitors);
+
+        assertTrue(result.competitors().isEmpty());
+        assertEquals(1, result.errors().size());
+        assertEquals(1, result.errors().get(0).line());
+        assertEquals(0, competitors.getCompetitorCount());
+    }
+
+    private Path write(String content) throws Exception {
+        Path path = tempDir.resolve("startlist.csv");
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+}
@@ -0,0 +1,146 @@
+package org.livetiming.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCompetitorStoreTest {
+
+    private ColumnarCompetitorStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarCompetitorStore(2);
+        store.addCompetitor(competitor("Anna", Gender.FEMALE, Category.SENIOR, 0));
+        store.addCompetitor(competitor("Bert", Gender.MALE, Category.U14, 0));
+        store.addCompetitor(competitor("Cleo", Gender.FEMALE, Category.U14, 0));
+        store.addCompetitor(competitor("Dora", Gender.FEMALE, Category.SENIOR, 0));
+    }
+
+    @Test
+    void testAssignStartNumbersMatchesCompetitorList() {
+        store.assignStartNumbersByCategory();
+
+        assertEquals("Cleo A", store.getCompetitor(1).getName());
+        assertEquals("Bert A", store.getCompetitor(2).getName());
+        assertEquals("Anna A", store.getCompetitor(3).getName());
+        assertEquals("Dora A", store.getCompetitor(4).getName());
+        assertEquals("Cleo A", store.getNextCompetitor().getName());
+    }
+
+    @Test
+    void testQueriesReturnStoredAttributes() {
+        store.assignStartNumbersByCategory();
+
+        Competitor anna = store.getCompetitor(3);
+        assertEquals(Gender.FEMALE, anna.getGender());
+        assertEquals("Club", anna.getClub());
+        assertEquals(Year.of(1990), anna.getBirthYear());
+        assertEquals(Category.SENIOR, anna.getCategory());
+        assertEquals(2, store.getFemaleCompetitorsByCategory(Category.SENIOR).size());
+        assertEquals(1, store.getMaleCompetitorsByCategory(Category.U14).size());
+        assertEquals(3, store.getCompetitorsByGender(Gender.FEMALE).size());
+        assertEquals(4, store.getAllCompetitors().size());
+    }
+
+    @Test
+    void testStatusChangesByStartNumber() {
+        store.assignStartNumbersByCategory();
+
+        store.start(2, 200L);
+        store.start(1, 100L);
+        store.start(4, 100L);
+        store.finish(1, 500L);
+
+        assertEquals(CompetitorStatus.FINISHED, store.getStatus(1));
+        assertEquals(500L, store.getFinishTime(1));
+        assertEquals(1, store.getCompetitorCount(CompetitorStatus.FINISHED));
+        assertEquals(2, store.getCompetitorCount(CompetitorStatus.ON_COURSE));
+        assertEquals(1, store.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+        assertEquals("Dora A", store.getNextCompetitorOnCourse().getName());
+        assertEquals("Anna A", store.getNextCompetitor().getName());
+
+        List<String> onCourse = new ArrayList<>();
+        store.getCompetitorsOnCourse().forEach(competitor -> onCourse.add(competitor.getName()));
+        assertEquals(List.of("Dora A", "Bert A"), onCourse);
+
+        Competitor copy = store.getCompetitor(2);
+        assertEquals(200L, copy.getStartTime());
+        copy.finish(300L);
+        assertEquals(CompetitorStatus.ON_COURSE, store.getStatus(2));
+
+        store.resetCompetitorsStatus();
+        assertEquals(4, store.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+        assertEquals(0, store.getFinishTime(1));
+    }
+
+    @Test
+    void testRemoveKeepsStartNumberIndexConsistent() {
+        store.assignStartNumbersByCategory();
+
+        assertTrue(store.removeCompetitor(1));
+        assertFalse(store.removeCompetitor(1));
+
+        assertNull(store.getCompetitor(1));
+        assertEquals("Dora A", store.getCompetitor(4).getName());
+        assertEquals(3, store.getCompetitorCount());
+        assertEquals(3, store.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+        assertThrows(IllegalArgumentException.class, () -> store.addCompetitor(competitor("Emil", Gender.MALE, Category.U14, 4)));
+    }
+
+    @Test
+    void testNextCompetitorsFollowStartsFinishesAndRemovals() {
+        store = new ColumnarCompetitorStore(2);
+        store.addCompetitor(competitor("Emil", Gender.FEMALE, Category.SENIOR, 7));
+        store.addCompetitor(competitor("Anna", Gender.FEMALE, Category.SENIOR, 0));
+        store.addCompetitor(competitor("Dora", Gender.FEMALE, Category.SENIOR, 0));
+        store.addCompetitor(competitor("Bert", Gender.FEMALE, Category.SENIOR, 3));
+        store.addCompetitor(competitor("Cleo", Gender.FEMALE, Category.SENIOR, 5));
+
+        assertEquals("Bert A", store.getNextCompetitor().getName());
+        store.start(3, 100L);
+        store.start(5, 50L);
+        assertEquals("Emil A", store.getNextCompetitor().getName());
+        assertEquals("Cleo A", store.getNextCompetitorOnCourse().getName());
+        store.finish(5, 400L);
+        assertEquals("Bert A", store.getNextCompetitorOnCourse().getName());
+
+        // Dora takes the row of Emil, but Anna was added first
+        assertTrue(store.removeCompetitor(7));
+        assertEquals("Anna A", store.getNextCompetitor().getName());
+        store.setStatus(3, CompetitorStatus.DID_NOT_FINISH);
+        assertNull(store.getNextCompetitorOnCourse());
+
+        store.resetCompetitorsStatus();
+        assertEquals("Bert A", store.getNextCompetitor().getName());
+    }
+
+    @Test
+    void testOutlyingStartNumbersAreIndexedWithoutTheDenseArray() {
+        store.addCompetitor(competitor("Emil", Gender.MALE, Category.U14, 2_000_000_000));
+        store.addCompetitor(competitor("Fred", Gender.MALE, Category.U14, 10));
+
+        assertEquals("Emil A", store.getCompetitor(2_000_000_000).getName());
+        assertEquals("Fred A", store.getCompetitor(10).getName());
+        assertTrue(store.start(2_000_000_000, 100L));
+        assertEquals(CompetitorStatus.ON_COURSE, store.getStatus(2_000_000_000));
+        assertThrows(IllegalArgumentException.class, () -> store.addCompetitor(competitor("Gina", Gender.FEMALE, Category.U14, 2_000_000_000)));
+
+        assertTrue(store.removeCompetitor(2_000_000_000));
+        assertNull(store.getCompetitor(2_000_000_000));
+        assertEquals("Fred A", store.getCompetitor(10).getName());
+    }
+
+    private static Competitor competitor(String firstName, Gender gender, Category category, int startNumber) {
+        return new Competitor(new Athlete(firstName, "A", gender, "Club", Year.of(1990), category, CompetitorStatus.NOT_STARTED), startNumber);
+    }
+}
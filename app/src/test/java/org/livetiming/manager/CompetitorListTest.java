@@ -2,10 +2,13 @@ package org.livetiming.manager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.livetiming.model.Athlete;
 import org.livetiming.model.Category;
+import org.livetiming.model.CategoryResolver;
 import org.livetiming.model.CompetitorStatus;
 import org.livetiming.model.Gender;
 
+import java.time.Year;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -194,6 +197,10 @@ class CompetitorListTest {
         when(mockCompetitor1.getStartTime()).thenReturn(20L);
         when(mockCompetitor3.getStartTime()).thenReturn(30L);
 
+        // Mocks do not notify the list themselves
+        competitorList.onStatusChanged(mockCompetitor1, CompetitorStatus.NOT_STARTED, CompetitorStatus.ON_COURSE);
+        competitorList.onStatusChanged(mockCompetitor3, CompetitorStatus.FINISHED, CompetitorStatus.ON_COURSE);
+
         // Retrieve competitors on course
         Set<Competitor> competitorsOnCourse = competitorList.getCompetitorsOnCourse();
 
@@ -297,4 +304,215 @@ class CompetitorListTest {
         // Assert that it now returns the next competitor in order
         assertEquals(mockCompetitor10, competitorList.getNextCompetitor());
     }
+
+    @Test
+    void testGetNextCompetitorFollowsStatusAndStartNumberChanges() {
+        Competitor first = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 0);
+        Competitor second = new Competitor(new Athlete("Bert", "B", Gender.MALE, "Club B", null, CompetitorStatus.NOT_STARTED), 0);
+        Competitor third = new Competitor(new Athlete("Cleo", "C", Gender.FEMALE, "Club C", null, CompetitorStatus.NOT_STARTED), 0);
+        first.setCategory(Category.U10);
+        second.setCategory(Category.U10);
+        third.setCategory(Category.U12);
+        competitorList.addCompetitor(third);
+        competitorList.addCompetitor(second);
+        competitorList.addCompetitor(first);
+
+        competitorList.assignStartNumbersByCategory();
+        assertEquals(first, competitorList.getNextCompetitor());
+
+        first.start(10L);
+        assertEquals(second, competitorList.getNextCompetitor());
+
+        // Renumbering moves the competitor in the start order
+        third.setStartNumber(0);
+        second.setStartNumber(0);
+        assertEquals(second, competitorList.getNextCompetitor());
+
+        second.start(20L);
+        third.start(30L);
+        assertNull(competitorList.getNextCompetitor());
+
+        competitorList.resetCompetitorsStatus();
+        assertEquals(first, competitorList.getNextCompetitor());
+
+        competitorList.removeCompetitor(first);
+        assertEquals(second, competitorList.getNextCompetitor());
+    }
+
+    @Test
+    void testStatusBucketsFollowStatusChanges() {
+        Competitor first = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        Competitor second = new Competitor(new Athlete("Bert", "B", Gender.MALE, "Club B", null, CompetitorStatus.NOT_STARTED), 2);
+        competitorList.addCompetitor(first);
+        competitorList.addCompetitor(second);
+        Set<Competitor> onCourse = competitorList.getCompetitorsOnCourse();
+        Set<Competitor> finished = competitorList.getCompetitorsByStatus(CompetitorStatus.FINISHED);
+
+        first.start(10L);
+        second.start(10L);
+        assertEquals(2, onCourse.size());
+        assertEquals(0, competitorList.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+
+        first.finish(20L);
+        assertEquals(List.of(second), new ArrayList<>(onCourse));
+        assertTrue(finished.contains(first));
+        assertEquals(1, competitorList.getCompetitorCount(CompetitorStatus.FINISHED));
+
+        competitorList.removeCompetitor(first);
+        assertTrue(finished.isEmpty());
+        assertEquals(1, competitorList.getCompetitorCount());
+        assertThrows(UnsupportedOperationException.class, () -> finished.add(first));
+    }
+
+    @Test
+    void testRecategorizeMovesCompetitorsToTheirNewCategory() {
+        CategoryResolver season2024 = CategoryResolver.standard(Year.of(2024));
+        CategoryResolver season2025 = CategoryResolver.standard(Year.of(2025));
+        Competitor junior = new Competitor(season2024.createAthlete("Anna", "A", Gender.FEMALE, "Club A", Year.of(2010), CompetitorStatus.NOT_STARTED), 2);
+        Competitor senior = new Competitor(season2024.createAthlete("Bert", "B", Gender.FEMALE, "Club B", Year.of(2000), CompetitorStatus.NOT_STARTED), 1);
+        competitorList.addCompetitor(junior);
+        competitorList.addCompetitor(senior);
+        assertEquals(Category.U14, junior.getCategory());
+        assertSame(junior, competitorList.getNextCompetitor());
+
+        assertEquals(1, competitorList.recategorize(season2025));
+
+        assertEquals(Category.U16, junior.getCategory());
+        assertEquals(Set.of(junior), competitorList.getCompetitorsByCategory(Category.U16));
+        assertTrue(competitorList.getCompetitorsByCategory(Category.U14).isEmpty());
+        assertSame(junior, competitorList.getNextCompetitor());
+        assertEquals(0, competitorList.recategorize(season2025));
+    }
+
+    @Test
+    void testDirectCategoryChangesRefileTheCompetitor() {
+        Competitor competitor = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        competitor.setCategory(Category.U10);
+        competitorList.addCompetitor(competitor);
+
+        competitor.setCategory(Category.U12);
+        assertTrue(competitorList.getCompetitorsByCategory(Category.U10).isEmpty());
+        assertEquals(Set.of(competitor), competitorList.getCompetitorsByCategory(Category.U12));
+        assertSame(competitor, competitorList.getNextCompetitor());
+
+        competitorList.removeCompetitor(competitor);
+        assertEquals(0, competitorList.getCompetitorCount());
+        assertNull(competitorList.getCompetitorByStartNumber(1));
+        assertNull(competitorList.getNextCompetitor());
+    }
+
+    @Test
+    void testCompetitorBelongsToOneListAtATime() {
+        Competitor competitor = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        competitorList.addCompetitor(competitor);
+        CompetitorList other = new CompetitorList();
+
+        assertThrows(IllegalStateException.class, () -> other.addCompetitor(competitor));
+        assertEquals(0, other.getCompetitorCount());
+        competitor.start(10L);
+        assertEquals(1, competitorList.getCompetitorCount(CompetitorStatus.ON_COURSE));
+
+        competitorList.removeCompetitor(competitor);
+        other.addCompetitor(competitor);
+        assertEquals(1, other.getCompetitorCount(CompetitorStatus.ON_COURSE));
+    }
+
+    @Test
+    void testGetCompetitorByStartNumberFollowsRenumbering() {
+        Competitor first = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 2);
+        Competitor second = new Competitor(new Athlete("Bert", "B", Gender.MALE, "Club B", null, CompetitorStatus.NOT_STARTED), 1);
+        first.setCategory(Category.U10);
+        second.setCategory(Category.U10);
+        competitorList.addCompetitor(first);
+        competitorList.addCompetitor(second);
+        assertSame(first, competitorList.getCompetitorByStartNumber(2));
+
+        // Female competitors start first, so the two swap their start numbers
+        competitorList.assignStartNumbersByCategory();
+        assertSame(first, competitorList.getCompetitorByStartNumber(1));
+        assertSame(second, competitorList.getCompetitorByStartNumber(2));
+
+        second.setStartNumber(7);
+        assertNull(competitorList.getCompetitorByStartNumber(2));
+        assertSame(second, competitorList.getCompetitorByStartNumber(7));
+
+        competitorList.removeCompetitor(second);
+        assertNull(competitorList.getCompetitorByStartNumber(7));
+        second.setStartNumber(1);
+        assertSame(first, competitorList.getCompetitorByStartNumber(1));
+        assertNull(competitorList.getCompetitorByStartNumber(0));
+    }
+
+    @Test
+    void testStartAllStartsTheSelectedWaveInOnePass() {
+        List<Competitor> field = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Competitor competitor = new Competitor(new Athlete("Athlete", "" + i, i % 2 == 0 ? Gender.FEMALE : Gender.MALE, "Club", null, CompetitorStatus.NOT_STARTED), 0);
+            competitor.setCategory(i < 4 ? Category.U12 : Category.SENIOR);
+            field.add(competitor);
+        }
+        competitorList.addCompetitors(field);
+        competitorList.assignStartNumbersByCategory();
+        List<CompetitorStatus> notified = new ArrayList<>();
+        competitorList.addListener((competitor, previous, status) -> notified.add(status));
+
+        List<Competitor> wave = competitorList.startAll(StartSelection.of(Category.U12, Gender.MALE), 100L);
+        assertEquals(List.of(3, 4), wave.stream().map(Competitor::getStartNumber).toList());
+        assertEquals(List.of(CompetitorStatus.ON_COURSE, CompetitorStatus.ON_COURSE), notified);
+        assertEquals(100L, wave.get(0).getStartTime());
+        assertEquals(1, competitorList.getNextCompetitor().getStartNumber());
+
+        assertEquals(1, competitorList.startAll(StartSelection.startNumbers(2, 2), 50L).size());
+        assertEquals(3, competitorList.startAll(StartSelection.all(), 100L).size());
+        assertTrue(competitorList.startAll(StartSelection.all(), 200L).isEmpty());
+        assertNull(competitorList.getNextCompetitor());
+        assertEquals(6, competitorList.getCompetitorCount(CompetitorStatus.ON_COURSE));
+        assertEquals(0, competitorList.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+
+        // Competitors sharing a start time are queued by start number
+        List<Integer> onCourse = competitorList.getCompetitorsOnCourse().stream().map(Competitor::getStartNumber).toList();
+        assertEquals(List.of(2, 1, 3, 4, 5, 6), onCourse);
+    }
+
+    @Test
+    void testCategoryAndGenderViewsAreCachedUntilTheirMembersChange() {
+        Competitor anna = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        Competitor bert = new Competitor(new Athlete("Bert", "B", Gender.MALE, "Club B", null, CompetitorStatus.NOT_STARTED), 2);
+        Competitor cleo = new Competitor(new Athlete("Cleo", "C", Gender.FEMALE, "Club C", null, CompetitorStatus.NOT_STARTED), 3);
+        anna.setCategory(Category.U12);
+        bert.setCategory(Category.U12);
+        cleo.setCategory(Category.SENIOR);
+        competitorList.addCompetitors(List.of(anna, bert, cleo));
+
+        Set<Competitor> u12 = competitorList.getCompetitorsByCategory(Category.U12);
+        Set<Competitor> females = competitorList.getCompetitorsByGender(Gender.FEMALE);
+        Set<Competitor> seniorFemales = competitorList.getFemaleCompetitorsByCategory(Category.SENIOR);
+        assertEquals(Set.of(anna, bert), u12);
+        assertEquals(Set.of(anna, cleo), females);
+        assertThrows(UnsupportedOperationException.class, () -> u12.remove(anna));
+        assertEquals(new QueryCacheStats(0, 3), competitorList.getQueryCacheStats());
+
+        // Status changes do not change membership
+        anna.start(100L);
+        assertSame(u12, competitorList.getCompetitorsByCategory(Category.U12));
+        assertSame(females, competitorList.getCompetitorsByGender(Gender.FEMALE));
+
+        // A male U12 competitor invalidates the U12 and male views only
+        Competitor dirk = new Competitor(new Athlete("Dirk", "D", Gender.MALE, "Club D", null, CompetitorStatus.NOT_STARTED), 4);
+        dirk.setCategory(Category.U12);
+        competitorList.addCompetitor(dirk);
+        assertEquals(Set.of(anna, bert, dirk), competitorList.getCompetitorsByCategory(Category.U12));
+        assertEquals(Set.of(bert, dirk), competitorList.getMaleCompetitorsByCategory(Category.U12));
+        assertSame(females, competitorList.getCompetitorsByGender(Gender.FEMALE));
+        assertSame(seniorFemales, competitorList.getFemaleCompetitorsByCategory(Category.SENIOR));
+
+        competitorList.removeCompetitor(cleo);
+        assertEquals(Set.of(anna), competitorList.getCompetitorsByGender(Gender.FEMALE));
+        assertTrue(competitorList.getFemaleCompetitorsByCategory(Category.SENIOR).isEmpty());
+        assertEquals(Set.of(anna, cleo), females);
+
+        QueryCacheStats stats = competitorList.getQueryCacheStats();
+        assertEquals(new QueryCacheStats(4, 7), stats);
+        assertEquals(4.0 / 11, stats.hitRatio(), 1e-9);
+    }
 }
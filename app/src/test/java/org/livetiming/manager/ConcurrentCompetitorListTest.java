@@ -0,0 +1,95 @@
+package org.livetiming.manager;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.TimeSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentCompetitorListTest {
+
+    private static final int COMPETITORS = 2_000;
+    private static final int READERS = 64;
+
+    @Test
+    void testReadersIterateWhileWriterStartsAndFinishes() throws Exception {
+        ConcurrentCompetitorList competitorList = new ConcurrentCompetitorList();
+        Category[] categories = Category.values();
+        for (int i = 0; i < COMPETITORS; i++) {
+            Competitor competitor = new Competitor(new Athlete("First" + i, "Last" + i, i % 2 == 0 ? Gender.MALE : Gender.FEMALE,
+                    "Club", null, CompetitorStatus.NOT_STARTED), 0);
+            competitor.setCategory(categories[i % categories.length]);
+            competitorList.addCompetitor(competitor);
+        }
+        competitorList.assignStartNumbersByCategory();
+        IndividualRace race = new IndividualRace("Stress", competitorList);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        List<Future<?>> readers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        for (Competitor competitor : competitorList.getCompetitorsOnCourse()) {
+                            assertTrue(competitor.getStartTime() > 0);
+                        }
+                        for (Competitor competitor : competitorList.getCompetitorsByStatus(CompetitorStatus.FINISHED)) {
+                            assertTrue(competitor.getFinishTime() >= competitor.getStartTime());
+                        }
+                        assertTrue(competitorList.getCompetitorCount(CompetitorStatus.FINISHED) <= COMPETITORS);
+                        competitorList.getNextCompetitor();
+                        reads.incrementAndGet();
+                        Thread.yield();
+                    }
+                    return null;
+                }));
+            }
+
+            Future<?> writer = executor.submit(() -> {
+                // Finishes are stamped by the time source of the race, like the starts
+                TimeSource timeSource = race.getTimeSource();
+                for (int i = 0; i < COMPETITORS; i++) {
+                    race.startNext();
+                    if (competitorList.getCompetitorCount(CompetitorStatus.ON_COURSE) > 10) {
+                        race.finishNext(timeSource.now());
+                    }
+                }
+                while (competitorList.getNextCompetitorOnCourse() != null) {
+                    race.finishNext(timeSource.now());
+                }
+                return null;
+            });
+
+            try {
+                writer.get(30, TimeUnit.SECONDS);
+            } finally {
+                done.set(true);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(COMPETITORS, competitorList.getCompetitorCount(CompetitorStatus.FINISHED));
+        assertEquals(0, competitorList.getCompetitorCount(CompetitorStatus.NOT_STARTED));
+        assertTrue(competitorList.getCompetitorsOnCourse().isEmpty());
+        assertNull(competitorList.getNextCompetitor());
+        assertTrue(race.getRanking().getOverall().getResultAt(1).netTime() >= 0);
+    }
+}
@@ -0,0 +1,91 @@
+package org.livetiming.manager;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartNumberIndexTest {
+
+    @Test
+    void testPutGetAndRemoveAcrossResizes() {
+        StartNumberIndex index = new StartNumberIndex();
+        Competitor[] competitors = new Competitor[1_000];
+        for (int i = 0; i < competitors.length; i++) {
+            competitors[i] = competitor(i + 1);
+            index.put(i + 1, competitors[i]);
+        }
+        assertEquals(1_000, index.size());
+
+        // Removing every other start number must not break the probe sequences of the remaining ones
+        for (int i = 0; i < competitors.length; i += 2) {
+            assertTrue(index.remove(i + 1, competitors[i]));
+        }
+        assertEquals(500, index.size());
+        for (int i = 0; i < competitors.length; i++) {
+            if (i % 2 == 0) {
+                assertNull(index.get(i + 1));
+            } else {
+                assertSame(competitors[i], index.get(i + 1));
+            }
+        }
+    }
+
+    @Test
+    void testRemoveKeepsStartNumberTakenOverByAnotherCompetitor() {
+        StartNumberIndex index = new StartNumberIndex();
+        Competitor first = competitor(5);
+        Competitor second = competitor(5);
+        index.put(5, first);
+        index.put(5, second);
+
+        assertFalse(index.remove(5, first));
+        assertSame(second, index.get(5));
+        assertTrue(index.remove(5, second));
+        assertNull(index.get(5));
+    }
+
+    @Test
+    void testLargeTablesSpreadStartNumbersOverAllSlots() {
+        int count = 200_000;
+        int mask = (1 << 19) - 1;
+        BitSet homes = new BitSet(mask + 1);
+        int highest = 0;
+        for (int startNumber = 1; startNumber <= count; startNumber++) {
+            int slot = StartNumberIndex.slotOf(startNumber, mask);
+            homes.set(slot);
+            highest = Math.max(highest, slot);
+        }
+        // Consecutive start numbers must reach the upper part of the table and rarely share a home slot
+        assertTrue(highest > 1 << 18, "highest home slot " + highest);
+        assertTrue(homes.cardinality() > count * 3 / 4, "distinct home slots " + homes.cardinality());
+
+        StartNumberIndex index = new StartNumberIndex();
+        Competitor[] competitors = new Competitor[count];
+        for (int i = 0; i < count; i++) {
+            competitors[i] = competitor(i + 1);
+            index.put(i + 1, competitors[i]);
+        }
+        assertEquals(count, index.size());
+        for (int i = 0; i < count; i++) {
+            assertSame(competitors[i], index.get(i + 1));
+        }
+    }
+
+    @Test
+    void testUnnumberedCompetitorsAreNotIndexed() {
+        StartNumberIndex index = new StartNumberIndex();
+        index.put(0, competitor(0));
+
+        assertEquals(0, index.size());
+        assertNull(index.get(0));
+    }
+
+    private static Competitor competitor(int startNumber) {
+        return new Competitor(new Athlete("Athlete", "" + startNumber, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), startNumber);
+    }
+}
@@ -0,0 +1,109 @@
+package org.livetiming.manager;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartNumberSeederTest {
+
+    @Test
+    void testGroupsGetContiguousStartNumberRangesInStartOrder() {
+        CompetitorList competitorList = new CompetitorList();
+        Competitor senior = competitor("Zoe", "Club A", Gender.FEMALE, Category.SENIOR);
+        Competitor boy = competitor("Bert", "Club A", Gender.MALE, Category.U12);
+        Competitor girl2 = competitor("Cleo", "Club B", Gender.FEMALE, Category.U12);
+        Competitor girl1 = competitor("Anna", "Club C", Gender.FEMALE, Category.U12);
+        competitorList.addCompetitors(List.of(senior, boy, girl2, girl1));
+
+        List<SeededGroup> groups = competitorList.assignStartNumbers(SeedingOrder.alphabetical(), 101);
+
+        assertEquals(3, groups.size());
+        assertEquals(new SeededGroup(Category.U12, Gender.FEMALE, 101, List.of(girl1, girl2)), groups.get(0));
+        assertEquals(Category.U12, groups.get(1).category());
+        assertEquals(Gender.MALE, groups.get(1).gender());
+        assertEquals(103, groups.get(1).firstStartNumber());
+        assertEquals(104, groups.get(2).lastStartNumber());
+        assertEquals(List.of(101, 102, 103, 104), List.of(girl1.getStartNumber(), girl2.getStartNumber(),
+                boy.getStartNumber(), senior.getStartNumber()));
+        assertSame(boy, competitorList.getCompetitorByStartNumber(103));
+        assertSame(girl1, competitorList.getNextCompetitor());
+    }
+
+    @Test
+    void testSeedingOrdersAreReproducible() {
+        List<Competitor> field = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            field.add(competitor("Athlete" + i, "Club " + i % 7, i % 2 == 0 ? Gender.FEMALE : Gender.MALE, Category.values()[i % 4]));
+        }
+        CompetitorList competitorList = new CompetitorList();
+        competitorList.addCompetitors(field);
+
+        competitorList.assignStartNumbers(SeedingOrder.randomDraw(42), 1);
+        List<Integer> first = field.stream().map(Competitor::getStartNumber).toList();
+        competitorList.assignStartNumbers(SeedingOrder.randomDraw(7), 1);
+        assertNotEquals(first, field.stream().map(Competitor::getStartNumber).toList());
+        competitorList.assignStartNumbers(SeedingOrder.randomDraw(42), 1);
+        assertEquals(first, field.stream().map(Competitor::getStartNumber).toList());
+
+        // The same field in another list, added in another order, is drawn the same way
+        List<Competitor> copies = new ArrayList<>();
+        for (Competitor competitor : field) {
+            copies.add(new Competitor(competitor, 0));
+        }
+        List<Competitor> reversed = new ArrayList<>(copies);
+        Collections.reverse(reversed);
+        CompetitorList copy = new CompetitorList();
+        copy.addCompetitors(reversed);
+        copy.assignStartNumbers(SeedingOrder.randomDraw(42), 1);
+        assertEquals(first, copies.stream().map(Competitor::getStartNumber).toList());
+    }
+
+    @Test
+    void testRankingPointsAndPreviousResults() {
+        Competitor anna = competitor("Anna", "Club A", Gender.FEMALE, Category.SENIOR);
+        Competitor cleo = competitor("Cleo", "Club B", Gender.FEMALE, Category.SENIOR);
+        Competitor eve = competitor("Eve", "Club C", Gender.FEMALE, Category.SENIOR);
+        Competitor ida = competitor("Ida", "Club D", Gender.FEMALE, Category.SENIOR);
+        CompetitorList competitorList = new CompetitorList();
+        competitorList.addCompetitors(List.of(anna, cleo, eve, ida));
+
+        Map<Competitor, Double> points = Map.of(anna, 10.0, cleo, 80.0, eve, 10.0, ida, 35.5);
+        List<SeededGroup> byPoints = competitorList.assignStartNumbers(SeedingOrder.byRankingPoints(points::get), 1);
+        assertEquals(List.of(cleo, ida, anna, eve), byPoints.get(0).competitors());
+
+        // Eve won, Anna was second, the others have no previous result
+        Map<Competitor, Integer> ranks = Map.of(eve, 1, anna, 2);
+        List<SeededGroup> reversed = competitorList.assignStartNumbers(
+                SeedingOrder.reverseOfResults(competitor -> ranks.getOrDefault(competitor, 0)), 1);
+        assertEquals(List.of(cleo, ida, anna, eve), reversed.get(0).competitors());
+        assertEquals(4, eve.getStartNumber());
+    }
+
+    @Test
+    void testClubSeparationDefersClubMates() {
+        List<Competitor> competitors = new ArrayList<>(List.of(
+                competitor("A", "Red", Gender.MALE, Category.SENIOR),
+                competitor("B", "Red", Gender.MALE, Category.SENIOR),
+                competitor("C", "Red", Gender.MALE, Category.SENIOR),
+                competitor("D", "Blue", Gender.MALE, Category.SENIOR),
+                competitor("E", null, Gender.MALE, Category.SENIOR),
+                competitor("F", null, Gender.MALE, Category.SENIOR)));
+
+        StartNumberSeeder.separateClubs(competitors);
+
+        assertEquals(List.of("A", "D", "B", "E", "C", "F"), competitors.stream().map(Competitor::getFirstName).toList());
+    }
+
+    private static Competitor competitor(String name, String club, Gender gender, Category category) {
+        return new Competitor(new Athlete(name, name, gender, club, null, category, CompetitorStatus.NOT_STARTED), 0);
+    }
+}
@@ -0,0 +1,71 @@
+package org.livetiming.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void testWriteTextUsesThePrometheusFormat() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "race", "Sprint").add(3);
+        assertSame(registry.counter("requests_total", "race", "Sprint"), registry.counter("requests_total", "race", "Sprint"));
+        registry.gauge(() -> 7, "on_course", "race", "Sprint");
+        registry.histogram("latency_nanoseconds").record(100);
+
+        StringBuilder text = new StringBuilder();
+        registry.writeText(text);
+
+        assertTrue(text.toString().contains("requests_total{race=\"Sprint\"} 3\n"));
+        assertTrue(text.toString().contains("on_course{race=\"Sprint\"} 7\n"));
+        assertTrue(text.toString().contains("latency_nanoseconds{quantile=\"0.99\"} 100\n"));
+        assertTrue(text.toString().contains("latency_nanoseconds_count 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd", "race"));
+    }
+
+    @Test
+    void testRemoveLabeledDropsTheMetricsOfARace() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "race", "Sprint").increment();
+        registry.counter("requests_total", "race", "Distance").increment();
+
+        registry.removeLabeled("race", "Sprint");
+
+        assertEquals(Map.of("requests_total{race=\"Distance\"}", 1L), registry.getCounters());
+    }
+
+    @Test
+    void testRemoveGaugeKeepsAGaugeRegisteredLater() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LongSupplier first = () -> 1;
+        LongSupplier second = () -> 2;
+        registry.gauge(first, "on_course", "race", "Sprint");
+        registry.gauge(second, "on_course", "race", "Sprint");
+
+        registry.removeGauge(first, "on_course", "race", "Sprint");
+        assertEquals(Map.of("on_course{race=\"Sprint\"}", 2L), registry.getGauges());
+        registry.removeGauge(second, "on_course", "race", "Sprint");
+        assertTrue(registry.getGauges().isEmpty());
+    }
+
+    @Test
+    void testRegistryIsExposedAsMXBean() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total").add(2);
+        ObjectName name = registry.registerMBean("org.livetiming:type=Metrics,name=test");
+        try {
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Counters"));
+            assertThrows(IllegalArgumentException.class, () -> registry.registerMBean("org.livetiming:type=Metrics,name=test"));
+        } finally {
+            registry.unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,57 @@
+package org.livetiming.model;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.exception.CategoryRulesException;
+
+import java.time.Year;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryResolverTest {
+
+    @Test
+    void testStandardResolverMatchesCategoryByAge() {
+        CategoryResolver resolver = CategoryResolver.standard(Year.of(2024));
+
+        for (int age = 0; age <= 100; age++) {
+            assertEquals(Category.getCategoryByAge(age), resolver.resolve(2024 - age), "age " + age);
+        }
+        assertEquals(Category.BABY, resolver.resolve(2030));
+        assertEquals(Category.GRAND_MASTER, resolver.resolve(1800));
+        assertNull(resolver.resolve((Year) null));
+    }
+
+    @Test
+    void testResolversForDifferentSeasonsAndRulesAreIndependent() {
+        CategoryResolver federation = CategoryResolver.parse("federation", Year.of(2025), List.of(
+                "# Youth and open classes",
+                "U12 = 11",
+                "u16 = 15",
+                "",
+                "SENIOR = *"));
+        CategoryResolver standard = CategoryResolver.standard(Year.of(2024));
+
+        assertEquals(Category.U12, federation.resolve(2014));
+        assertEquals(Category.U16, federation.resolve(2013));
+        assertEquals(Category.SENIOR, federation.resolve(1950));
+        assertEquals(Category.U10, standard.resolve(2014));
+        assertEquals("federation", federation.getName());
+    }
+
+    @Test
+    void testBracketsWithoutOpenEndLeaveOlderAthletesUnknown() {
+        CategoryResolver resolver = CategoryResolver.parse("youth", Year.of(2024), List.of("U10 = 10", "U20 = 20"));
+
+        assertEquals(Category.U20, resolver.resolve(2004));
+        assertEquals(Category.UNKNOWN, resolver.resolve(2003));
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(CategoryRulesException.class, () -> CategoryResolver.parse("x", Year.of(2024), List.of("U10 10")));
+        assertThrows(CategoryRulesException.class, () -> CategoryResolver.parse("x", Year.of(2024), List.of("KIDS = 10")));
+        assertThrows(CategoryRulesException.class, () -> CategoryResolver.parse("x", Year.of(2024), List.of("U20 = 20", "U10 = 10")));
+        assertThrows(CategoryRulesException.class, () -> CategoryResolver.parse("x", Year.of(2024), List.of("# empty")));
+    }
+}
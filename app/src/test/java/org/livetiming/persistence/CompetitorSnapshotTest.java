@@ -0,0 +1,137 @@
+package org.livetiming.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.livetiming.exception.SnapshotException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompetitorSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadRestoresCompetitorsIntoTheList() throws Exception {
+        Path path = tempDir.resolve("competitors.snapshot");
+        CompetitorSnapshot.write(createCompetitors(), path);
+
+        CompetitorList restored = new CompetitorList();
+        assertEquals(4, CompetitorSnapshot.load(path, restored));
+
+        Competitor finisher = restored.getCompetitorByStartNumber(1);
+        assertEquals("Zo\u00eb M\u00fcller", finisher.getName());
+        assertEquals("SC W\u00f6rgl", finisher.getClub());
+        assertEquals(Year.of(1990), finisher.getBirthYear());
+        assertEquals(Category.SENIOR, finisher.getCategory());
+        assertEquals(CompetitorStatus.FINISHED, finisher.getStatus());
+        assertEquals(1_000L, finisher.getStartTime());
+        assertEquals(9_000L, finisher.getFinishTime());
+        assertEquals(5_000L, finisher.getSplitTime(2));
+        assertEquals(0L, finisher.getSplitTime(1));
+
+        Competitor onCourse = restored.getCompetitorByStartNumber(300);
+        assertNull(onCourse.getClub());
+        assertNull(onCourse.getBirthYear());
+        assertSame(onCourse, restored.getNextCompetitorOnCourse());
+        assertEquals(CompetitorStatus.DID_NOT_FINISH, restored.getCompetitorByStartNumber(2).getStatus());
+        assertSame(restored.getCompetitorByStartNumber(4), restored.getNextCompetitor());
+    }
+
+    @Test
+    void testOpenedSnapshotReadsAttributesFromTheMappedFile() throws Exception {
+        Path path = tempDir.resolve("competitors.snapshot");
+        List<Competitor> competitors = createCompetitors();
+        CompetitorSnapshot.write(competitors, path);
+
+        try (CompetitorSnapshot snapshot = CompetitorSnapshot.open(path)) {
+            assertEquals(4, snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                Competitor expected = competitors.get(i);
+                assertEquals(expected.getStartNumber(), snapshot.getStartNumber(i));
+                assertEquals(expected.getFirstName(), snapshot.getFirstName(i));
+                assertEquals(expected.getLastName(), snapshot.getLastName(i));
+                assertEquals(expected.getClub(), snapshot.getClub(i));
+                assertEquals(expected.getGender(), snapshot.getGender(i));
+                assertEquals(expected.getCategory(), snapshot.getCategory(i));
+                assertEquals(expected.getStatus(), snapshot.getStatus(i));
+                assertEquals(expected.getBirthYear(), snapshot.getBirthYear(i));
+                assertEquals(expected.getStartTime(), snapshot.getStartTime(i));
+                assertEquals(expected.getFinishTime(), snapshot.getFinishTime(i));
+            }
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotsAreRejected() throws Exception {
+        Path path = tempDir.resolve("competitors.snapshot");
+        CompetitorSnapshot.write(createCompetitors(), path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(SnapshotException.class, () -> CompetitorSnapshot.read(path));
+
+        bytes[0] = 'X';
+        Files.write(path, bytes);
+        assertThrows(SnapshotException.class, () -> CompetitorSnapshot.read(path));
+    }
+
+    @Test
+    void testUnknownStatusOrGenderIsRejected() throws Exception {
+        Path path = tempDir.resolve("competitors.snapshot");
+        CompetitorSnapshot.write(List.of(createCompetitors().get(0)), path);
+        byte[] bytes = Files.readAllBytes(path);
+        // Start number and string ids of the only record are one-byte varints, followed by gender, category, status
+        int gender = (int) ByteBuffer.wrap(bytes, 16, 8).order(ByteOrder.LITTLE_ENDIAN).getLong() + 4;
+        assertEquals(Gender.FEMALE.ordinal(), bytes[gender]);
+
+        byte[] corrupt = bytes.clone();
+        corrupt[gender + 2] = (byte) CompetitorStatus.values().length;
+        Files.write(path, corrupt);
+        SnapshotException status = assertThrows(SnapshotException.class, () -> CompetitorSnapshot.read(path));
+        assertTrue(status.getMessage().contains("CompetitorStatus"));
+
+        corrupt = bytes.clone();
+        corrupt[gender] = (byte) 0x7F;
+        Files.write(path, corrupt);
+        assertThrows(SnapshotException.class, () -> CompetitorSnapshot.open(path));
+    }
+
+    private static List<Competitor> createCompetitors() {
+        List<Competitor> competitors = new ArrayList<>();
+        Competitor finisher = new Competitor(new Athlete("Zo\u00eb", "M\u00fcller", Gender.FEMALE, "SC W\u00f6rgl", Year.of(1990), Category.SENIOR, CompetitorStatus.NOT_STARTED), 1);
+        finisher.start(1_000L);
+        finisher.recordSplit(2, 5_000L);
+        finisher.finish(9_000L);
+        competitors.add(finisher);
+
+        Competitor retired = new Competitor(new Athlete("Bert", "M\u00fcller", Gender.MALE, "SC W\u00f6rgl", Year.of(1985), Category.VETERAN, CompetitorStatus.NOT_STARTED), 2);
+        retired.start(2_000L);
+        retired.setStatus(CompetitorStatus.DID_NOT_FINISH);
+        competitors.add(retired);
+
+        Competitor onCourse = new Competitor(new Athlete("Cleo", "Berger", Gender.FEMALE, null, null, null, CompetitorStatus.NOT_STARTED), 300);
+        onCourse.start(3_000L);
+        competitors.add(onCourse);
+
+        competitors.add(new Competitor(new Athlete("Dora", "Berger", Gender.FEMALE, "Club", Year.of(2012), Category.U12, CompetitorStatus.NOT_STARTED), 4));
+        competitors.sort(Comparator.comparingInt(Competitor::getStartNumber));
+        return competitors;
+    }
+}
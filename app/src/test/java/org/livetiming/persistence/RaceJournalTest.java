@@ -0,0 +1,218 @@
+package org.livetiming.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import java.nio.file.Path;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaceJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplayRestoresRaceAfterRestart() throws Exception {
+        Path path = tempDir.resolve("race.journal");
+        CompetitorList original = createCompetitors(6);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Sprint", original, new FakeTimeSource(1_000L), journal);
+            race.reset();
+            race.assignStartNumbers();
+            for (int i = 0; i < 5; i++) {
+                race.startNext();
+            }
+            race.finishNext(2_000L);
+            race.didNotFinishNext();
+            race.finishNext(2_500L);
+        }
+
+        CompetitorList recovered = createCompetitors(6);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            assertEquals(1 + 6 + 5 + 3, journal.size());
+            assertEquals(journal.size(), journal.replay(recovered));
+        }
+
+        Map<Integer, Competitor> expected = byStartNumber(original);
+        Map<Integer, Competitor> actual = byStartNumber(recovered);
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Integer, Competitor> entry : expected.entrySet()) {
+            Competitor competitor = actual.get(entry.getKey());
+            assertEquals(entry.getValue().getName(), competitor.getName());
+            assertEquals(entry.getValue().getStatus(), competitor.getStatus());
+            assertEquals(entry.getValue().getStartTime(), competitor.getStartTime());
+            assertEquals(entry.getValue().getFinishTime(), competitor.getFinishTime());
+        }
+        assertEquals(2, recovered.getCompetitorCount(CompetitorStatus.FINISHED));
+        assertEquals(original.getNextCompetitor().getName(), recovered.getNextCompetitor().getName());
+    }
+
+    @Test
+    void testReplayRestoresSplits() throws Exception {
+        Path path = tempDir.resolve("splits.journal");
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Cross Country", createCompetitors(2), new FakeTimeSource(0), journal);
+            race.setCheckpointCount(300);
+            race.startNext(100L);
+            race.recordSplit(1, 400L);
+            race.recordSplit(300, 900L);
+        }
+
+        CompetitorList recovered = createCompetitors(2);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            journal.replay(recovered);
+        }
+        Competitor competitor = recovered.getNextCompetitorOnCourse();
+        assertEquals(400L, competitor.getSplitTime(1));
+        assertEquals(900L, competitor.getSplitTime(300));
+        assertEquals(0L, competitor.getSplitTime(2));
+    }
+
+    @Test
+    void testReplayRestoresCorrections() throws Exception {
+        Path path = tempDir.resolve("corrections.journal");
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Downhill", createCompetitors(3), new FakeTimeSource(0), journal);
+            race.massStart(100L);
+            race.finish(1, 500L);
+            race.finish(2, 600L);
+            race.didNotFinish(3);
+            race.swapFinishTimes(1, 2);
+            race.correctStartTime(2, 50L);
+            race.reinstate(3);
+        }
+
+        CompetitorList recovered = createCompetitors(3);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            journal.replay(recovered);
+        }
+        assertEquals(600L, recovered.getCompetitorByStartNumber(1).getFinishTime());
+        assertEquals(50L, recovered.getCompetitorByStartNumber(2).getStartTime());
+        assertEquals(500L, recovered.getCompetitorByStartNumber(2).getFinishTime());
+        assertEquals(CompetitorStatus.FINISHED, recovered.getCompetitorByStartNumber(2).getStatus());
+        assertEquals(CompetitorStatus.ON_COURSE, recovered.getCompetitorByStartNumber(3).getStatus());
+    }
+
+    @Test
+    void testReplayFollowsRenumberedCompetitors() throws Exception {
+        Path path = tempDir.resolve("renumber.journal");
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Sprint", createCompetitors(3), new FakeTimeSource(0), journal);
+            race.massStart(100L);
+            race.renumber(3, 33);
+            race.finish(33, 700L);
+            race.renumber(1, 3);
+            race.finish(3, 800L);
+        }
+
+        CompetitorList recovered = createCompetitors(3);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            journal.replay(recovered);
+        }
+        Map<Integer, Competitor> competitors = byStartNumber(recovered);
+        assertEquals(Set.of(2, 3, 33), competitors.keySet());
+        assertEquals("Last2", competitors.get(33).getLastName());
+        assertEquals(700L, competitors.get(33).getFinishTime());
+        assertEquals("Last0", competitors.get(3).getLastName());
+        assertEquals(800L, competitors.get(3).getFinishTime());
+        assertEquals(CompetitorStatus.ON_COURSE, competitors.get(2).getStatus());
+    }
+
+    @Test
+    void testAppendContinuesAfterLastRecord() throws Exception {
+        Path path = tempDir.resolve("append.journal");
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            journal.reset();
+        }
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            assertEquals(1, journal.size());
+            journal.reset();
+            assertEquals(2, journal.size());
+        }
+    }
+
+    @Test
+    void testReplayOfHundredThousandEvents() throws Exception {
+        Path path = tempDir.resolve("large.journal");
+        int competitorCount = 50_000;
+        CompetitorList original = createCompetitors(competitorCount);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Marathon", original, new FakeTimeSource(1_000L), journal);
+            for (int i = 0; i < competitorCount; i++) {
+                race.startNext();
+                race.finishNext(2_000L + i);
+            }
+            assertEquals(2L * competitorCount, journal.size());
+        }
+
+        // The replay time is measured by RaceJournalBenchmark
+        CompetitorList recovered = createCompetitors(competitorCount);
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            assertEquals(2L * competitorCount, journal.replay(recovered));
+        }
+        assertEquals(competitorCount, recovered.getCompetitorCount(CompetitorStatus.FINISHED));
+    }
+
+    @Test
+    void testReplayKeepsAthletesWithIdenticalDataApart() throws Exception {
+        Path path = tempDir.resolve("twins.journal");
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            IndividualRace race = new IndividualRace("Relay", createTwins(), new FakeTimeSource(0), journal);
+            race.assignStartNumbers();
+            race.startNext(100L);
+            race.startNext(200L);
+            race.finish(2, 700L);
+        }
+
+        CompetitorList recovered = createTwins();
+        try (RaceJournal journal = RaceJournal.open(path)) {
+            journal.replay(recovered);
+        }
+        Map<Integer, Competitor> competitors = byStartNumber(recovered);
+        assertEquals(2, competitors.size());
+        assertEquals(CompetitorStatus.ON_COURSE, competitors.get(1).getStatus());
+        assertEquals(100L, competitors.get(1).getStartTime());
+        assertEquals(CompetitorStatus.FINISHED, competitors.get(2).getStatus());
+        assertEquals(200L, competitors.get(2).getStartTime());
+        assertEquals(700L, competitors.get(2).getFinishTime());
+    }
+
+    private static CompetitorList createTwins() {
+        CompetitorList competitors = new CompetitorList();
+        for (int i = 0; i < 2; i++) {
+            Athlete athlete = new Athlete("Anna", "Berg", Gender.FEMALE, "Club 1", Year.of(1990), CompetitorStatus.NOT_STARTED);
+            competitors.addCompetitor(new Competitor(athlete, 0));
+        }
+        return competitors;
+    }
+
+    private static CompetitorList createCompetitors(int count) {
+        CompetitorList competitors = new CompetitorList();
+        for (int i = 0; i < count; i++) {
+            Athlete athlete = new Athlete("First" + i, "Last" + i, i % 2 == 0 ? Gender.MALE : Gender.FEMALE, "Club " + i % 7,
+                    Year.of(1970 + i % 40), CompetitorStatus.NOT_STARTED);
+            competitors.addCompetitor(new Competitor(athlete, i + 1));
+        }
+        return competitors;
+    }
+
+    private static Map<Integer, Competitor> byStartNumber(CompetitorList competitors) {
+        Map<Integer, Competitor> result = new HashMap<>();
+        for (Competitor competitor : competitors.getAllCompetitors()) {
+            result.put(competitor.getStartNumber(), competitor);
+        }
+        return result;
+    }
+}
@@ -1,11 +1,28 @@
 package org.livetiming.race;
 
 import org.junit.jupiter.api.Test;
+import org.livetiming.exception.CompetitorNotFoundException;
 import org.livetiming.exception.NoCompetitorsOnCourseException;
 import org.junit.jupiter.api.BeforeEach;
+import org.livetiming.manager.Competitor;
 import org.livetiming.manager.CompetitorList;
+import org.livetiming.manager.StartSelection;
+import org.livetiming.metrics.MetricsRegistry;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CategoryResolver;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.ranking.Leaderboard;
+import org.livetiming.ranking.RankChange;
+import org.livetiming.ranking.RankedResult;
+import org.livetiming.ranking.RankingListener;
+import org.livetiming.timing.FakeTimeSource;
 
-import java.util.Set;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,8 +41,8 @@ class IndividualRaceTest {
     @Test
     void testFinishNextNoNextCompetitor() {
         // Arrange
-        when(mockCompetitorList.getCompetitorsOnCourse())
-                .thenReturn(Set.of());
+        when(mockCompetitorList.getNextCompetitorOnCourse())
+                .thenReturn(null);
 
         long finishTime = 100L;
 
@@ -38,4 +55,276 @@ class IndividualRaceTest {
             assertEquals("No competitors are currently on course.", e.getMessage());
         }
     }
+
+    @Test
+    void testFinishNextKeepsCompetitorsWithIdenticalStartTimes() {
+        Competitor first = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        Competitor second = new Competitor(new Athlete("Bert", "B", Gender.MALE, "Club B", null, CompetitorStatus.NOT_STARTED), 2);
+        CompetitorList competitorList = new CompetitorList();
+        competitorList.addCompetitor(second);
+        competitorList.addCompetitor(first);
+        IndividualRace race = new IndividualRace("Mass Start", competitorList);
+
+        second.start(50L);
+        first.start(50L);
+
+        race.finishNext(100L);
+        assertEquals(CompetitorStatus.FINISHED, first.getStatus());
+        assertEquals(CompetitorStatus.ON_COURSE, second.getStatus());
+
+        race.didNotFinishNext();
+        assertEquals(CompetitorStatus.DID_NOT_FINISH, second.getStatus());
+        assertThrows(NoCompetitorsOnCourseException.class, () -> race.finishNext(200L));
+    }
+
+    @Test
+    void testStartAndFinishUseTheRaceTimeSource() {
+        Competitor competitor = new Competitor(new Athlete("Anna", "A", Gender.FEMALE, "Club A", null, CompetitorStatus.NOT_STARTED), 1);
+        CompetitorList competitorList = new CompetitorList();
+        competitorList.addCompetitor(competitor);
+        IndividualRace race = new IndividualRace("Sprint", competitorList, FakeTimeSource.replaying(1_000_000_000L, 1_009_870_001L));
+
+        race.startNext();
+        race.finishNext();
+
+        assertEquals(1_000_000_000L, competitor.getStartTime());
+        assertEquals(1_009_870_001L, competitor.getFinishTime());
+    }
+
+    @Test
+    void testSplitsAreRecordedInCourseOrderAndRankedPerCheckpoint() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Cross Country", competitorList, new FakeTimeSource(0));
+        race.setCheckpointCount(2);
+        race.startNext(0L);
+        race.startNext(100L);
+        race.startNext(200L);
+
+        race.recordSplit(1, 500L);
+        race.recordSplit(1, 3, 550L);
+        race.recordSplit(1, 560L);
+        race.recordSplit(2, 2, 900L);
+
+        Leaderboard split1 = race.getRanking().getSplitLeaderboard(1);
+        assertEquals(3, split1.size());
+        assertEquals(3, split1.getLeader().getStartNumber());
+        assertEquals(350L, split1.getResultAt(1).netTime());
+        assertEquals(3, split1.getRankOfStartNumber(1));
+        assertEquals(1, race.getRanking().getSplitLeaderboard(2).size());
+        assertThrows(IllegalArgumentException.class, () -> race.recordSplit(3, 1_000L));
+        assertThrows(NoCompetitorsOnCourseException.class, () -> race.recordSplit(1, 1_000L));
+
+        race.didNotFinishNext();
+        assertEquals(2, split1.size());
+        race.finishNext(1_200L);
+        assertEquals(2, split1.size());
+        race.reset();
+        assertEquals(0, split1.size());
+        assertEquals(0, competitorList.getAllCompetitors().iterator().next().getSplitTime(1));
+    }
+
+    @Test
+    void testStartTimeChangesOnCourseReRankOrClearTheSplits() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Cross Country", competitorList, new FakeTimeSource(0));
+        race.setCheckpointCount(2);
+        race.startNext(0L);
+        race.startNext(100L);
+        race.startNext(200L);
+        race.recordSplit(1, 1, 500L);
+        race.recordSplit(1, 2, 550L);
+        race.recordSplit(1, 3, 560L);
+        race.recordSplit(2, 1, 900L);
+        Leaderboard split1 = race.getRanking().getSplitLeaderboard(1);
+        Leaderboard split2 = race.getRanking().getSplitLeaderboard(2);
+        assertEquals(3, split1.getRankOfStartNumber(1));
+
+        // A corrected start time moves the splits of the competitor
+        race.correctStartTime(1, 300L);
+        assertEquals(3, split1.size());
+        assertEquals(1, split1.getLeader().getStartNumber());
+        assertEquals(200L, split1.getResultAt(1).netTime());
+        assertEquals(600L, split2.getResultAt(1).netTime());
+
+        // Starting again clears the splits of the competitor
+        competitorList.getCompetitorByStartNumber(2).start(1_000L);
+        assertEquals(2, split1.size());
+        assertEquals(0, split1.getRankOfStartNumber(2));
+        assertEquals(2, split1.getRankOfStartNumber(3));
+        assertEquals(1, split2.size());
+    }
+
+    @Test
+    void testCompetitorsAreFinishedOutOfStartOrderByStartNumber() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 4; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Giant Slalom", competitorList, new FakeTimeSource(0));
+        race.start(1, 0L);
+        race.start(3, 100L);
+        race.start(2, 200L);
+        race.start(4, 300L);
+        assertThrows(CompetitorNotFoundException.class, () -> race.start(3, 400L));
+
+        race.finish(2, 700L);
+        race.didNotFinish(1);
+        race.finish(3, 800L);
+        race.disqualify(2);
+
+        Leaderboard leaderboard = race.getRanking().getOverall();
+        assertEquals(1, leaderboard.size());
+        assertEquals(3, leaderboard.getLeader().getStartNumber());
+        assertEquals(CompetitorStatus.DID_NOT_FINISH, competitorList.getCompetitorByStartNumber(1).getStatus());
+        assertEquals(CompetitorStatus.DISQUALIFIED, competitorList.getCompetitorByStartNumber(2).getStatus());
+        assertEquals(4, competitorList.getNextCompetitorOnCourse().getStartNumber());
+        assertThrows(CompetitorNotFoundException.class, () -> race.finish(1, 900L));
+        assertThrows(CompetitorNotFoundException.class, () -> race.didNotFinish(5));
+        assertThrows(CompetitorNotFoundException.class, () -> race.disqualify(5));
+    }
+
+    @Test
+    void testWaveAndMassStartShareOneStartTime() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 4; i++) {
+            Competitor competitor = new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i);
+            competitor.setCategory(i <= 2 ? Category.U12 : Category.SENIOR);
+            competitorList.addCompetitor(competitor);
+        }
+        IndividualRace race = new IndividualRace("Marathon", competitorList, FakeTimeSource.replaying(1_000L, 2_000L));
+
+        assertEquals(2, race.startWave(StartSelection.of(Category.SENIOR)));
+        assertEquals(2, race.massStart());
+        assertEquals(0, race.massStart(3_000L));
+
+        assertEquals(1_000L, competitorList.getCompetitorByStartNumber(3).getStartTime());
+        assertEquals(2_000L, competitorList.getCompetitorByStartNumber(1).getStartTime());
+        race.finishNext(5_000L);
+        race.finish(1, 5_500L);
+        assertEquals(1, race.getRanking().getOverall().getLeader().getStartNumber());
+        assertEquals(4, competitorList.getNextCompetitorOnCourse().getStartNumber());
+    }
+
+    @Test
+    void testCorrectionsMoveOnlyTheAffectedResults() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 6; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Slalom", competitorList, new FakeTimeSource(0));
+        List<RankChange> changes = new ArrayList<>();
+        race.getRanking().addListener(new RankingListener() {
+            @Override
+            public void onRanked(RankedResult overall, RankedResult category) {
+            }
+
+            @Override
+            public void onRankChanged(RankChange overall, RankChange category) {
+                changes.add(overall);
+            }
+        });
+        race.massStart(0L);
+        for (int i = 1; i <= 4; i++) {
+            race.finish(i, i * 100L);
+        }
+        race.didNotFinish(5);
+        race.didNotFinish(6);
+
+        race.correctFinishTime(4, 150L);
+        Leaderboard leaderboard = race.getRanking().getOverall();
+        assertEquals(2, leaderboard.getRankOfStartNumber(4));
+        assertEquals(1, changes.size());
+        assertEquals(4, changes.get(0).previousRank());
+        assertEquals(List.of(2, 3), changes.get(0).shifted().stream().map(result -> result.competitor().getStartNumber()).toList());
+
+        race.swapFinishTimes(1, 2);
+        assertEquals(List.of(4, 1, 3), leaderboard.getTop(4).stream().skip(1).map(result -> result.competitor().getStartNumber()).toList());
+        assertEquals(3, changes.size());
+
+        race.correctStartTime(3, 250L);
+        assertEquals(1, leaderboard.getRankOfStartNumber(3));
+        race.reinstate(5, 120L);
+        assertEquals(3, leaderboard.getRankOfStartNumber(5));
+        assertEquals(5, leaderboard.size());
+        race.reinstate(6);
+        assertEquals(6, competitorList.getNextCompetitorOnCourse().getStartNumber());
+
+        assertThrows(CompetitorNotFoundException.class, () -> race.reinstate(5));
+        assertThrows(CompetitorNotFoundException.class, () -> race.correctFinishTime(6, 500L));
+        assertThrows(CompetitorNotFoundException.class, () -> race.swapFinishTimes(1, 9));
+    }
+
+    @Test
+    void testRecategorizedFinishersMoveToTheLeaderboardOfTheirNewCategory() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            Year birthYear = Year.of(i == 2 ? 1970 : 2000);
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", birthYear,
+                    Category.SENIOR, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Slalom", competitorList, new FakeTimeSource(0));
+        List<RankedResult> ranked = new ArrayList<>();
+        race.getRanking().addListener((overall, category) -> ranked.add(category));
+        race.massStart(0L);
+        for (int i = 1; i <= 3; i++) {
+            race.finish(i, (4 - i) * 100L);
+        }
+        ranked.clear();
+
+        assertEquals(1, competitorList.recategorize(CategoryResolver.standard(Year.of(2026))));
+        Leaderboard seniors = race.getRanking().getLeaderboard(Category.SENIOR, Gender.FEMALE);
+        Leaderboard masters = race.getRanking().getLeaderboard(Category.MASTER, Gender.FEMALE);
+        assertEquals(2, seniors.size());
+        assertEquals(0, seniors.getRankOfStartNumber(2));
+        assertEquals(2, seniors.getRankOfStartNumber(1));
+        assertEquals(1, masters.getRankOfStartNumber(2));
+        assertEquals(3, race.getRanking().getOverall().size());
+        assertEquals(1, ranked.size());
+        assertSame(competitorList.getCompetitorByStartNumber(2), ranked.get(0).competitor());
+        assertEquals(1, ranked.get(0).rank());
+
+        race.correctFinishTime(2, 50L);
+        assertEquals(2, seniors.size());
+        assertEquals(1, masters.size());
+        assertEquals(1, race.getRanking().getOverall().getRankOfStartNumber(2));
+    }
+
+    @Test
+    void testMetricsCountOperationsTransitionsAndRejections() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            competitorList.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null, CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Sprint", competitorList, new FakeTimeSource(0));
+        assertFalse(race.getMetrics().isEnabled());
+        race.startNext(0L);
+
+        MetricsRegistry registry = new MetricsRegistry();
+        assertTrue(race.enableMetrics(registry).isEnabled());
+        race.startNext(100L);
+        race.finishNext(500L);
+        race.finishNext(600L);
+        assertThrows(NoCompetitorsOnCourseException.class, () -> race.finishNext(700L));
+
+        Map<String, Long> counters = registry.getCounters();
+        assertEquals(1L, counters.get("livetiming_race_operations_total{race=\"Sprint\",operation=\"start_next\"}"));
+        assertEquals(2L, counters.get("livetiming_race_operations_total{race=\"Sprint\",operation=\"finish_next\"}"));
+        assertEquals(2L, counters.get("livetiming_competitor_transitions_total{race=\"Sprint\",from=\"on_course\",to=\"finished\"}"));
+        assertEquals(1L, counters.get("livetiming_race_rejections_total{race=\"Sprint\",exception=\"NoCompetitorsOnCourseException\"}"));
+        assertEquals(1L, registry.getGauges().get("livetiming_race_backlog{race=\"Sprint\"}"));
+        assertEquals(0L, registry.getGauges().get("livetiming_race_on_course{race=\"Sprint\"}"));
+
+        assertEquals(0L, counters.get("livetiming_race_rejections_total{race=\"Sprint\",exception=\"CompetitorNotFoundException\"}"));
+
+        race.disableMetrics();
+        race.startNext(800L);
+        assertEquals(1L, registry.getCounters().get("livetiming_race_operations_total{race=\"Sprint\",operation=\"start_next\"}"));
+        assertTrue(registry.getGauges().isEmpty());
+    }
 }
@@ -0,0 +1,132 @@
+package org.livetiming.race;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.exception.CompetitorNotFoundException;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.timing.FakeTimeSource;
+import org.livetiming.timing.MonotonicTimeSource;
+import org.livetiming.timing.TimeSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartSchedulerTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testPlannedStartTimesFollowTheIntervalRules() {
+        IndividualRace race = race(new FakeTimeSource(0), 5);
+        StartScheduler scheduler = new StartScheduler(race, 100 * SECOND, StartInterval.every(Duration.ofSeconds(30))
+                .withCompetitorsPerStart(2).withCategoryGap(Duration.ofSeconds(60)));
+
+        // Bibs 1 to 3 are U12 girls, bibs 4 and 5 U14 girls
+        List<Long> planned = scheduler.getSchedule().stream().map(ScheduledStart::plannedTime).toList();
+        assertEquals(List.of(100 * SECOND, 100 * SECOND, 130 * SECOND, 220 * SECOND, 220 * SECOND), planned);
+        assertEquals(1, scheduler.getNextStart().startNumber());
+    }
+
+    @Test
+    void testDueStartsAreTriggeredAndTheirDeviationRecorded() {
+        FakeTimeSource timeSource = new FakeTimeSource(0);
+        IndividualRace race = race(timeSource, 3);
+        StartScheduler scheduler = new StartScheduler(race, 10 * SECOND, StartInterval.every(Duration.ofSeconds(30)));
+
+        assertEquals(0, scheduler.startDue(9 * SECOND));
+        assertEquals(1, scheduler.startDue(10 * SECOND + 200));
+        // A second start is due only once its planned time came
+        assertEquals(0, scheduler.startDue(39 * SECOND));
+        race.start(2, 39 * SECOND);
+        assertEquals(0, scheduler.startDue(40 * SECOND + 50));
+
+        ScheduledStart first = scheduler.getScheduledStart(1);
+        assertEquals(ScheduledStart.State.STARTED, first.state());
+        assertEquals(200, first.deviation());
+        assertEquals(10 * SECOND + 200, race.getCompetitors().getCompetitorByStartNumber(1).getStartTime());
+        assertEquals(ScheduledStart.State.MISSED, scheduler.getScheduledStart(2).state());
+        assertEquals(1, scheduler.getDeviation().getCount());
+        assertEquals(3, scheduler.getNextStart().startNumber());
+    }
+
+    @Test
+    void testLateCompetitorsTakeTheNextGapWithoutMovingOthers() {
+        FakeTimeSource timeSource = new FakeTimeSource(0);
+        IndividualRace race = race(timeSource, 6);
+        StartScheduler scheduler = new StartScheduler(race, 0, new StartInterval(10 * SECOND, 1, 0));
+
+        scheduler.skip(4);
+        timeSource.set(5 * SECOND);
+        assertEquals(1, scheduler.startDue(timeSource.now()));
+        assertEquals(ScheduledStart.State.PLANNED, scheduler.getScheduledStart(2).state());
+
+        // Bib 2 missed its start and takes the gap bib 4 left, bib 3 stays put
+        assertEquals(30 * SECOND, scheduler.late(2));
+        assertEquals(20 * SECOND, scheduler.getScheduledStart(3).plannedTime());
+        // Without another gap, a late competitor starts after the last planned start
+        assertEquals(60 * SECOND, scheduler.late(3));
+        assertEquals(50 * SECOND, scheduler.getScheduledStart(6).plannedTime());
+        assertThrows(CompetitorNotFoundException.class, () -> scheduler.late(1));
+        assertThrows(CompetitorNotFoundException.class, () -> scheduler.skip(4));
+        assertThrows(CompetitorNotFoundException.class, () -> scheduler.skip(99));
+
+        assertEquals(1, scheduler.startDue(30 * SECOND));
+        assertEquals(1, scheduler.startDue(40 * SECOND));
+        assertEquals(1, scheduler.startDue(50 * SECOND));
+        assertEquals(1, scheduler.startDue(60 * SECOND));
+        assertEquals(List.of(1, 2, 5, 6, 3), race.getCompetitors().getCompetitorsOnCourse().stream()
+                .map(Competitor::getStartNumber).toList());
+    }
+
+    @Test
+    void testFailedStartsAreMissedAndDoNotStopTheSchedule() {
+        IndividualRace race = race(new FakeTimeSource(0), 3);
+        race.getCompetitors().addListener((competitor, previous, status) -> {
+            if (competitor.getStartNumber() == 2) {
+                throw new IllegalStateException("Broken listener");
+            }
+        });
+        StartScheduler scheduler = new StartScheduler(race, 0, new StartInterval(10 * SECOND, 3, 0));
+        assertEquals(2, scheduler.startDue(0));
+
+        assertEquals(ScheduledStart.State.MISSED, scheduler.getScheduledStart(2).state());
+        assertEquals(ScheduledStart.State.STARTED, scheduler.getScheduledStart(3).state());
+        assertNull(scheduler.getNextStart());
+        assertEquals(2, scheduler.getDeviation().getCount());
+    }
+
+    @Test
+    void testTimerThreadStartsCompetitorsOnSchedule() throws Exception {
+        TimeSource timeSource = new MonotonicTimeSource();
+        IndividualRace race = race(timeSource, 3);
+        StartScheduler scheduler = new StartScheduler(race, timeSource.now() + 20_000_000L, new StartInterval(20_000_000L, 1, 0));
+        scheduler.start();
+        long deadline = System.nanoTime() + 5 * SECOND;
+        while (scheduler.getNextStart() != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.close();
+
+        assertNull(scheduler.getNextStart());
+        assertEquals(3, race.getCompetitors().getCompetitorCount(CompetitorStatus.ON_COURSE));
+        for (ScheduledStart start : scheduler.getSchedule()) {
+            assertTrue(start.deviation() >= 0);
+        }
+    }
+
+    private static IndividualRace race(TimeSource timeSource, int size) {
+        CompetitorList competitors = new CompetitorList();
+        for (int i = 1; i <= size; i++) {
+            Competitor competitor = new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", null,
+                    CompetitorStatus.NOT_STARTED), i);
+            competitor.setCategory(i <= 3 ? Category.U12 : Category.U14);
+            competitors.addCompetitor(competitor);
+        }
+        return new IndividualRace("Interval", competitors, timeSource);
+    }
+}
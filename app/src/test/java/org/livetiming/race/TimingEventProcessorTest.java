@@ -0,0 +1,93 @@
+package org.livetiming.race;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.timing.FakeTimeSource;
+import org.livetiming.timing.TimingChannel;
+
+import java.time.Year;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingEventProcessorTest {
+
+    @Test
+    void testImpulsesAreAppliedToTheRace() throws Exception {
+        CompetitorList competitors = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            competitors.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", Year.of(1990),
+                    CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Sprint", competitors, new FakeTimeSource(0));
+        TimingEventProcessor processor = new TimingEventProcessor(race, 16);
+        processor.start();
+
+        assertTrue(processor.getRing().offer(TimingChannel.START, 100L));
+        assertTrue(processor.getRing().offer(TimingChannel.START, 110L, 3));
+        assertTrue(processor.getRing().offer(TimingChannel.START, 120L));
+        assertTrue(processor.getRing().offer(TimingChannel.FINISH, 500L, 2));
+        assertTrue(processor.getRing().offer(TimingChannel.FINISH, 510L));
+        assertTrue(processor.getRing().offer(TimingChannel.FINISH, 520L, 2));
+        processor.close();
+
+        assertEquals(5, processor.getAppliedCount());
+        assertEquals(1, processor.getRejectedCount());
+        assertEquals(6, processor.getLatency().getCount());
+        assertEquals(2, race.getCompetitors().getCompetitorCount(CompetitorStatus.FINISHED));
+        Competitor winner = race.getRanking().getOverall().getLeader();
+        assertEquals(2, winner.getStartNumber());
+        assertEquals(380L, winner.getFinishTime() - winner.getStartTime());
+    }
+
+    @Test
+    void testExtraStartImpulseIsRejected() throws Exception {
+        CompetitorList competitors = new CompetitorList();
+        competitors.addCompetitor(new Competitor(new Athlete("Athlete", "1", Gender.FEMALE, "Club", Year.of(1990),
+                CompetitorStatus.NOT_STARTED), 1));
+        IndividualRace race = new IndividualRace("Sprint", competitors, new FakeTimeSource(0));
+        TimingEventProcessor processor = new TimingEventProcessor(race, 16);
+        processor.start();
+
+        assertTrue(processor.getRing().offer(TimingChannel.START, 100L));
+        assertTrue(processor.getRing().offer(TimingChannel.START, 110L));
+        assertTrue(processor.getRing().offer(TimingChannel.FINISH, 500L));
+        processor.close();
+
+        assertEquals(2, processor.getAppliedCount());
+        assertEquals(1, processor.getRejectedCount());
+        assertEquals(0, processor.getFailedCount());
+        assertEquals(100L, race.getCompetitors().getCompetitorByStartNumber(1).getStartTime());
+        assertEquals(CompetitorStatus.FINISHED, race.getCompetitors().getCompetitorByStartNumber(1).getStatus());
+    }
+
+    @Test
+    void testFailuresAreReportedAndDoNotStopTheConsumer() throws Exception {
+        CompetitorList competitors = new CompetitorList();
+        for (int i = 1; i <= 2; i++) {
+            competitors.addCompetitor(new Competitor(new Athlete("Athlete", "" + i, Gender.FEMALE, "Club", Year.of(1990),
+                    CompetitorStatus.NOT_STARTED), i));
+        }
+        IndividualRace race = new IndividualRace("Sprint", competitors, new FakeTimeSource(0));
+        competitors.addListener((competitor, previous, status) -> {
+            if (competitor.getStartNumber() == 1) {
+                throw new IllegalStateException("Broken listener");
+            }
+        });
+        TimingEventProcessor processor = new TimingEventProcessor(race, 16);
+        processor.start();
+
+        assertTrue(processor.getRing().offer(TimingChannel.START, 100L, 1));
+        assertTrue(processor.getRing().offer(TimingChannel.START, 110L, 2));
+        assertTrue(processor.getRing().offer(TimingChannel.FINISH, 500L, 3));
+        processor.close();
+
+        assertEquals(1, processor.getFailedCount());
+        assertEquals(1, processor.getRejectedCount());
+        assertEquals(1, processor.getAppliedCount());
+        assertEquals(CompetitorStatus.ON_COURSE, race.getCompetitors().getCompetitorByStartNumber(2).getStatus());
+    }
+}
@@ -0,0 +1,253 @@
+package org.livetiming.ranking;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    @Test
+    void testAddReportsRankAndGaps() {
+        Leaderboard leaderboard = new Leaderboard();
+        Competitor slow = finished(1, 0L, 300L);
+        Competitor fast = finished(2, 0L, 100L);
+        Competitor middle = finished(3, 50L, 250L);
+
+        assertEquals(new RankedResult(slow, 1, 300L, 0L, 0L), leaderboard.add(slow));
+        assertEquals(new RankedResult(fast, 1, 100L, 0L, 0L), leaderboard.add(fast));
+        assertEquals(new RankedResult(middle, 2, 200L, 100L, 100L), leaderboard.add(middle));
+
+        assertEquals(3, leaderboard.getRank(slow));
+        assertEquals(2, leaderboard.getRankOfStartNumber(3));
+        assertEquals(fast, leaderboard.getLeader());
+        assertEquals(new RankedResult(slow, 3, 300L, 200L, 100L), leaderboard.getResult(slow));
+    }
+
+    @Test
+    void testEqualNetTimesShareRank() {
+        Leaderboard leaderboard = new Leaderboard();
+        Competitor first = finished(1, 0L, 100L);
+        Competitor second = finished(2, 0L, 100L);
+        Competitor third = finished(3, 0L, 150L);
+        leaderboard.add(third);
+        leaderboard.add(second);
+        RankedResult result = leaderboard.add(first);
+
+        assertEquals(1, result.rank());
+        assertEquals(1, leaderboard.getRank(second));
+        assertEquals(3, leaderboard.getRank(third));
+        List<RankedResult> top = leaderboard.getTop(3);
+        assertEquals(List.of(first, second, third), top.stream().map(RankedResult::competitor).toList());
+        assertEquals(List.of(1, 1, 3), top.stream().map(RankedResult::rank).toList());
+    }
+
+    @Test
+    void testMatchesSortedFieldAfterRandomUpdates() {
+        Random random = new Random(7);
+        Leaderboard leaderboard = new Leaderboard();
+        List<Competitor> ranked = new ArrayList<>();
+        for (int i = 1; i <= 2_000; i++) {
+            Competitor competitor = finished(i, 0L, 1_000L + random.nextInt(100_000));
+            leaderboard.add(competitor);
+            ranked.add(competitor);
+            if (random.nextInt(4) == 0) {
+                Competitor removed = ranked.remove(random.nextInt(ranked.size()));
+                assertTrue(leaderboard.remove(removed));
+            }
+        }
+        ranked.sort(Comparator.comparingLong(Competitor::getFinishTime).thenComparingInt(Competitor::getStartNumber));
+
+        assertEquals(ranked.size(), leaderboard.size());
+        List<RankedResult> top = leaderboard.getTop(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            assertEquals(ranked.get(i), top.get(i).competitor());
+            assertEquals(ranked.get(i), leaderboard.getResultAt(i + 1).competitor());
+            assertEquals(top.get(i), leaderboard.getResult(ranked.get(i)));
+        }
+    }
+
+    @Test
+    void testRerankReportsOnlyTheResultsBetweenOldAndNewPosition() {
+        Leaderboard leaderboard = new Leaderboard();
+        List<Competitor> field = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            Competitor competitor = finished(i, 0L, i * 100L);
+            leaderboard.add(competitor);
+            field.add(competitor);
+        }
+
+        Competitor corrected = field.get(7);
+        corrected.correctTimes(0L, 250L);
+        RankChange up = leaderboard.rerank(corrected);
+        assertEquals(8, up.previousRank());
+        assertEquals(new RankedResult(corrected, 3, 250L, 150L, 50L), up.result());
+        assertEquals(field.subList(2, 7), up.shifted().stream().map(RankedResult::competitor).toList());
+        assertEquals(List.of(4, 5, 6, 7, 8), up.shifted().stream().map(RankedResult::rank).toList());
+
+        corrected.correctTimes(0L, 950L);
+        RankChange down = leaderboard.rerank(corrected);
+        assertEquals(3, down.previousRank());
+        assertEquals(9, down.result().rank());
+        assertEquals(field.subList(2, 9).stream().filter(competitor -> competitor != corrected).toList(),
+                down.shifted().stream().map(RankedResult::competitor).toList());
+    }
+
+    @Test
+    void testRerankReportsEveryChangedRankAfterRandomCorrections() {
+        Random random = new Random(11);
+        Leaderboard leaderboard = new Leaderboard();
+        List<Competitor> field = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            // Few distinct times, so that many results tie
+            Competitor competitor = finished(i, 0L, 1_000L + random.nextInt(50) * 10L);
+            leaderboard.add(competitor);
+            field.add(competitor);
+        }
+        for (int round = 0; round < 500; round++) {
+            List<RankedResult> before = leaderboard.getTop(field.size());
+            Competitor corrected = field.get(random.nextInt(field.size()));
+            corrected.correctTimes(0L, 1_000L + random.nextInt(50) * 10L);
+            RankChange change = leaderboard.rerank(corrected);
+            List<RankedResult> after = leaderboard.getTop(field.size());
+
+            Map<Competitor, RankedResult> reported = new IdentityHashMap<>();
+            for (RankedResult result : change.shifted()) {
+                reported.put(result.competitor(), result);
+            }
+            assertEquals(leaderboard.getResult(corrected), change.result());
+            for (int position = 0; position < after.size(); position++) {
+                RankedResult result = after.get(position);
+                if (result.competitor() == corrected) {
+                    continue;
+                }
+                if (reported.containsKey(result.competitor())) {
+                    assertEquals(result, reported.get(result.competitor()));
+                } else {
+                    // Results the change does not report kept their position and rank
+                    assertSame(result.competitor(), before.get(position).competitor());
+                    assertEquals(before.get(position).rank(), result.rank());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRaceRanksFinishersPerCategoryAndGender() {
+        CompetitorList competitorList = new CompetitorList();
+        Competitor anna = competitor(1, Gender.FEMALE, Category.U12);
+        Competitor bert = competitor(2, Gender.MALE, Category.U12);
+        Competitor cleo = competitor(3, Gender.FEMALE, Category.U12);
+        competitorList.addCompetitor(anna);
+        competitorList.addCompetitor(bert);
+        competitorList.addCompetitor(cleo);
+        FakeTimeSource timeSource = new FakeTimeSource(0L);
+        IndividualRace race = new IndividualRace("Cross", competitorList, timeSource);
+
+        race.startNext();
+        race.startNext();
+        timeSource.advance(10L);
+        race.startNext();
+        race.finishNext(500L);
+        race.finishNext(300L);
+        race.finishNext(200L);
+
+        RankingEngine ranking = race.getRanking();
+        assertEquals(List.of(bert, cleo, anna), ranking.getOverall().getTop(10).stream().map(RankedResult::competitor).toList());
+        assertEquals(List.of(cleo, anna), ranking.getLeaderboard(Category.U12, Gender.FEMALE).getTop(10).stream().map(RankedResult::competitor).toList());
+        assertEquals(1, ranking.getLeaderboard(Category.U12, Gender.MALE).size());
+
+        cleo.setStatus(CompetitorStatus.DISQUALIFIED);
+        assertEquals(bert, ranking.getOverall().getLeader());
+        assertEquals(anna, ranking.getLeaderboard(Category.U12, Gender.FEMALE).getLeader());
+    }
+
+    @Test
+    void testRankingFollowsCompetitorsAddedToAndRemovedFromTheList() {
+        CompetitorList competitorList = new CompetitorList();
+        RankingEngine ranking = new RankingEngine();
+        competitorList.addListener(ranking);
+        Competitor fast = finished(1, 0L, 100L);
+        fast.recordSplit(1, 40L);
+        Competitor slow = finished(2, 0L, 300L);
+        slow.recordSplit(1, 60L);
+        Competitor onCourse = competitor(3, Gender.FEMALE, Category.SENIOR);
+        onCourse.start(0L);
+        onCourse.recordSplit(2, 90L);
+
+        competitorList.addCompetitor(slow);
+        competitorList.addCompetitor(fast);
+        competitorList.addCompetitor(onCourse);
+        assertEquals(List.of(fast, slow), ranking.getOverall().getTop(10).stream().map(RankedResult::competitor).toList());
+        assertEquals(2, ranking.getLeaderboard(Category.SENIOR, Gender.FEMALE).size());
+        assertEquals(List.of(fast, slow), ranking.getSplitLeaderboard(1).getTop(10).stream().map(RankedResult::competitor).toList());
+        assertEquals(onCourse, ranking.getSplitLeaderboard(2).getLeader());
+
+        competitorList.removeCompetitor(fast);
+        competitorList.removeCompetitor(onCourse);
+        assertEquals(slow, ranking.getOverall().getLeader());
+        assertEquals(0, ranking.getLeaderboard(Category.SENIOR, Gender.FEMALE).getRank(fast));
+        assertEquals(List.of(slow), ranking.getSplitLeaderboard(1).getTop(10).stream().map(RankedResult::competitor).toList());
+        assertEquals(0, ranking.getSplitLeaderboard(2).size());
+    }
+
+    @Test
+    void testRenumberedFinishersAreFoundByTheirNewStartNumber() {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= 3; i++) {
+            competitorList.addCompetitor(competitor(i, Gender.FEMALE, Category.SENIOR));
+        }
+        IndividualRace race = new IndividualRace("Sprint", competitorList, new FakeTimeSource(0L));
+        race.setCheckpointCount(1);
+        race.massStart(0L);
+        race.recordSplit(1, 1, 50L);
+        race.recordSplit(1, 2, 40L);
+        race.finish(1, 200L);
+        race.finish(2, 100L);
+        race.finish(3, 200L);
+        Competitor renumbered = competitorList.getCompetitorByStartNumber(1);
+
+        race.renumber(2, 42);
+        race.renumber(1, 4);
+        RankingEngine ranking = race.getRanking();
+        for (Leaderboard leaderboard : List.of(ranking.getOverall(), ranking.getLeaderboard(Category.SENIOR, Gender.FEMALE))) {
+            assertEquals(1, leaderboard.getRankOfStartNumber(42));
+            assertEquals(0, leaderboard.getRankOfStartNumber(2));
+            assertEquals(2, leaderboard.getRankOfStartNumber(4));
+            assertEquals(0, leaderboard.getRankOfStartNumber(1));
+            // Tied results are listed by their new start numbers
+            assertEquals(renumbered, leaderboard.getResultAt(3).competitor());
+        }
+        assertEquals(1, ranking.getSplitLeaderboard(1).getRankOfStartNumber(42));
+        assertEquals(0, ranking.getSplitLeaderboard(1).getRankOfStartNumber(2));
+        assertEquals(2, ranking.getSplitLeaderboard(1).getRankOfStartNumber(4));
+    }
+
+    private static Competitor competitor(int startNumber, Gender gender, Category category) {
+        Competitor competitor = new Competitor(new Athlete("First" + startNumber, "Last" + startNumber, gender, "Club", null,
+                CompetitorStatus.NOT_STARTED), startNumber);
+        competitor.setCategory(category);
+        return competitor;
+    }
+
+    private static Competitor finished(int startNumber, long startTime, long finishTime) {
+        Competitor competitor = competitor(startNumber, Gender.FEMALE, Category.SENIOR);
+        competitor.start(startTime);
+        competitor.finish(finishTime);
+        return competitor;
+    }
+}
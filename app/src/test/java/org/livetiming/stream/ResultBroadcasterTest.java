@@ -0,0 +1,150 @@
+package org.livetiming.stream;
+
+import org.junit.jupiter.api.Test;
+import org.livetiming.manager.Competitor;
+import org.livetiming.manager.CompetitorList;
+import org.livetiming.model.Athlete;
+import org.livetiming.model.Category;
+import org.livetiming.model.CompetitorStatus;
+import org.livetiming.model.Gender;
+import org.livetiming.race.IndividualRace;
+import org.livetiming.timing.FakeTimeSource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultBroadcasterTest {
+
+    @Test
+    void testPublishesDeltasAndSnapshot() throws Exception {
+        IndividualRace race = createRace(2);
+        ResultBroadcaster broadcaster = new ResultBroadcaster();
+        broadcaster.attach(race);
+        Subscriber subscriber = broadcaster.subscribe();
+
+        race.startNext();
+        race.finishNext(5_000L);
+
+        String started = subscriber.poll(1, TimeUnit.SECONDS);
+        String finished = subscriber.poll(1, TimeUnit.SECONDS);
+        assertTrue(started.contains("\"type\":\"ON_COURSE\""));
+        assertTrue(finished.contains("\"type\":\"FINISHED\""));
+        assertTrue(finished.contains("\"rank\":1"));
+        assertTrue(finished.contains("\"netTime\":4000"));
+        assertNull(subscriber.poll(0, TimeUnit.SECONDS));
+
+        List<String> snapshot = broadcaster.getSnapshot();
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.contains(finished));
+    }
+
+    @Test
+    void testSnapshotCarriesCurrentRanks() {
+        IndividualRace race = createRace(2);
+        ResultBroadcaster broadcaster = new ResultBroadcaster();
+        broadcaster.attach(race);
+
+        race.startNext(1_000L);
+        race.startNext(2_000L);
+        race.finish(1, 9_000L);
+        race.finish(2, 6_000L);
+
+        List<String> snapshot = broadcaster.getSnapshot();
+        String first = snapshot.stream().filter(event -> event.contains("\"bib\":1,")).findFirst().orElseThrow();
+        String second = snapshot.stream().filter(event -> event.contains("\"bib\":2,")).findFirst().orElseThrow();
+        assertTrue(first.contains("\"rank\":2,"), first);
+        assertTrue(first.contains("\"gap\":4000,"), first);
+        assertTrue(first.contains("\"categoryRank\":2,"), first);
+        assertTrue(second.contains("\"rank\":1,"), second);
+    }
+
+    @Test
+    void testCorrectionPublishesEveryShiftedResult() throws Exception {
+        IndividualRace race = createRace(4);
+        ResultBroadcaster broadcaster = new ResultBroadcaster();
+        broadcaster.attach(race);
+        race.massStart(1_000L);
+        for (int i = 1; i <= 4; i++) {
+            race.finish(i, 1_000L + i * 1_000L);
+        }
+        Subscriber subscriber = broadcaster.subscribe();
+
+        race.correctFinishTime(4, 1_500L);
+
+        List<String> events = new ArrayList<>();
+        String event = subscriber.poll(1, TimeUnit.SECONDS);
+        while (event != null) {
+            events.add(event);
+            event = subscriber.poll(0, TimeUnit.SECONDS);
+        }
+        assertEquals(4, events.size(), events.toString());
+        assertTrue(events.get(0).contains("\"bib\":4,") && events.get(0).contains("\"rank\":1,"), events.get(0));
+        for (int bib = 1; bib <= 3; bib++) {
+            String shifted = events.get(bib);
+            assertTrue(shifted.contains("\"bib\":" + bib + ","), shifted);
+            assertTrue(shifted.contains("\"rank\":" + (bib + 1) + ","), shifted);
+            assertTrue(shifted.contains("\"categoryRank\":" + (bib + 1) + ","), shifted);
+            assertTrue(broadcaster.getSnapshot().contains(shifted), shifted);
+        }
+    }
+
+    @Test
+    void testSlowSubscriberIsResynced() throws Exception {
+        IndividualRace race = createRace(10);
+        ResultBroadcaster broadcaster = new ResultBroadcaster(4);
+        broadcaster.attach(race);
+        Subscriber subscriber = broadcaster.subscribe();
+
+        for (int i = 0; i < 10; i++) {
+            race.startNext();
+        }
+
+        assertTrue(subscriber.getPendingCount() < 4);
+        assertTrue(subscriber.consumeResync());
+        assertFalse(subscriber.consumeResync());
+    }
+
+    @Test
+    void testServerStreamsSnapshotAndEvents() throws Exception {
+        IndividualRace race = createRace(1);
+        ResultBroadcaster broadcaster = new ResultBroadcaster();
+        broadcaster.attach(race);
+        try (ResultStreamServer server = new ResultStreamServer(broadcaster, new InetSocketAddress("localhost", 0))) {
+            server.start();
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + ResultStreamServer.PATH).openConnection();
+            connection.setReadTimeout(5_000);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                assertEquals("event: snapshot", reader.readLine());
+                assertEquals("data: ", reader.readLine());
+                assertEquals("", reader.readLine());
+                assertTrue(reader.readLine().contains("\"type\":\"NOT_STARTED\""));
+                assertEquals("", reader.readLine());
+
+                race.startNext();
+                assertTrue(reader.readLine().contains("\"type\":\"ON_COURSE\""));
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static IndividualRace createRace(int size) {
+        CompetitorList competitorList = new CompetitorList();
+        for (int i = 1; i <= size; i++) {
+            Competitor competitor = new Competitor(new Athlete("First" + i, "Last \"" + i + "\"", Gender.FEMALE, "Club", null,
+                    CompetitorStatus.NOT_STARTED), i);
+            competitor.setCategory(Category.SENIOR);
+            competitorList.addCompetitor(competitor);
+        }
+        return new IndividualRace("Stream", competitorList, new FakeTimeSource(1_000L));
+    }
+}
@@ -0,0 +1,50 @@
+package org.livetiming.timing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSourceTest {
+
+    @Test
+    void testMonotonicTimeSourceIsAnchoredAndNeverGoesBack() {
+        Instant anchor = Instant.parse("2025-01-01T10:00:00Z");
+        MonotonicTimeSource timeSource = new MonotonicTimeSource(anchor);
+        long anchorNanos = anchor.getEpochSecond() * 1_000_000_000L;
+
+        long previous = timeSource.now();
+        assertTrue(previous >= anchorNanos);
+        for (int i = 0; i < 1_000; i++) {
+            long now = timeSource.now();
+            assertTrue(now >= previous);
+            previous = now;
+        }
+        assertTrue(previous - anchorNanos < 60_000_000_000L);
+    }
+
+    @Test
+    void testFakeTimeSourceReplaysThenHolds() {
+        FakeTimeSource timeSource = FakeTimeSource.replaying(10L, 20L, 35L);
+        assertEquals(10L, timeSource.now());
+        assertEquals(20L, timeSource.now());
+        assertEquals(35L, timeSource.now());
+        assertEquals(35L, timeSource.now());
+
+        timeSource.advance(5L);
+        assertEquals(40L, timeSource.now());
+        timeSource.set(100L);
+        assertEquals(100L, timeSource.now());
+    }
+
+    @Test
+    void testExternalImpulseTimeSourceReturnsLatestImpulse() {
+        ExternalImpulseTimeSource timeSource = new ExternalImpulseTimeSource();
+        assertEquals(0L, timeSource.now());
+        timeSource.onImpulse(1_234_567_891L);
+        assertEquals(1_234_567_891L, timeSource.now());
+        timeSource.onImpulse(1_234_567_899L);
+        assertEquals(1_234_567_899L, timeSource.now());
+    }
+}
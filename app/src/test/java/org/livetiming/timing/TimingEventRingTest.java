@@ -0,0 +1,63 @@
+package org.livetiming.timing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingEventRingTest {
+
+    @Test
+    void testEventsAreDrainedInOrder() {
+        TimingEventRing ring = new TimingEventRing(4);
+        assertTrue(ring.offer(TimingChannel.START, 10L));
+        assertTrue(ring.offer(TimingChannel.FINISH, 20L, 7));
+        List<String> events = new ArrayList<>();
+
+        assertEquals(2, ring.drain((channel, timestamp, startNumber, capturedAt) -> events.add(channel + "@" + timestamp + "#" + startNumber), 10));
+
+        assertEquals(List.of("START@10#0", "FINISH@20#7"), events);
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testFullRingRejectsWithoutBlocking() {
+        TimingEventRing ring = new TimingEventRing(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(TimingChannel.FINISH, i));
+        }
+
+        assertFalse(ring.offer(TimingChannel.FINISH, 4L));
+        assertEquals(1, ring.getDroppedCount());
+
+        assertEquals(2, ring.drain((channel, timestamp, startNumber, capturedAt) -> { }, 2));
+        assertTrue(ring.offer(TimingChannel.FINISH, 5L));
+        List<Long> timestamps = new ArrayList<>();
+        ring.drain((channel, timestamp, startNumber, capturedAt) -> timestamps.add(timestamp), 10);
+        assertEquals(List.of(2L, 3L, 5L), timestamps);
+    }
+
+    @Test
+    void testProducerAndConsumerThreadsExchangeAllEvents() throws Exception {
+        TimingEventRing ring = new TimingEventRing(64);
+        int events = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= events; i++) {
+                while (!ring.offer(TimingChannel.FINISH, i)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+
+        long[] expected = {1};
+        while (expected[0] <= events) {
+            ring.drain((channel, timestamp, startNumber, capturedAt) -> assertEquals(expected[0]++, timestamp), 16);
+        }
+        producer.join();
+        assertEquals(0, ring.size());
+    }
+}